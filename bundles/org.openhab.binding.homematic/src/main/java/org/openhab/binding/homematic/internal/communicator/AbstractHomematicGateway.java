@@ -14,6 +14,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -38,6 +40,7 @@ import org.openhab.binding.homematic.internal.communicator.client.RpcClient;
 import org.openhab.binding.homematic.internal.communicator.client.TransferMode;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.XmlRpcClient;
+import org.openhab.binding.homematic.internal.communicator.parser.GetParamsetDescriptionParser;
 import org.openhab.binding.homematic.internal.communicator.parser.ListBidcosInterfacesParser;
 import org.openhab.binding.homematic.internal.communicator.server.BinRpcServer;
 import org.openhab.binding.homematic.internal.communicator.server.RpcEventListener;
@@ -90,6 +93,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String CACHE_FOLDER_NAME = "homematic";
 
     private final Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private final Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -110,6 +114,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
+    private ParamsetDescriptionCache paramsetDescriptionCache;
     private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
 
     static {
@@ -188,6 +193,12 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
             sb.setLength(sb.length() - 2);
         }
         logger.debug("Used Homematic transfer modes: {}", sb.toString());
+
+        File cacheFile = new File(ConfigConstants.getUserDataFolder() + File.separator + CACHE_FOLDER_NAME,
+                id + ".paramsets");
+        paramsetDescriptionCache = new ParamsetDescriptionCache(cacheFile, gatewayInfo.getFirmware());
+        paramsetDescriptionCache.load();
+
         startClients();
         startServers();
 
@@ -399,8 +410,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                                     cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
                                 } else {
                                     logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
+                                    addCachedChannelDatapoints(channel);
 
                                     // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
                                     // the data point set might change depending on the selected mode.
@@ -422,10 +432,42 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         }
         if (!cancelLoadAllMetadata) {
             devices.keySet().retainAll(loadedDevices);
+            paramsetDescriptionCache.save();
         }
         initialized = true;
     }
 
+    /**
+     * Loads all datapoints of the channel from the paramset description cache. Descriptions which are not cached are
+     * loaded from the gateway and added to the cache, if the channel is not reconfigurable.
+     */
+    private void addCachedChannelDatapoints(HmChannel channel) throws IOException {
+        Map<String, Object[]> loadedDescriptions = new HashMap<String, Object[]>();
+        for (HmParamsetType paramsetType : new HmParamsetType[] { HmParamsetType.MASTER, HmParamsetType.VALUES }) {
+            String key = ParamsetDescriptionCache.getKey(channel, paramsetType);
+            Object[] description = paramsetDescriptionCache.get(key);
+            if (description == null) {
+                try {
+                    description = getRpcClient(channel.getDevice().getHmInterface()).getParamsetDescription(channel,
+                            paramsetType);
+                    loadedDescriptions.put(key, description);
+                } catch (UnknownParameterSetException ex) {
+                    addUnknownParamsetDatapoints(channel, paramsetType);
+                    continue;
+                }
+            }
+            if (description.length > 0) {
+                new GetParamsetDescriptionParser(channel, paramsetType).parse(description);
+            }
+        }
+        // the datapoints of reconfigurable channels depend on the selected mode, so they are not cached
+        if (!channel.isReconfigurable()) {
+            for (Entry<String, Object[]> entry : loadedDescriptions.entrySet()) {
+                paramsetDescriptionCache.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     /**
      * Loads all datapoints from the gateway.
      */
@@ -433,12 +475,19 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         try {
             getRpcClient(channel.getDevice().getHmInterface()).addChannelDatapoints(channel, paramsetType);
         } catch (UnknownParameterSetException ex) {
-            logger.info(
-                    "Can not load metadata for device: {}, channel: {}, paramset: {}, maybe there are no channels available",
-                    channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
+            addUnknownParamsetDatapoints(channel, paramsetType);
         }
     }
 
+    /**
+     * Called if the gateway doesn't know the paramset of the channel.
+     */
+    protected void addUnknownParamsetDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
+        logger.info(
+                "Can not load metadata for device: {}, channel: {}, paramset: {}, maybe there are no channels available",
+                channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
+    }
+
     /**
      * Loads all device descriptions from the gateway.
      */
@@ -27,7 +27,6 @@ import org.eclipse.jetty.client.api.ContentResponse;
 import org.eclipse.jetty.client.util.StringContentProvider;
 import org.eclipse.jetty.http.HttpHeader;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
-import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownRpcFailureException;
 import org.openhab.binding.homematic.internal.communicator.parser.CcuLoadDeviceNamesParser;
 import org.openhab.binding.homematic.internal.communicator.parser.CcuParamsetDescriptionParser;
@@ -132,19 +131,15 @@ public class CcuGateway extends AbstractHomematicGateway {
     }
 
     @Override
-    protected void addChannelDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
-        try {
-            getRpcClient(channel.getDevice().getHmInterface()).addChannelDatapoints(channel, paramsetType);
-        } catch (UnknownParameterSetException ex) {
-            logger.debug(
-                    "RpcMessage RPC failure (-3 Unknown paramset), fetching metadata with TclRega script for device: {}, channel: {}, paramset: {}",
-                    channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
-
-            TclScriptDataList resultList = sendScriptByName("getParamsetDescription", TclScriptDataList.class,
-                    new String[] { "device_address", "channel_number" },
-                    new String[] { channel.getDevice().getAddress(), channel.getNumber().toString() });
-            new CcuParamsetDescriptionParser(channel, paramsetType).parse(resultList);
-        }
+    protected void addUnknownParamsetDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
+        logger.debug(
+                "RpcMessage RPC failure (-3 Unknown paramset), fetching metadata with TclRega script for device: {}, channel: {}, paramset: {}",
+                channel.getDevice().getAddress(), channel.getNumber(), paramsetType);
+
+        TclScriptDataList resultList = sendScriptByName("getParamsetDescription", TclScriptDataList.class,
+                new String[] { "device_address", "channel_number" },
+                new String[] { channel.getDevice().getAddress(), channel.getNumber().toString() });
+        new CcuParamsetDescriptionParser(channel, paramsetType).parse(resultList);
     }
 
     @Override
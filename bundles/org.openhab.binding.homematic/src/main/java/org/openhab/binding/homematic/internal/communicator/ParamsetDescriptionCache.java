@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the paramset descriptions of the channels of a gateway in a file, so they don't have to be requested from the
+ * gateway for every device at each startup.
+ * <p>
+ * The descriptions are stored by device type, device firmware and channel, so a device with a firmware update is
+ * loaded from the gateway again. Entries which are not used by a complete metadata load are removed on save, the whole
+ * cache is discarded if the firmware of the gateway has changed.
+ * <p>
+ * The file only contains the maps, arrays and simple values of the descriptions, so no other classes are deserialized
+ * from it.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCache {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionCache.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final Set<String> ALLOWED_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            HashMap.class.getName(), Object[].class.getName(), String.class.getName(), Number.class.getName(),
+            Integer.class.getName(), Long.class.getName(), Double.class.getName(), Boolean.class.getName(),
+            Date.class.getName(), byte[].class.getName())));
+
+    private final File file;
+    private final String gatewayFirmware;
+    private Map<String, Object[]> descriptions = new HashMap<>();
+    private final Set<String> usedKeys = new HashSet<>();
+    private boolean modified;
+
+    public ParamsetDescriptionCache(File file, String gatewayFirmware) {
+        this.file = file;
+        this.gatewayFirmware = Objects.toString(gatewayFirmware, "");
+    }
+
+    /**
+     * Returns the key of the paramset description of the given channel.
+     */
+    public static String getKey(HmChannel channel, HmParamsetType paramsetType) {
+        HmDevice device = channel.getDevice();
+        return String.format("%s:%s:%s:%s:%s:%s", device.getHmInterface(), device.getType(), device.getFirmware(),
+                channel.getNumber(), channel.getType(), paramsetType);
+    }
+
+    /**
+     * Loads the paramset descriptions from the file, an unreadable or outdated file results in an empty cache.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void load() {
+        descriptions = new HashMap<>();
+        usedKeys.clear();
+        modified = false;
+        if (!file.exists()) {
+            return;
+        }
+        try (ObjectInputStream in = new FilteringObjectInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                logger.debug("Ignoring paramset description cache '{}' with an unknown format", file);
+            } else if (!gatewayFirmware.equals(in.readUTF())) {
+                logger.debug("Ignoring paramset description cache '{}', the gateway firmware has changed", file);
+            } else {
+                descriptions = (Map<String, Object[]>) in.readObject();
+                logger.debug("Loaded {} paramset descriptions from '{}'", descriptions.size(), file);
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            logger.debug("Can't load paramset description cache '{}': {}", file, ex.getMessage());
+            descriptions = new HashMap<>();
+        }
+    }
+
+    /**
+     * Returns the cached paramset description with the given key or null, if there is none.
+     */
+    public synchronized Object[] get(String key) {
+        Object[] description = descriptions.get(key);
+        if (description != null) {
+            usedKeys.add(key);
+        }
+        return description;
+    }
+
+    /**
+     * Adds the paramset description with the given key.
+     */
+    public synchronized void put(String key, Object[] description) {
+        descriptions.put(key, description);
+        usedKeys.add(key);
+        modified = true;
+    }
+
+    /**
+     * Removes all paramset descriptions which have not been used since the cache has been loaded and writes the cache
+     * to the file, if it has changed.
+     */
+    public synchronized void save() {
+        if (descriptions.keySet().retainAll(usedKeys)) {
+            modified = true;
+        }
+        if (!modified) {
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            File folder = file.getParentFile();
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("Can't create folder " + folder);
+            }
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(gatewayFirmware);
+                out.writeObject(descriptions);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+            logger.debug("Saved {} paramset descriptions to '{}'", descriptions.size(), file);
+        } catch (IOException ex) {
+            logger.debug("Can't save paramset description cache '{}': {}", file, ex.getMessage());
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Only resolves the classes of paramset descriptions, any other class in the file fails the load.
+     */
+    private class FilteringObjectInputStream extends ObjectInputStream {
+        FilteringObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                logger.debug("Rejecting class '{}' in paramset description cache", desc.getName());
+                throw new InvalidClassException(desc.getName(), "Not allowed in a paramset description cache");
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
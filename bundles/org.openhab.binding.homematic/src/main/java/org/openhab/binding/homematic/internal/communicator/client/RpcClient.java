@@ -172,14 +172,25 @@ public abstract class RpcClient<T> {
      * Loads all datapoint metadata into the given channel.
      */
     public void addChannelDatapoints(HmChannel channel, HmParamsetType paramsetType) throws IOException {
+        Object[] description = getParamsetDescription(channel, paramsetType);
+        if (description.length > 0) {
+            new GetParamsetDescriptionParser(channel, paramsetType).parse(description);
+        }
+    }
+
+    /**
+     * Returns the paramset description of the given channel, which can be parsed by the
+     * {@link GetParamsetDescriptionParser}. The description is empty if the channel has no such paramset.
+     */
+    public Object[] getParamsetDescription(HmChannel channel, HmParamsetType paramsetType) throws IOException {
         if (isConfigurationChannel(channel) && paramsetType != HmParamsetType.MASTER) {
             // The configuration channel only has a MASTER Paramset, so there is nothing to load
-            return;
+            return new Object[0];
         }
         RpcRequest<T> request = createRpcRequest("getParamsetDescription");
         request.addArg(getRpcAddress(channel.getDevice().getAddress()) + getChannelSuffix(channel));
         request.addArg(paramsetType.toString());
-        new GetParamsetDescriptionParser(channel, paramsetType).parse(sendMessage(config.getRpcPort(channel), request));
+        return sendMessage(config.getRpcPort(channel), request);
     }
 
     /**
@@ -19,28 +19,36 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
+ * <p>
+ * Received messages are decoded in place from a {@link ByteBuffer}, without copying the message or its numbers into
+ * intermediate arrays.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private final Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
 
+    /** The length of the signature and the content length in front of every message */
+    public static final int HEADER_LENGTH = 8;
+
     public enum TYPE {
         REQUEST,
         RESPONSE
@@ -54,6 +62,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private TYPE type;
     private int args;
     private String encoding;
+    private boolean received;
 
     public BinRpcMessage(String methodName, String encoding) {
         this(methodName, TYPE.REQUEST, encoding);
@@ -74,30 +83,39 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
         this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
+        byte sig[] = new byte[HEADER_LENGTH];
+        int length = read(is, sig, 0, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading signature");
         }
         validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
+        length = read(is, sig, 4, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte payload[] = new byte[datasize];
-        int offset = 0;
-        int currentLength;
-
-        while (offset < datasize && (currentLength = is.read(payload, offset, datasize - offset)) != -1) {
-            offset += currentLength;
-        }
+        int datasize = getMessageLength(ByteBuffer.wrap(sig)) - HEADER_LENGTH;
+        // the payload is read behind the header, so that the message needs no further copy
+        byte message[] = Arrays.copyOf(sig, HEADER_LENGTH + datasize);
+        int offset = read(is, message, HEADER_LENGTH, datasize);
         if (offset != datasize) {
             throw new EOFException("Only " + offset + " bytes received while reading message payload, expected "
                     + datasize + " bytes");
         }
-        byte[] message = ArrayUtils.addAll(sig, payload);
-        decodeMessage(message, methodHeader);
+        binRpcData = message;
+        this.offset = message.length;
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
+    }
+
+    /**
+     * Reads up to length bytes, returns less only if the end of the stream is reached.
+     */
+    private static int read(InputStream is, byte[] buffer, int offset, int length) throws IOException {
+        int count = 0;
+        int currentLength;
+        while (count < length && (currentLength = is.read(buffer, offset + count, length - count)) != -1) {
+            count += currentLength;
+        }
+        return count;
     }
 
     private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
@@ -111,23 +129,67 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      */
     public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
         this.encoding = encoding;
-        if (message.length < 8) {
+        if (message.length < HEADER_LENGTH) {
             throw new EOFException("Only " + message.length + " bytes received");
         }
         validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
+        binRpcData = message;
+        offset = message.length;
+        decodeMessage(ByteBuffer.wrap(message), methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
+    /**
+     * Decodes a BIN-RPC message starting at the position of the given buffer. The values are decoded in place, the
+     * buffer is neither modified nor referenced afterwards, so it can be reused for the next message.
+     */
+    public BinRpcMessage(ByteBuffer message, boolean methodHeader, String encoding) throws IOException {
+        this.encoding = encoding;
+        int length = getMessageLength(message);
+        if (length < 0) {
+            throw new EOFException("Only " + message.remaining() + " bytes received");
+        }
+        if (length > message.remaining()) {
+            throw new EOFException("Only " + message.remaining() + " bytes received, expected " + length + " bytes");
+        }
+        ByteBuffer data = message.slice();
+        data.limit(length);
+        decodeMessage(data, methodHeader);
+    }
 
-        offset = 8;
+    /**
+     * Returns the length of the message starting at the position of the given buffer, including its header.
+     *
+     * @return the length or -1 if the buffer does not contain the complete header yet
+     * @throws IOException if the buffer does not contain a BIN-RPC message
+     */
+    public static int getMessageLength(ByteBuffer message) throws IOException {
+        if (message.remaining() < HEADER_LENGTH) {
+            return -1;
+        }
+        int start = message.position();
+        if (message.get(start) != 'B' || message.get(start + 1) != 'i' || message.get(start + 2) != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+        int datasize = message.getInt(start + 4);
+        if (datasize < 0 || datasize > Integer.MAX_VALUE - HEADER_LENGTH) {
+            throw new IOException("Invalid message length " + datasize);
+        }
+        return HEADER_LENGTH + datasize;
+    }
+
+    private void decodeMessage(ByteBuffer message, boolean methodHeader) throws IOException {
+        received = true;
+        message.position(HEADER_LENGTH);
 
         if (methodHeader) {
-            methodName = readString();
-            readInt();
+            try {
+                methodName = readString(message, getCharset());
+                message.getInt();
+            } catch (BufferUnderflowException e) {
+                throw new EOFException("Message ends within the method header");
+            }
         }
-        generateResponseData();
+        messageData = readValues(message);
     }
 
     public void setType(TYPE type) {
@@ -135,13 +197,9 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
-        List<Object> values = new ArrayList<>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
-        }
-        messageData = values.toArray();
-        values.clear();
+        ByteBuffer data = ByteBuffer.wrap(binRpcData);
+        data.position(HEADER_LENGTH + (methodName != null ? methodName.length() + 8 : 0));
+        messageData = readValues(data);
     }
 
     private void createHeader() {
@@ -197,56 +255,86 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
+    private Object[] readValues(ByteBuffer data) throws IOException {
+        Charset charset = getCharset();
+        List<Object> values = new ArrayList<>(1);
+        try {
+            while (data.hasRemaining()) {
+                values.add(readRpcValue(data, charset));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Message ends within a value after " + data.position() + " bytes");
+        }
+        return values.toArray();
     }
 
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private Charset getCharset() throws UnsupportedEncodingException {
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+    }
+
+    private int readCount(ByteBuffer data, int minElementSize) throws IOException {
+        int count = data.getInt();
+        if (count < 0 || count > data.remaining() / minElementSize) {
+            throw new EOFException("Invalid number of elements " + count + " for " + data.remaining() + " bytes");
+        }
+        return count;
+    }
+
+    private String readString(ByteBuffer data, Charset charset) throws IOException {
+        int len = readCount(data, 1);
+        String string;
+        if (data.hasArray()) {
+            string = new String(data.array(), data.arrayOffset() + data.position(), len, charset);
+        } else {
+            byte bytes[] = new byte[len];
+            data.duplicate().get(bytes);
+            string = new String(bytes, charset);
+        }
+        data.position(data.position() + len);
+        return string;
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer data, Charset charset) throws IOException {
+        int type = data.getInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(data.getInt());
             case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                return readString();
+                return readString(data, charset);
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(data.getInt() * 1000L);
             case 0x100:
-                // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                // Array, every element has at least its type
+                int numElements = readCount(data, 4);
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue(data, charset);
                 }
-                return array.toArray();
+                return array;
             case 0x101:
-                // Struct
-                numElements = readInt();
-                Map<String, Object> struct = new TreeMap<>();
+                // Struct, every element has at least the length of its name and its type
+                numElements = readCount(data, 8);
+                Map<String, Object> struct = new HashMap<>((int) (numElements / 0.75f) + 1);
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(data, charset);
+                    struct.put(name, readRpcValue(data, charset));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                for (int i = 0; i < data.limit(); i++) {
+                    logger.info("{} {}", Integer.toHexString(data.get(i)), (char) data.get(i));
                 }
                 throw new IOException("Unknown data type " + type);
         }
@@ -370,8 +458,10 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
+            if (!received) {
+                trimBinRpcData();
+                generateResponseData();
+            }
             return RpcUtils.dumpRpcMessage(methodName, messageData);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
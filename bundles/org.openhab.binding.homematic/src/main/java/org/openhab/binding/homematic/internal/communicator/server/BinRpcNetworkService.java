@@ -14,28 +14,50 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and hands them to the RpcResponseHandler.
+ * <p>
+ * All connections are served by one non-blocking selector thread, which reads and decodes the messages. The method
+ * calls are handled in the RPC thread pool, so a pool thread is only busy while a message is handled, not for the
+ * whole lifetime of a kept alive connection.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
 
@@ -45,9 +67,17 @@ public class BinRpcNetworkService implements Runnable {
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(config.getBindAddress(), config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            selector = Selector.open();
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -78,27 +108,116 @@ public class BinRpcNetworkService implements Runnable {
      */
     @Override
     public void run() {
-        while (accept) {
-            try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+        ExecutorService pool = ThreadPoolManager.getPool(RPC_POOL_NAME);
+        try {
+            while (accept) {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException ex) {
+                        logger.warn("BIN-RPC connection task failed: {}", ex.getMessage(), ex);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptConnection(pool);
+                    } else {
+                        BinRpcResponseHandler rpcHandler = (BinRpcResponseHandler) key.attachment();
+                        try {
+                            rpcHandler.handleSelection(key);
+                        } catch (RuntimeException ex) {
+                            // only this connection is affected, the other connections are served further
+                            logger.warn("Closing BIN-RPC connection after an unexpected error: {}", ex.getMessage(),
+                                    ex);
+                            rpcHandler.close();
+                        }
+                    }
+                }
+            }
+        } catch (ClosedSelectorException | IOException ex) {
+            if (accept) {
+                logger.warn("BIN-RPC server stopped unexpectedly: {}", ex.getMessage(), ex);
+            }
+        } finally {
+            close();
+            stopped.countDown();
+        }
+    }
+
+    private void acceptConnection(ExecutorService pool) {
+        SocketChannel channel = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(channel, rpcResponseHandler, config,
+                        pool, this);
+                channel.register(selector, SelectionKey.OP_READ, rpcHandler);
+            }
+        } catch (IOException ex) {
+            logger.debug("Can't accept BIN-RPC connection: {}", ex.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ioe) {
+                    // ignore
+                }
             }
         }
     }
 
     /**
-     * Stops the listening.
+     * Runs the given task in the selector thread, which is the only thread that reads from and writes to the
+     * connections.
      */
-    public void shutdown() {
-        accept = false;
+    void executeInSelectorThread(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void close() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ioe) {
+                    // ignore
+                }
+            }
+            selector.close();
+        } catch (ClosedSelectorException | IOException ex) {
+            // ignore
+        }
         try {
-            serverSocket.close();
+            serverChannel.close();
         } catch (IOException ioe) {
             // ignore
         }
     }
 
+    /**
+     * Stops the listening and closes all connections.
+     */
+    public void shutdown() {
+        accept = false;
+        selector.wakeup();
+        try {
+            // the listening socket is released by the selector thread, wait for it so that the port can be reused
+            if (!stopped.await(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.debug("BIN-RPC server did not stop within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 }
@@ -14,7 +14,10 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
@@ -22,53 +25,158 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Reads a BIN-RPC message from the socket and handles the method call.
+ * Reads BIN-RPC messages from a connection and handles the method calls.
+ * <p>
+ * Reading, decoding and writing is done by the selector thread of the {@link BinRpcNetworkService}, the method call is
+ * handled in the RPC thread pool. The gateway waits for the response before it sends the next message, so the
+ * connection is not read while a message is handled.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcResponseHandler implements Runnable {
     private final Logger logger = LoggerFactory.getLogger(BinRpcResponseHandler.class);
 
-    private Socket socket;
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private SocketChannel channel;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
     private HomematicConfig config;
+    private Executor executor;
+    private BinRpcNetworkService networkService;
     private long created;
 
-    public BinRpcResponseHandler(Socket socket, RpcResponseHandler<byte[]> rpcResponseHandler, HomematicConfig config) {
-        this.socket = socket;
+    // only accessed by the selector thread, except the message which is handed over to the pool thread
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer writeBuffer;
+    private SelectionKey key;
+    private volatile BinRpcMessage message;
+
+    public BinRpcResponseHandler(SocketChannel channel, RpcResponseHandler<byte[]> rpcResponseHandler,
+            HomematicConfig config, Executor executor, BinRpcNetworkService networkService) {
+        this.channel = channel;
         this.rpcResponseHandler = rpcResponseHandler;
         this.config = config;
+        this.executor = executor;
+        this.networkService = networkService;
         this.created = System.currentTimeMillis();
     }
 
     /**
-     * Reads the event from the Homematic gateway and handles the method call.
+     * Reads from or writes to the connection, called by the selector thread.
      */
-    @Override
-    public void run() {
+    void handleSelection(SelectionKey key) {
+        this.key = key;
         try {
-            boolean isMaxAliveReached;
-            do {
-                BinRpcMessage message = new BinRpcMessage(socket.getInputStream(), true, config.getEncoding());
-                logger.trace("Event BinRpcMessage: {}", message);
-                byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
-                        message.getResponseData());
-                if (returnValue != null) {
-                    socket.getOutputStream().write(returnValue);
+            if (key.isWritable()) {
+                write();
+            } else if (key.isReadable()) {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                } else {
+                    decodeMessage();
                 }
-                isMaxAliveReached = System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000);
-            } while (!isMaxAliveReached);
-
+            }
         } catch (EOFException eof) {
-            // ignore
+            close();
+        } catch (IOException e) {
+            logger.warn("{}", e.getMessage(), e);
+            close();
+        }
+    }
+
+    /**
+     * Decodes the next message if it has been received completely and hands it over to the pool thread.
+     */
+    private void decodeMessage() throws IOException {
+        readBuffer.flip();
+        int length = BinRpcMessage.getMessageLength(readBuffer);
+        if (length >= 0 && length <= readBuffer.remaining()) {
+            message = new BinRpcMessage(readBuffer, true, config.getEncoding());
+            readBuffer.position(readBuffer.position() + length);
+        }
+        readBuffer.compact();
+        if (length > readBuffer.capacity()) {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(length);
+            readBuffer.flip();
+            largerBuffer.put(readBuffer);
+            readBuffer = largerBuffer;
+        }
+
+        if (message != null) {
+            key.interestOps(0);
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Handles the method call of the received message, called in the RPC thread pool.
+     */
+    @Override
+    public void run() {
+        BinRpcMessage message = this.message;
+        try {
+            logger.trace("Event BinRpcMessage: {}", message);
+            byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
+                    message.getResponseData());
+            networkService.executeInSelectorThread(() -> respond(returnValue));
         } catch (Exception e) {
             logger.warn("{}", e.getMessage(), e);
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException ioe) {
-                // ignore
+            networkService.executeInSelectorThread(this::close);
+        }
+    }
+
+    private void respond(byte[] returnValue) {
+        message = null;
+        if (!key.isValid()) {
+            // closed by the shutdown of the server
+            return;
+        }
+        if (returnValue != null) {
+            writeBuffer = ByteBuffer.wrap(returnValue);
+        }
+        try {
+            write();
+        } catch (IOException e) {
+            logger.warn("{}", e.getMessage(), e);
+            close();
+        }
+    }
+
+    /**
+     * Writes the pending response, then continues reading if the connection may be kept alive.
+     */
+    private void write() throws IOException {
+        if (writeBuffer != null) {
+            channel.write(writeBuffer);
+            if (writeBuffer.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
             }
+            writeBuffer = null;
+        }
+        boolean isMaxAliveReached = System.currentTimeMillis() - created > (config.getSocketMaxAlive() * 1000);
+        if (isMaxAliveReached) {
+            close();
+            return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        if (readBuffer.position() > 0) {
+            // the next message might have been received already
+            decodeMessage();
+        }
+    }
+
+    /**
+     * Closes the connection, called by the selector thread.
+     */
+    void close() {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ioe) {
+            // ignore
         }
     }
 }
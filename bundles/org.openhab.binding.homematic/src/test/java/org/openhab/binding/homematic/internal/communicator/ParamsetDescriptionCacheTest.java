@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link ParamsetDescriptionCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCacheTest {
+    private static final String KEY_STATE = "RF:HM-LC-Sw1-FM:2.8:1:SWITCH:VALUES";
+    private static final String KEY_LEVEL = "RF:HM-LC-Dim1T-FM:2.9:1:DIMMER:VALUES";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setup() {
+        file = new File(folder.getRoot(), "homematic" + File.separator + "gateway.paramsets");
+    }
+
+    private static Object[] createDescription(String datapointName, String type) {
+        Map<String, Object> datapoint = new HashMap<>();
+        datapoint.put("TYPE", type);
+        datapoint.put("OPERATIONS", 7);
+        datapoint.put("VALUE_LIST", new Object[] { "A", "B" });
+        datapoint.put("DEFAULT", new byte[] { 1, 2 });
+        Map<String, Object> datapoints = new HashMap<>();
+        datapoints.put(datapointName, datapoint);
+        return new Object[] { datapoints };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void restoresSavedDescriptions() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "2.53.27");
+        cache.load();
+        assertThat(cache.get(KEY_STATE), is(nullValue()));
+        cache.put(KEY_STATE, createDescription("STATE", "BOOL"));
+        cache.put(KEY_LEVEL, new Object[0]);
+        cache.save();
+
+        cache = new ParamsetDescriptionCache(file, "2.53.27");
+        cache.load();
+        Object[] description = cache.get(KEY_STATE);
+        Map<String, Map<String, Object>> datapoints = (Map<String, Map<String, Object>>) description[0];
+        assertThat(datapoints.get("STATE").get("TYPE"), is("BOOL"));
+        assertThat(((Object[]) datapoints.get("STATE").get("VALUE_LIST"))[1], is("B"));
+        assertThat(((byte[]) datapoints.get("STATE").get("DEFAULT"))[1], is((byte) 2));
+        assertThat(cache.get(KEY_LEVEL).length, is(0));
+    }
+
+    @Test
+    public void removesUnusedDescriptionsOnSave() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "2.53.27");
+        cache.load();
+        cache.put(KEY_STATE, createDescription("STATE", "BOOL"));
+        cache.put(KEY_LEVEL, createDescription("LEVEL", "FLOAT"));
+        cache.save();
+
+        cache.load();
+        assertThat(cache.get(KEY_LEVEL), is(notNullValue()));
+        cache.save();
+
+        cache.load();
+        assertThat(cache.get(KEY_STATE), is(nullValue()));
+        assertThat(cache.get(KEY_LEVEL), is(notNullValue()));
+    }
+
+    @Test
+    public void discardsDescriptionsOfOtherGatewayFirmware() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "2.53.27");
+        cache.load();
+        cache.put(KEY_STATE, createDescription("STATE", "BOOL"));
+        cache.save();
+
+        cache = new ParamsetDescriptionCache(file, "3.41.11");
+        cache.load();
+        assertThat(cache.get(KEY_STATE), is(nullValue()));
+    }
+
+    @Test
+    public void rejectsFilesWithOtherClasses() throws IOException {
+        Map<String, Object> descriptions = new HashMap<>();
+        descriptions.put(KEY_STATE, new Object[] { new ArrayList<>() });
+        file.getParentFile().mkdirs();
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeInt(1);
+            out.writeUTF("2.53.27");
+            out.writeObject(descriptions);
+        }
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "2.53.27");
+        cache.load();
+        assertThat(cache.get(KEY_STATE), is(nullValue()));
+    }
+}
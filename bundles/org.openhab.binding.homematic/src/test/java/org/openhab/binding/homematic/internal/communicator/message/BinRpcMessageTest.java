@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the decoding of {@link BinRpcMessage}s.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    private static byte[] createEvent(String address, String datapoint, Object value) {
+        BinRpcMessage message = new BinRpcMessage("event", ENCODING);
+        message.addArg("BidCos-RF");
+        message.addArg(address);
+        message.addArg(datapoint);
+        message.addArg(value);
+        return message.createMessage();
+    }
+
+    private static byte[] createMulticall() {
+        Map<String, Object> call = new HashMap<>();
+        call.put("methodName", "event");
+        call.put("params", Arrays.asList("BidCos-RF", "NEQ0123456:1", "LEVEL", 0.5));
+        BinRpcMessage message = new BinRpcMessage("system.multicall", ENCODING);
+        message.addArg(Arrays.asList(call, call));
+        return message.createMessage();
+    }
+
+    @Test
+    public void decodesMulticallFromBuffer() throws IOException {
+        BinRpcMessage message = new BinRpcMessage(ByteBuffer.wrap(createMulticall()), true, ENCODING);
+
+        assertThat(message.getMethodName(), is("system.multicall"));
+        Object[] calls = (Object[]) message.getResponseData()[0];
+        assertThat(calls.length, is(2));
+        Map<?, ?> call = (Map<?, ?>) calls[1];
+        assertThat(call.get("methodName"), is("event"));
+        assertThat(call.get("params"), is(new Object[] { "BidCos-RF", "NEQ0123456:1", "LEVEL", 0.5 }));
+    }
+
+    @Test
+    public void decodesConsecutiveMessagesFromOneBuffer() throws IOException {
+        byte[] first = createEvent("NEQ0123456:1", "STATE", true);
+        byte[] second = createEvent("NEQ0123456:2", "LEVEL", 42);
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length);
+        buffer.put(first).put(second).flip();
+
+        assertThat(BinRpcMessage.getMessageLength(buffer), is(first.length));
+        BinRpcMessage message = new BinRpcMessage(buffer, true, ENCODING);
+        assertThat(buffer.position(), is(0));
+        assertThat(message.getResponseData(), is(new Object[] { "BidCos-RF", "NEQ0123456:1", "STATE", true }));
+
+        buffer.position(first.length);
+        message = new BinRpcMessage(buffer, true, ENCODING);
+        assertThat(message.getResponseData(), is(new Object[] { "BidCos-RF", "NEQ0123456:2", "LEVEL", 42 }));
+    }
+
+    @Test
+    public void decodesSameValuesFromStreamAndBuffer() throws IOException {
+        byte[] multicall = createMulticall();
+        BinRpcMessage fromStream = new BinRpcMessage(new ByteArrayInputStream(multicall), true, ENCODING);
+        BinRpcMessage fromBuffer = new BinRpcMessage(ByteBuffer.wrap(multicall), true, ENCODING);
+
+        assertThat(fromStream.getMethodName(), is(fromBuffer.getMethodName()));
+        assertThat(fromStream.toString(), is(fromBuffer.toString()));
+    }
+
+    @Test
+    public void incompleteMessageIsDetected() throws IOException {
+        byte[] event = createEvent("NEQ0123456:1", "STATE", true);
+
+        assertThat(BinRpcMessage.getMessageLength(ByteBuffer.wrap(event, 0, 4)), is(-1));
+        try {
+            new BinRpcMessage(ByteBuffer.wrap(event, 0, event.length - 1), true, ENCODING);
+            throw new AssertionError("EOFException expected");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+}
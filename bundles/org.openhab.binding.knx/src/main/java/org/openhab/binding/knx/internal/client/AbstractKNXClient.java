@@ -12,9 +12,10 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tuwien.auto.calimero.CloseEvent;
+import tuwien.auto.calimero.DataUnitBuilder;
 import tuwien.auto.calimero.DetachEvent;
 import tuwien.auto.calimero.FrameEvent;
 import tuwien.auto.calimero.GroupAddress;
@@ -86,10 +88,14 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable ScheduledFuture<?> connectJob;
 
     private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final Map<GroupAddress, Set<GroupAddressListener>> groupAddressListenersByAddress =
+            new ConcurrentHashMap<>();
+    private final ReadScheduler readScheduler;
+    private final Object busJobLock = new Object();
+    private int busJobGeneration;
 
     @FunctionalInterface
-    private interface ListenerNotification {
+    interface ListenerNotification {
         void apply(BusMessageListener listener, IndividualAddress source, GroupAddress destination, byte[] asdu);
     }
 
@@ -117,6 +123,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupReadResponse(ProcessEvent e) {
+            readScheduler.responseReceived(e.getDestination());
             processEvent("Group Read Response", e, (listener, source, destination, asdu) -> {
                 listener.onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -132,6 +139,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.readRetriesLimit = readRetriesLimit;
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
+        this.readScheduler = new ReadScheduler(readingPause, responseTimeout);
     }
 
     public void initialize() {
@@ -196,8 +204,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
             link.addLinkListener(this);
 
-            busJob = knxScheduler.scheduleWithFixedDelay(() -> readNextQueuedDatapoint(), 0, readingPause,
-                    TimeUnit.MILLISECONDS);
+            startReading();
 
             statusUpdateCallback.updateStatus(ThingStatus.ONLINE);
             connectJob = null;
@@ -223,8 +230,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     @SuppressWarnings("null")
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
-        readDatapoints.clear();
-        busJob = nullify(busJob, j -> j.cancel(true));
+        readScheduler.clear();
+        stopReading();
         deviceInfoClient = null;
         managementProcedures = nullify(managementProcedures, mp -> mp.detach());
         managementClient = nullify(managementClient, mc -> mc.detach());
@@ -251,10 +258,20 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
-            }
+        notifyListeners(source, destination, asdu, action);
+    }
+
+    /**
+     * Notifies the listeners registered for the destination of a telegram on the KNX scheduler.
+     */
+    void notifyListeners(IndividualAddress source, GroupAddress destination, byte[] asdu,
+            ListenerNotification action) {
+        Set<GroupAddressListener> listeners = groupAddressListenersByAddress.get(destination);
+        if (listeners == null) {
+            return;
+        }
+        for (GroupAddressListener listener : listeners) {
+            knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
         }
     }
 
@@ -270,35 +287,78 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return typeHelper.toDPTValue(type, dpt);
     }
 
+    private void startReading() {
+        synchronized (busJobLock) {
+            final int generation = ++busJobGeneration;
+            busJob = knxScheduler.schedule(() -> readNextQueuedDatapoint(generation), 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
     @SuppressWarnings("null")
-    private void readNextQueuedDatapoint() {
+    private void stopReading() {
+        synchronized (busJobLock) {
+            // A running job of an older generation does not schedule itself again
+            busJobGeneration++;
+            busJob = nullify(busJob, j -> j.cancel(true));
+        }
+    }
+
+    private void readNextQueuedDatapoint(int generation) {
+        int pause = readingPause;
+        try {
+            pause = readNextQueuedDatapoint();
+        } finally {
+            synchronized (busJobLock) {
+                if (generation == busJobGeneration) {
+                    busJob = knxScheduler.schedule(() -> readNextQueuedDatapoint(generation), pause,
+                            TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the next queued read request. The response is received by the process listener like any other group
+     * read response, so only the confirmation of the request by the bus is awaited here.
+     *
+     * @return The pause until the next read request in milliseconds
+     */
+    private int readNextQueuedDatapoint() {
         if (!connectIfNotAutomatic()) {
-            return;
+            return readingPause;
         }
-        ProcessCommunicator processCommunicator = this.processCommunicator;
-        if (processCommunicator == null) {
-            return;
+        KNXNetworkLink link = this.link;
+        if (link == null) {
+            return readingPause;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
+        ReadDatapoint datapoint = readScheduler.next(System.nanoTime());
         if (datapoint != null) {
             datapoint.incrementRetries();
+            GroupAddress groupAddress = datapoint.getDatapoint().getMainAddress();
             try {
-                logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
-                processCommunicator.read(datapoint.getDatapoint());
+                logger.trace("Sending a Group Read Request telegram for {}", groupAddress);
+                long sent = System.nanoTime();
+                link.sendRequestWait(groupAddress, datapoint.getDatapoint().getPriority(),
+                        DataUnitBuilder.createLengthOptimizedAPDU(ProcessCommunicationBase.GROUP_READ, null));
+                readScheduler.sent(datapoint, sent, System.nanoTime());
             } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
-                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
-                            datapoint.getDatapoint().getMainAddress(), e.getMessage());
-                } else {
-                    logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
-                            datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
+                if (readScheduler.failed(datapoint)) {
+                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.", groupAddress,
+                            e.getMessage());
                 }
             } catch (InterruptedException e) {
                 logger.debug("Interrupted sending KNX read request");
-                return;
+                Thread.currentThread().interrupt();
             }
         }
+        return readScheduler.getPause();
+    }
+
+    /**
+     * Returns the read request queue of this client, e.g. for its statistics.
+     */
+    public ReadScheduler getReadScheduler() {
+        return readScheduler;
     }
 
     public void dispose() {
@@ -366,25 +426,32 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+    public void readDatapoint(Datapoint datapoint, ReadPriority priority) {
+        readScheduler.add(datapoint, priority, readRetriesLimit);
     }
 
     @Override
-    public final boolean registerGroupAddressListener(GroupAddressListener listener) {
+    public final synchronized boolean registerGroupAddressListener(GroupAddressListener listener) {
+        removeFromIndex(listener);
+        for (GroupAddress groupAddress : listener.getGroupAddresses()) {
+            groupAddressListenersByAddress.computeIfAbsent(groupAddress, ga -> new CopyOnWriteArraySet<>())
+                    .add(listener);
+        }
         return groupAddressListeners.add(listener);
     }
 
     @Override
-    public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
+    public final synchronized boolean unregisterGroupAddressListener(GroupAddressListener listener) {
+        removeFromIndex(listener);
         return groupAddressListeners.remove(listener);
     }
 
+    private void removeFromIndex(GroupAddressListener listener) {
+        // The addresses of the listener may have changed since it was registered, so look at all of them
+        groupAddressListenersByAddress.values()
+                .removeIf(listeners -> listeners.remove(listener) && listeners.isEmpty());
+    }
+
     @Override
     public boolean isConnected() {
         return link != null && link.isOpen();
@@ -24,11 +24,18 @@ public class ReadDatapoint {
     private final Datapoint datapoint;
     private int retries;
     private final int limit;
+    private ReadPriority priority;
+    private long responseDeadline;
 
     public ReadDatapoint(Datapoint datapoint, int limit) {
+        this(datapoint, limit, ReadPriority.REFRESH);
+    }
+
+    public ReadDatapoint(Datapoint datapoint, int limit, ReadPriority priority) {
         this.datapoint = datapoint;
         this.retries = 0;
         this.limit = limit;
+        this.priority = priority;
     }
 
     public Datapoint getDatapoint() {
@@ -47,6 +54,25 @@ public class ReadDatapoint {
         return limit;
     }
 
+    public ReadPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(ReadPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * The {@link System#nanoTime()} until which a response to the sent read request is expected.
+     */
+    public long getResponseDeadline() {
+        return responseDeadline;
+    }
+
+    public void setResponseDeadline(long responseDeadline) {
+        this.responseDeadline = responseDeadline;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
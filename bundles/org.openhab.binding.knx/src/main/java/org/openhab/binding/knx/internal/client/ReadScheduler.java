@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Queues the read requests of a KNX client.
+ * <p>
+ * Each group address is queued at most once. A request for a queued group address or for a group address that still
+ * awaits its response is merged with the existing one, raising its priority if necessary. Requests are sent in the
+ * order of their {@link ReadPriority}.
+ * <p>
+ * A read request is done once the response arrives. If no response arrives within the response timeout, the request
+ * is queued again until the retry limit is reached. A {@link ReadPriority#USER} request merged with a request awaiting
+ * its response is not lost if that request gives up: it is queued with its own retry limit then.
+ * <p>
+ * The pause between two read requests adapts to the bus: it is at least the configured reading pause and at least the
+ * average time the bus takes to confirm a read request. A busy bus confirms later, so the reads slow down and leave
+ * room for other telegrams.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadScheduler {
+    /** The weight of a new confirmation latency in the moving average */
+    private static final double LATENCY_WEIGHT = 0.2;
+    /** The maximum pause between two read requests in milliseconds */
+    static final int MAX_PAUSE = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final int readingPause;
+    private final long responseTimeoutNanos;
+
+    private final Map<GroupAddress, ReadDatapoint> queued = new HashMap<>();
+    private final Map<ReadPriority, Queue<ReadDatapoint>> queues = new EnumMap<>(ReadPriority.class);
+    // In the order the requests were sent, which is also the order of their response deadlines
+    private final Map<GroupAddress, ReadDatapoint> awaitingResponse = new LinkedHashMap<>();
+    // User requests merged with a request awaiting its response, queued if that request times out
+    private final Map<GroupAddress, ReadDatapoint> mergedUserReads = new HashMap<>();
+
+    private double latencyMillis;
+
+    // Statistics
+    private long sentCount;
+    private long responseCount;
+    private long timeoutCount;
+    private long mergedCount;
+    private boolean busy;
+    private long busySince;
+    private long sentSinceBusy;
+
+    /**
+     * Creates a {@link ReadScheduler}.
+     *
+     * @param readingPause The minimum pause between two read requests in milliseconds
+     * @param responseTimeout The time to wait for a response in seconds
+     */
+    public ReadScheduler(int readingPause, int responseTimeout) {
+        this.readingPause = readingPause;
+        this.responseTimeoutNanos = TimeUnit.SECONDS.toNanos(responseTimeout);
+        for (ReadPriority priority : ReadPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Queues a read request.
+     *
+     * @param datapoint The datapoint to read
+     * @param priority The priority of the request
+     * @param limit The maximum number of attempts
+     * @return True if the request was queued, false if it was merged with an existing request
+     */
+    public synchronized boolean add(Datapoint datapoint, ReadPriority priority, int limit) {
+        final GroupAddress groupAddress = datapoint.getMainAddress();
+        if (awaitingResponse.containsKey(groupAddress)) {
+            if (priority == ReadPriority.USER) {
+                mergedUserReads.putIfAbsent(groupAddress, new ReadDatapoint(datapoint, limit, priority));
+            }
+            mergedCount++;
+            return false;
+        }
+        ReadDatapoint existing = queued.get(groupAddress);
+        if (existing != null) {
+            raisePriority(existing, priority);
+            mergedCount++;
+            return false;
+        }
+        queue(new ReadDatapoint(datapoint, limit, priority));
+        return true;
+    }
+
+    /**
+     * Returns the next read request to send. Requests whose response did not arrive in time are queued again first.
+     *
+     * @param now The current {@link System#nanoTime()}
+     * @return The next read request or null if there is none
+     */
+    public synchronized @Nullable ReadDatapoint next(long now) {
+        expireResponses(now);
+        for (ReadPriority priority : ReadPriority.values()) {
+            Queue<ReadDatapoint> queue = getQueue(priority);
+            ReadDatapoint readDatapoint;
+            while ((readDatapoint = queue.poll()) != null) {
+                final GroupAddress groupAddress = readDatapoint.getDatapoint().getMainAddress();
+                if (queued.get(groupAddress) == readDatapoint && readDatapoint.getPriority() == priority) {
+                    queued.remove(groupAddress);
+                    if (!busy) {
+                        busy = true;
+                        busySince = now;
+                    }
+                    return readDatapoint;
+                }
+            }
+        }
+        if (busy && awaitingResponse.isEmpty()) {
+            logger.debug("Sent {} read requests in {} ms, average confirmation latency {} ms, "
+                    + "{} read requests sent, {} responses, {} timeouts, {} merged in total", sentSinceBusy,
+                    TimeUnit.NANOSECONDS.toMillis(now - busySince), Math.round(latencyMillis), sentCount,
+                    responseCount, timeoutCount, mergedCount);
+            busy = false;
+            sentSinceBusy = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Records that a read request has been confirmed by the bus. The response is awaited from now on.
+     *
+     * @param readDatapoint The sent read request
+     * @param sent The {@link System#nanoTime()} before the request was sent
+     * @param confirmed The {@link System#nanoTime()} when the bus confirmed the request
+     */
+    public synchronized void sent(ReadDatapoint readDatapoint, long sent, long confirmed) {
+        final double latency = (confirmed - sent) / 1e6;
+        latencyMillis = sentCount == 0 ? latency : latencyMillis + LATENCY_WEIGHT * (latency - latencyMillis);
+        sentCount++;
+        sentSinceBusy++;
+        readDatapoint.setResponseDeadline(confirmed + responseTimeoutNanos);
+        awaitingResponse.put(readDatapoint.getDatapoint().getMainAddress(), readDatapoint);
+    }
+
+    /**
+     * Records that a read request could not be sent. It is queued again if the retry limit is not reached yet.
+     *
+     * @param readDatapoint The read request
+     * @return True if the request is retried
+     */
+    public synchronized boolean failed(ReadDatapoint readDatapoint) {
+        return retry(readDatapoint);
+    }
+
+    /**
+     * Records a received read response.
+     *
+     * @param groupAddress The group address of the response
+     */
+    public synchronized void responseReceived(GroupAddress groupAddress) {
+        if (awaitingResponse.remove(groupAddress) != null) {
+            responseCount++;
+        }
+        mergedUserReads.remove(groupAddress);
+    }
+
+    /**
+     * Returns the pause until the next read request may be sent.
+     *
+     * @return The pause in milliseconds
+     */
+    public synchronized int getPause() {
+        return (int) Math.min(MAX_PAUSE, Math.max(readingPause, Math.round(latencyMillis)));
+    }
+
+    /**
+     * Drops all queued read requests and forgets awaited responses.
+     */
+    public synchronized void clear() {
+        queued.clear();
+        queues.values().forEach(Queue::clear);
+        awaitingResponse.clear();
+        mergedUserReads.clear();
+        busy = false;
+        sentSinceBusy = 0;
+    }
+
+    /**
+     * Returns the number of queued read requests.
+     */
+    public synchronized int getQueueSize() {
+        return queued.size();
+    }
+
+    /**
+     * Returns the number of queued read requests of the given priority.
+     */
+    public synchronized int getQueueSize(ReadPriority priority) {
+        return (int) queued.values().stream().filter(readDatapoint -> readDatapoint.getPriority() == priority)
+                .count();
+    }
+
+    /**
+     * Returns the number of sent read requests whose response has not arrived yet.
+     */
+    public synchronized int getAwaitingResponseCount() {
+        return awaitingResponse.size();
+    }
+
+    /**
+     * Returns the moving average of the time the bus takes to confirm a read request in milliseconds.
+     */
+    public synchronized double getLatency() {
+        return latencyMillis;
+    }
+
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    public synchronized long getResponseCount() {
+        return responseCount;
+    }
+
+    public synchronized long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+    private Queue<ReadDatapoint> getQueue(ReadPriority priority) {
+        Queue<ReadDatapoint> queue = queues.get(priority);
+        if (queue == null) {
+            throw new IllegalStateException("No queue for priority " + priority);
+        }
+        return queue;
+    }
+
+    private void expireResponses(long now) {
+        Iterator<ReadDatapoint> iterator = awaitingResponse.values().iterator();
+        while (iterator.hasNext()) {
+            ReadDatapoint readDatapoint = iterator.next();
+            if (readDatapoint.getResponseDeadline() - now > 0) {
+                break;
+            }
+            iterator.remove();
+            timeoutCount++;
+            final GroupAddress groupAddress = readDatapoint.getDatapoint().getMainAddress();
+            final ReadDatapoint userRead = mergedUserReads.remove(groupAddress);
+            if (retry(readDatapoint)) {
+                logger.debug("No response for datapoint {}. Going to retry.", groupAddress);
+                if (userRead != null) {
+                    raisePriority(readDatapoint, userRead.getPriority());
+                }
+            } else if (userRead != null && !queued.containsKey(groupAddress)) {
+                logger.debug("Reading datapoint {} again as requested while awaiting its response.", groupAddress);
+                queue(userRead);
+            }
+        }
+    }
+
+    private void queue(ReadDatapoint readDatapoint) {
+        queued.put(readDatapoint.getDatapoint().getMainAddress(), readDatapoint);
+        getQueue(readDatapoint.getPriority()).add(readDatapoint);
+    }
+
+    private void raisePriority(ReadDatapoint readDatapoint, ReadPriority priority) {
+        if (priority.compareTo(readDatapoint.getPriority()) < 0) {
+            // The entry in the lower priority queue becomes stale and is skipped
+            readDatapoint.setPriority(priority);
+            getQueue(priority).add(readDatapoint);
+        }
+    }
+
+    private boolean retry(ReadDatapoint readDatapoint) {
+        final GroupAddress groupAddress = readDatapoint.getDatapoint().getMainAddress();
+        if (readDatapoint.getRetries() >= readDatapoint.getLimit()) {
+            logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.", groupAddress,
+                    readDatapoint.getLimit());
+            return false;
+        }
+        if (!queued.containsKey(groupAddress)) {
+            queue(readDatapoint);
+        }
+        return true;
+    }
+}
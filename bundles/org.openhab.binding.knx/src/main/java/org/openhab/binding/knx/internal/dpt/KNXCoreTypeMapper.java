@@ -14,9 +14,13 @@ package org.openhab.binding.knx.internal.dpt;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
@@ -24,6 +28,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -95,6 +100,27 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     private static final String TIME_DAY_FORMAT = new String("EEE, HH:mm:ss");
     private static final String DATE_FORMAT = new String("yyyy-MM-dd");
 
+    /**
+     * The data {@link #toType(Datapoint, byte[])} derives from a datapoint type id, so that it is computed only once
+     * per datapoint type. Translators hold the data they translate, so a new one is created for every conversion.
+     */
+    private static class Decoder {
+        final String id;
+        final int mainNumber;
+        final int subNumber;
+        final Class<? extends Type> typeClass;
+
+        Decoder(String id, int mainNumber, int subNumber, Class<? extends Type> typeClass) {
+            this.id = id;
+            this.mainNumber = mainNumber;
+            this.subNumber = subNumber;
+            this.typeClass = typeClass;
+        }
+    }
+
+    /** stores the decoders per datapoint type id */
+    private final Map<String, Decoder> decoders = new ConcurrentHashMap<>();
+
     /**
      * stores the openHAB type class for (supported) KNX datapoint types in a generic way.
      * dptTypeMap stores more specific type class and exceptions.
@@ -675,21 +701,20 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            Decoder decoder = getDecoder(datapoint);
+            DPTXlator translator = TranslatorTypes.createTranslator(0, decoder.id);
             translator.setData(data);
-            String value = translator.getValue();
 
-            String id = translator.getType().getID();
             logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
 
-            int mainNumber = getMainNumber(id);
+            int mainNumber = decoder.mainNumber;
             if (mainNumber == -1) {
-                logger.debug("toType: couldn't identify mainnumber in dptID: {}.", id);
+                logger.debug("toType: couldn't identify mainnumber in dptID: {}.", decoder.id);
                 return null;
             }
-            int subNumber = getSubNumber(id);
+            int subNumber = decoder.subNumber;
             if (subNumber == -1) {
-                logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
+                logger.debug("toType: couldn't identify sub number in dptID: {}.", decoder.id);
                 return null;
             }
             /*
@@ -731,36 +756,6 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                         case 8:
                             return translator3BitControlled.getControlBit() ? UpDownType.DOWN : UpDownType.UP;
                     }
-                case 14:
-                    /*
-                     * FIXME: Workaround for a bug in Calimero / Openhab DPTXlator4ByteFloat.makeString(): is using a
-                     * locale when
-                     * translating a Float to String. It could happen the a ',' is used as separator, such as
-                     * 3,14159E20.
-                     * Openhab's DecimalType expects this to be in US format and expects '.': 3.14159E20.
-                     * There is no issue with DPTXlator2ByteFloat since calimero is using a non-localized translation
-                     * there.
-                     */
-                    DPTXlator4ByteFloat translator4ByteFloat = (DPTXlator4ByteFloat) translator;
-                    Float f = translator4ByteFloat.getValueFloat();
-                    if (Math.abs(f) < 100000) {
-                        value = String.valueOf(f);
-                    } else {
-                        NumberFormat dcf = NumberFormat.getInstance(Locale.US);
-                        if (dcf instanceof DecimalFormat) {
-                            ((DecimalFormat) dcf).applyPattern("0.#####E0");
-                        }
-                        value = dcf.format(f);
-                    }
-                    break;
-                case 18:
-                    DPTXlatorSceneControl translatorSceneControl = (DPTXlatorSceneControl) translator;
-                    int decimalValue = translatorSceneControl.getSceneNumber();
-                    if (value.startsWith("learn")) {
-                        decimalValue += 0x80;
-                    }
-                    value = String.valueOf(decimalValue);
-
                     break;
                 case 19:
                     DPTXlatorDateTime translatorDateTime = (DPTXlatorDateTime) translator;
@@ -788,33 +783,22 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                         return null;
                     }
 
-                    Calendar cal = Calendar.getInstance();
-                    if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && !translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Pure date format, no time information
-                        cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
-                    } else if (!translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
+                    if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)) {
+                        // Date format with or without time information, DateTimeType has a resolution of seconds
+                        return new DateTimeType(ZonedDateTime
+                                .ofInstant(Instant.ofEpochMilli(translatorDateTime.getValueMilliseconds()),
+                                        ZoneId.systemDefault())
+                                .truncatedTo(ChronoUnit.SECONDS));
+                    } else if (translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
                         // Pure time format, no date information
-                        cal.clear();
-                        cal.set(Calendar.HOUR_OF_DAY, translatorDateTime.getHour());
-                        cal.set(Calendar.MINUTE, translatorDateTime.getMinute());
-                        cal.set(Calendar.SECOND, translatorDateTime.getSecond());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
-                    } else if (translatorDateTime.isValidField(DPTXlatorDateTime.YEAR)
-                            && translatorDateTime.isValidField(DPTXlatorDateTime.TIME)) {
-                        // Date format and time information
-                        cal.setTimeInMillis(translatorDateTime.getValueMilliseconds());
-                        value = new SimpleDateFormat(DateTimeType.DATE_PATTERN).format(cal.getTime());
-                        return DateTimeType.valueOf(value);
+                        return new DateTimeType(ZonedDateTime.of(1970, 1, 1, translatorDateTime.getHour(),
+                                translatorDateTime.getMinute(), translatorDateTime.getSecond(), 0,
+                                ZoneId.systemDefault()));
                     }
                     break;
             }
 
-            Class<? extends Type> typeClass = toTypeClass(id);
+            Class<? extends Type> typeClass = decoder.typeClass;
             if (typeClass == null) {
                 return null;
             }
@@ -825,6 +809,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             if (typeClass.equals(DecimalType.class)) {
                 return new DecimalType(translator.getNumericValue());
             }
+
+            // The remaining types are built from the value string of the translator
+            String value = getValue(translator, mainNumber);
             if (typeClass.equals(StringType.class)) {
                 return StringType.valueOf(value);
             }
@@ -861,6 +848,68 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return null;
     }
 
+    /**
+     * Returns the decoder for the datapoint type of the given datapoint. Decoders of datapoints without an explicit
+     * main number are cached per datapoint type.
+     *
+     * @param datapoint the datapoint
+     * @return the decoder
+     * @throws KNXException if no translator is available for the datapoint type
+     */
+    private Decoder getDecoder(Datapoint datapoint) throws KNXException {
+        if (datapoint.getMainNumber() != 0) {
+            // the main number selects the translator, which is rarely used and not worth caching
+            return createDecoder(datapoint);
+        }
+        Decoder decoder = decoders.get(datapoint.getDPT());
+        if (decoder == null) {
+            decoder = createDecoder(datapoint);
+            decoders.put(datapoint.getDPT(), decoder);
+        }
+        return decoder;
+    }
+
+    private Decoder createDecoder(Datapoint datapoint) throws KNXException {
+        String id = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT()).getType().getID();
+        return new Decoder(id, getMainNumber(id), getSubNumber(id), toTypeClass(id));
+    }
+
+    /**
+     * Returns the value of the translator as String which can be processed by the openHAB types.
+     *
+     * @param translator the translator holding the received data
+     * @param mainNumber the main number of the datapoint type of the translator
+     * @return the value
+     */
+    private String getValue(DPTXlator translator, int mainNumber) {
+        switch (mainNumber) {
+            case 14:
+                /*
+                 * FIXME: Workaround for a bug in Calimero / Openhab DPTXlator4ByteFloat.makeString(): is using a
+                 * locale when
+                 * translating a Float to String. It could happen the a ',' is used as separator, such as
+                 * 3,14159E20.
+                 * Openhab's DecimalType expects this to be in US format and expects '.': 3.14159E20.
+                 * There is no issue with DPTXlator2ByteFloat since calimero is using a non-localized translation
+                 * there.
+                 */
+                float f = ((DPTXlator4ByteFloat) translator).getValueFloat();
+                if (Math.abs(f) < 100000) {
+                    return String.valueOf(f);
+                }
+                return new DecimalFormat("0.#####E0", DecimalFormatSymbols.getInstance(Locale.US)).format(f);
+            case 18:
+                DPTXlatorSceneControl translatorSceneControl = (DPTXlatorSceneControl) translator;
+                int decimalValue = translatorSceneControl.getSceneNumber();
+                if (translatorSceneControl.getValue().startsWith("learn")) {
+                    decimalValue += 0x80;
+                }
+                return String.valueOf(decimalValue);
+            default:
+                return translator.getValue();
+        }
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
@@ -15,6 +15,8 @@ package org.openhab.binding.knx.internal.handler;
 import static org.openhab.binding.knx.internal.KNXBindingConstants.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -45,6 +47,7 @@ import org.openhab.binding.knx.internal.channel.KNXChannelTypes;
 import org.openhab.binding.knx.internal.client.AbstractKNXClient;
 import org.openhab.binding.knx.internal.client.InboundSpec;
 import org.openhab.binding.knx.internal.client.OutboundSpec;
+import org.openhab.binding.knx.internal.client.ReadPriority;
 import org.openhab.binding.knx.internal.config.DeviceConfig;
 import org.openhab.binding.knx.internal.dpt.KNXCoreTypeMapper;
 import org.slf4j.Logger;
@@ -69,7 +72,8 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private final Logger logger = LoggerFactory.getLogger(DeviceThingHandler.class);
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
-    private final Set<GroupAddress> groupAddresses = new HashSet<>();
+    private volatile Set<GroupAddress> groupAddresses = Collections.emptySet();
+    private volatile Map<GroupAddress, List<InboundChannel>> inboundChannels = Collections.emptyMap();
     private final Set<GroupAddress> groupAddressesWriteBlockedOnce = new HashSet<>();
     private final Set<OutboundSpec> groupAddressesRespondingSpec = new HashSet<>();
     private final Map<GroupAddress, @Nullable ScheduledFuture<?>> readFutures = new HashMap<>();
@@ -77,24 +81,60 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
     private @Nullable IndividualAddress address;
     private int readInterval;
 
+    /**
+     * A channel that processes telegrams for a group address, with the listen spec for that address.
+     */
+    private static class InboundChannel {
+        final Channel channel;
+        final KNXChannelType selector;
+        final InboundSpec listenSpec;
+        final boolean control;
+
+        InboundChannel(Channel channel, KNXChannelType selector, InboundSpec listenSpec, boolean control) {
+            this.channel = channel;
+            this.selector = selector;
+            this.listenSpec = listenSpec;
+            this.control = control;
+        }
+    }
+
     public DeviceThingHandler(Thing thing) {
         super(thing);
     }
 
     @Override
     public void initialize() {
-        super.initialize();
         DeviceConfig config = getConfigAs(DeviceConfig.class);
         readInterval = config.getReadInterval().intValue();
+        // The client indexes this handler by its group addresses when it attaches, so they are needed first
         initializeGroupAddresses();
+        super.initialize();
     }
 
+    /**
+     * Collects the group addresses of all channels and indexes the listening channels by group address. Channel
+     * configurations only change with a thing update, which initializes the handler again.
+     */
     private void initializeGroupAddresses() {
-        forAllChannels((selector, channelConfiguration) -> {
-            groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
-            groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
-        });
+        Set<GroupAddress> groupAddresses = new HashSet<>();
+        Map<GroupAddress, List<InboundChannel>> inboundChannels = new HashMap<>();
+        for (Channel channel : getThing().getChannels()) {
+            withKNXType(channel, (selector, channelConfiguration) -> {
+                groupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
+                groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
+                Set<GroupAddress> listenAddresses = selector.getListenAddresses(channelConfiguration);
+                groupAddresses.addAll(listenAddresses);
+                for (GroupAddress groupAddress : listenAddresses) {
+                    InboundSpec listenSpec = selector.getListenSpec(channelConfiguration, groupAddress);
+                    if (listenSpec != null) {
+                        inboundChannels.computeIfAbsent(groupAddress, ga -> new ArrayList<>()).add(
+                                new InboundChannel(channel, selector, listenSpec, isControl(channel.getUID())));
+                    }
+                }
+            });
+        }
+        this.groupAddresses = groupAddresses;
+        this.inboundChannels = inboundChannels;
     }
 
     @Override
@@ -130,17 +170,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         }
     }
 
-    private void forAllChannels(ChannelFunction function) {
-        for (Channel channel : getThing().getChannels()) {
-            withKNXType(channel, function);
-        }
-    }
-
     @Override
     public void channelLinked(ChannelUID channelUID) {
         if (!isControl(channelUID)) {
             withKNXType(channelUID, (selector, configuration) -> {
-                scheduleRead(selector, configuration);
+                scheduleRead(selector, configuration, ReadPriority.STARTUP);
             });
         }
     }
@@ -151,42 +185,51 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         for (Channel channel : getThing().getChannels()) {
             if (isLinked(channel.getUID().getId()) && !isControl(channel.getUID())) {
                 withKNXType(channel, (selector, configuration) -> {
-                    scheduleRead(selector, configuration);
+                    scheduleRead(selector, configuration, ReadPriority.STARTUP);
                 });
             }
         }
     }
 
-    private void scheduleRead(KNXChannelType selector, Configuration configuration) throws KNXFormatException {
+    private void scheduleRead(KNXChannelType selector, Configuration configuration, ReadPriority priority)
+            throws KNXFormatException {
         List<InboundSpec> readSpecs = selector.getReadSpec(configuration);
         for (InboundSpec readSpec : readSpecs) {
             for (GroupAddress groupAddress : readSpec.getGroupAddresses()) {
-                scheduleReadJob(groupAddress, readSpec.getDPT());
+                scheduleReadJob(groupAddress, readSpec.getDPT(), priority);
             }
         }
     }
 
-    private void scheduleReadJob(GroupAddress groupAddress, String dpt) {
+    /**
+     * Reads the group address now with the given priority and, if a read interval is configured and there is no read
+     * job for the group address yet, periodically with the {@link ReadPriority#REFRESH} priority.
+     */
+    private void scheduleReadJob(GroupAddress groupAddress, String dpt, ReadPriority priority) {
         if (readInterval > 0) {
             ScheduledFuture<?> future = readFutures.get(groupAddress);
             if (future == null || future.isDone() || future.isCancelled()) {
-                future = getScheduler().scheduleWithFixedDelay(() -> readDatapoint(groupAddress, dpt), 0, readInterval,
+                getScheduler().submit(() -> readDatapoint(groupAddress, dpt, priority));
+                future = getScheduler().scheduleWithFixedDelay(
+                        () -> readDatapoint(groupAddress, dpt, ReadPriority.REFRESH), readInterval, readInterval,
                         TimeUnit.SECONDS);
                 readFutures.put(groupAddress, future);
+            } else if (priority == ReadPriority.USER) {
+                getScheduler().submit(() -> readDatapoint(groupAddress, dpt, priority));
             }
         } else {
-            getScheduler().submit(() -> readDatapoint(groupAddress, dpt));
+            getScheduler().submit(() -> readDatapoint(groupAddress, dpt, priority));
         }
     }
 
-    private void readDatapoint(GroupAddress groupAddress, String dpt) {
+    private void readDatapoint(GroupAddress groupAddress, String dpt, ReadPriority priority) {
         if (getClient().isConnected()) {
             if (!isDPTSupported(dpt)) {
                 logger.warn("DPT '{}' is not supported by the KNX binding", dpt);
                 return;
             }
             Datapoint datapoint = new CommandDP(groupAddress, getThing().getUID().toString(), 0, dpt);
-            getClient().readDatapoint(datapoint);
+            getClient().readDatapoint(datapoint, priority);
         }
     }
 
@@ -195,6 +238,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         return groupAddresses.contains(destination);
     }
 
+    @Override
+    public Set<GroupAddress> getGroupAddresses() {
+        return groupAddresses;
+    }
+
     /** KNXIO remember controls, removeIf may be null */
     @SuppressWarnings("null")
     private void rememberRespondingSpec(OutboundSpec commandSpec, boolean add) {
@@ -214,7 +262,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         if (command instanceof RefreshType && !isControl(channelUID)) {
             logger.debug("Refreshing channel '{}'", channelUID);
             withKNXType(channelUID, (selector, configuration) -> {
-                scheduleRead(selector, configuration);
+                scheduleRead(selector, configuration, ReadPriority.USER);
             });
         } else {
             switch (channelUID.getId()) {
@@ -325,31 +373,36 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         logger.debug("onGroupWrite Thing '{}' received a GroupValueWrite telegram from '{}' for destination '{}'",
                 getThing().getUID(), source, destination);
 
-        for (Channel channel : getThing().getChannels()) {
-            withKNXType(channel, (selector, configuration) -> {
-                InboundSpec listenSpec = selector.getListenSpec(configuration, destination);
-                if (listenSpec != null) {
-                    logger.trace(
-                            "onGroupWrite Thing '{}' processes a GroupValueWrite telegram for destination '{}' for channel '{}'",
-                            getThing().getUID(), destination, channel.getUID());
-                    /**
-                     * Remember current KNXIO outboundSpec only if it is a control channel.
-                     */
-                    if (isControl(channel.getUID())) {
-                        logger.trace("onGroupWrite isControl");
-                        Type type = typeHelper.toType(
-                                new CommandDP(destination, getThing().getUID().toString(), 0, listenSpec.getDPT()),
-                                asdu);
-                        if (type != null) {
-                            OutboundSpec commandSpec = selector.getCommandSpec(configuration, typeHelper, type);
-                            if (commandSpec != null) {
-                                rememberRespondingSpec(commandSpec, true);
-                            }
+        List<InboundChannel> channels = inboundChannels.get(destination);
+        if (channels == null) {
+            return;
+        }
+        for (InboundChannel inboundChannel : channels) {
+            Channel channel = inboundChannel.channel;
+            InboundSpec listenSpec = inboundChannel.listenSpec;
+            logger.trace(
+                    "onGroupWrite Thing '{}' processes a GroupValueWrite telegram for destination '{}' for channel '{}'",
+                    getThing().getUID(), destination, channel.getUID());
+            try {
+                /**
+                 * Remember current KNXIO outboundSpec only if it is a control channel.
+                 */
+                if (inboundChannel.control) {
+                    logger.trace("onGroupWrite isControl");
+                    Type type = typeHelper.toType(
+                            new CommandDP(destination, getThing().getUID().toString(), 0, listenSpec.getDPT()), asdu);
+                    if (type != null) {
+                        OutboundSpec commandSpec = inboundChannel.selector
+                                .getCommandSpec(channel.getConfiguration(), typeHelper, type);
+                        if (commandSpec != null) {
+                            rememberRespondingSpec(commandSpec, true);
                         }
                     }
-                    processDataReceived(destination, asdu, listenSpec, channel.getUID());
                 }
-            });
+                processDataReceived(destination, asdu, listenSpec, channel.getUID());
+            } catch (KNXException e) {
+                logger.warn("An error occurred on channel {}: {}", channel.getUID(), e.getMessage(), e);
+            }
         }
     }
 
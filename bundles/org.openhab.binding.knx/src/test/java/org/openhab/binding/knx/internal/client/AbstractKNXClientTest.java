@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+
+/**
+ * Tests the delivery of telegrams to the listeners registered at the {@link AbstractKNXClient}.
+ *
+ * @author agent - Initial contribution
+ */
+public class AbstractKNXClientTest {
+
+    private static final IndividualAddress SOURCE = new IndividualAddress(1, 1, 1);
+
+    private ScheduledExecutorService scheduler;
+    private AbstractKNXClient client;
+
+    private static class TestListener implements GroupAddressListener {
+        private Set<GroupAddress> groupAddresses;
+        private final List<GroupAddress> received = new CopyOnWriteArrayList<>();
+
+        TestListener(GroupAddress... groupAddresses) {
+            this.groupAddresses = new HashSet<>(Arrays.asList(groupAddresses));
+        }
+
+        @Override
+        public boolean listensTo(GroupAddress destination) {
+            return groupAddresses.contains(destination);
+        }
+
+        @Override
+        public Set<GroupAddress> getGroupAddresses() {
+            return groupAddresses;
+        }
+
+        @Override
+        public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+            received.add(destination);
+        }
+
+        @Override
+        public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+        }
+
+        @Override
+        public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+        }
+    }
+
+    @Before
+    public void setup() {
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        client = new AbstractKNXClient(0, new ThingUID("knx:ip:test"), 10, 50, 3, scheduler,
+                new StatusUpdateCallback() {
+                    @Override
+                    public void updateStatus(ThingStatus status) {
+                    }
+
+                    @Override
+                    public void updateStatus(ThingStatus status, ThingStatusDetail thingStatusDetail,
+                            String message) {
+                    }
+                }) {
+            @Override
+            protected KNXNetworkLink establishConnection() throws KNXException, InterruptedException {
+                throw new KNXException("not connected in tests");
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private void write(String groupAddress) throws KNXFormatException {
+        client.notifyListeners(SOURCE, new GroupAddress(groupAddress), new byte[] { 1 },
+                (listener, source, destination, asdu) -> listener.onGroupWrite(client, source, destination, asdu));
+    }
+
+    private void awaitDelivery() throws InterruptedException {
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTelegramReachesOnlyItsListeners() throws Exception {
+        TestListener listener1 = new TestListener(new GroupAddress("1/0/1"), new GroupAddress("1/0/2"));
+        TestListener listener2 = new TestListener(new GroupAddress("1/0/2"), new GroupAddress("1/0/3"));
+        TestListener listener3 = new TestListener(new GroupAddress("2/0/1"));
+        assertTrue(client.registerGroupAddressListener(listener1));
+        assertTrue(client.registerGroupAddressListener(listener2));
+        assertTrue(client.registerGroupAddressListener(listener3));
+
+        write("1/0/1");
+        write("1/0/2");
+        write("1/0/3");
+        write("3/0/1");
+        awaitDelivery();
+
+        assertEquals(Arrays.asList(new GroupAddress("1/0/1"), new GroupAddress("1/0/2")), listener1.received);
+        assertEquals(Arrays.asList(new GroupAddress("1/0/2"), new GroupAddress("1/0/3")), listener2.received);
+        assertEquals(Collections.emptyList(), listener3.received);
+    }
+
+    @Test
+    public void testUnregisteredListenerIsNotNotified() throws Exception {
+        TestListener listener1 = new TestListener(new GroupAddress("1/0/1"), new GroupAddress("1/0/2"));
+        TestListener listener2 = new TestListener(new GroupAddress("1/0/2"));
+        client.registerGroupAddressListener(listener1);
+        client.registerGroupAddressListener(listener2);
+
+        assertTrue(client.unregisterGroupAddressListener(listener1));
+        assertFalse(client.unregisterGroupAddressListener(listener1));
+
+        write("1/0/1");
+        write("1/0/2");
+        awaitDelivery();
+
+        assertEquals(Collections.emptyList(), listener1.received);
+        assertEquals(Arrays.asList(new GroupAddress("1/0/2")), listener2.received);
+    }
+
+    @Test
+    public void testRegisteringAgainUpdatesTheAddresses() throws Exception {
+        TestListener listener = new TestListener(new GroupAddress("1/0/1"));
+        client.registerGroupAddressListener(listener);
+
+        listener.groupAddresses = Collections.singleton(new GroupAddress("1/0/2"));
+        assertFalse(client.registerGroupAddressListener(listener));
+
+        write("1/0/1");
+        write("1/0/2");
+        awaitDelivery();
+
+        assertEquals(Arrays.asList(new GroupAddress("1/0/2")), listener.received);
+    }
+}
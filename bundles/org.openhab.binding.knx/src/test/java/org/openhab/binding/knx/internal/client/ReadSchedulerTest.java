@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Tests the {@link ReadScheduler}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ReadSchedulerTest {
+
+    private ReadScheduler scheduler;
+
+    @Before
+    public void setup() {
+        scheduler = new ReadScheduler(50, 10);
+    }
+
+    private Datapoint datapoint(String groupAddress) throws KNXFormatException {
+        return new CommandDP(new GroupAddress(groupAddress), "test", 0, "1.001");
+    }
+
+    private ReadDatapoint send(long now) {
+        ReadDatapoint readDatapoint = scheduler.next(now);
+        assertNotNull(readDatapoint);
+        readDatapoint.incrementRetries();
+        scheduler.sent(readDatapoint, now, now + TimeUnit.MILLISECONDS.toNanos(20));
+        return readDatapoint;
+    }
+
+    @Test
+    public void testDeduplicatesAndPrioritizes() throws KNXFormatException {
+        assertTrue(scheduler.add(datapoint("1/0/1"), ReadPriority.REFRESH, 3));
+        assertTrue(scheduler.add(datapoint("1/0/2"), ReadPriority.STARTUP, 3));
+        assertFalse(scheduler.add(datapoint("1/0/1"), ReadPriority.REFRESH, 3));
+        assertFalse(scheduler.add(datapoint("1/0/1"), ReadPriority.USER, 3));
+        assertEquals(2, scheduler.getQueueSize());
+        assertEquals(1, scheduler.getQueueSize(ReadPriority.USER));
+        assertEquals(2, scheduler.getMergedCount());
+
+        assertEquals(new GroupAddress("1/0/1"), scheduler.next(0).getDatapoint().getMainAddress());
+        assertEquals(new GroupAddress("1/0/2"), scheduler.next(0).getDatapoint().getMainAddress());
+        // The stale entry in the refresh queue is skipped
+        assertNull(scheduler.next(0));
+    }
+
+    @Test
+    public void testRetriesWithoutResponse() throws KNXFormatException {
+        scheduler.add(datapoint("1/0/1"), ReadPriority.STARTUP, 2);
+        send(0);
+
+        // Requests for a group address awaiting its response are merged
+        assertFalse(scheduler.add(datapoint("1/0/1"), ReadPriority.USER, 2));
+        assertNull(scheduler.next(TimeUnit.SECONDS.toNanos(5)));
+
+        send(TimeUnit.SECONDS.toNanos(11));
+        assertEquals(1, scheduler.getTimeoutCount());
+
+        // The retry limit is reached
+        assertNull(scheduler.next(TimeUnit.SECONDS.toNanos(30)));
+        assertEquals(2, scheduler.getTimeoutCount());
+        assertEquals(0, scheduler.getAwaitingResponseCount());
+    }
+
+    @Test
+    public void testMergedUserRequestOutlivesTimedOutRequest() throws KNXFormatException {
+        scheduler.add(datapoint("1/0/1"), ReadPriority.STARTUP, 1);
+        send(0);
+        assertFalse(scheduler.add(datapoint("1/0/1"), ReadPriority.USER, 2));
+
+        // The retry limit of the sent request is reached, the merged user request is queued instead
+        ReadDatapoint readDatapoint = scheduler.next(TimeUnit.SECONDS.toNanos(11));
+        assertNotNull(readDatapoint);
+        assertEquals(new GroupAddress("1/0/1"), readDatapoint.getDatapoint().getMainAddress());
+        assertEquals(ReadPriority.USER, readDatapoint.getPriority());
+        assertEquals(0, readDatapoint.getRetries());
+        assertEquals(2, readDatapoint.getLimit());
+    }
+
+    @Test
+    public void testMergedUserRequestRaisesPriorityOfRetry() throws KNXFormatException {
+        scheduler.add(datapoint("1/0/1"), ReadPriority.REFRESH, 2);
+        send(0);
+        scheduler.add(datapoint("1/0/1"), ReadPriority.USER, 2);
+        scheduler.add(datapoint("1/0/2"), ReadPriority.STARTUP, 2);
+
+        ReadDatapoint readDatapoint = scheduler.next(TimeUnit.SECONDS.toNanos(11));
+        assertEquals(new GroupAddress("1/0/1"), readDatapoint.getDatapoint().getMainAddress());
+        assertEquals(ReadPriority.USER, readDatapoint.getPriority());
+        assertEquals(new GroupAddress("1/0/2"), scheduler.next(TimeUnit.SECONDS.toNanos(11)).getDatapoint()
+                .getMainAddress());
+        assertNull(scheduler.next(TimeUnit.SECONDS.toNanos(11)));
+    }
+
+    @Test
+    public void testResponseCompletesMergedUserRequest() throws KNXFormatException {
+        scheduler.add(datapoint("1/0/1"), ReadPriority.STARTUP, 1);
+        send(0);
+        scheduler.add(datapoint("1/0/1"), ReadPriority.USER, 2);
+        scheduler.responseReceived(new GroupAddress("1/0/1"));
+
+        assertNull(scheduler.next(TimeUnit.SECONDS.toNanos(30)));
+    }
+
+    @Test
+    public void testResponseCompletesRequest() throws KNXFormatException {
+        scheduler.add(datapoint("1/0/1"), ReadPriority.STARTUP, 2);
+        send(0);
+        scheduler.responseReceived(new GroupAddress("1/0/1"));
+
+        assertNull(scheduler.next(TimeUnit.SECONDS.toNanos(30)));
+        assertEquals(1, scheduler.getResponseCount());
+        assertEquals(0, scheduler.getTimeoutCount());
+        assertTrue(scheduler.add(datapoint("1/0/1"), ReadPriority.REFRESH, 2));
+    }
+
+    @Test
+    public void testPauseAdaptsToConfirmationLatency() throws KNXFormatException {
+        assertEquals(50, scheduler.getPause());
+        scheduler.add(datapoint("1/0/1"), ReadPriority.STARTUP, 2);
+        ReadDatapoint readDatapoint = scheduler.next(0);
+        scheduler.sent(readDatapoint, 0, TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(200, scheduler.getPause());
+
+        scheduler.add(datapoint("1/0/2"), ReadPriority.STARTUP, 2);
+        readDatapoint = scheduler.next(0);
+        scheduler.sent(readDatapoint, 0, TimeUnit.SECONDS.toNanos(60));
+        assertEquals(ReadScheduler.MAX_PAUSE, scheduler.getPause());
+    }
+}
@@ -12,11 +12,20 @@
  */
 package org.openhab.binding.knx.internal.dpt;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
 import org.junit.Test;
 
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
 /**
  *
  * @author Simon Kaufmann - initial contribution and API
@@ -30,4 +39,36 @@ public class KNXCoreTypeMapperTest {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
 
+    @Test
+    public void testToType_cachedTranslatorsDecodeEachTelegram() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+
+        assertEquals(21.5, toDouble(mapper.toType(datapoint("9.001"), new byte[] { 0x0C, 0x33 })), 0.001);
+        assertEquals(0.0, toDouble(mapper.toType(datapoint("9.001"), new byte[] { 0x00, 0x00 })), 0.001);
+        assertEquals(OnOffType.ON, mapper.toType(datapoint("1.001"), new byte[] { 0x01 }));
+        assertEquals(UpDownType.DOWN, mapper.toType(datapoint("1.008"), new byte[] { 0x01 }));
+        assertEquals(OnOffType.OFF, mapper.toType(datapoint("1.001"), new byte[] { 0x00 }));
+        assertEquals(new PercentType(100), mapper.toType(datapoint("5.001"), new byte[] { (byte) 0xFF }));
+        assertEquals(new StringType("KNX"), mapper.toType(datapoint("16.000"),
+                new byte[] { 'K', 'N', 'X', 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }));
+        assertEquals(new StringType("on"), mapper.toType(datapoint("16.000"),
+                new byte[] { 'o', 'n', 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }));
+    }
+
+    @Test
+    public void testToType_invalidTelegramDoesNotAffectNextOne() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+
+        assertNull(mapper.toType(datapoint("9.001"), new byte[0]));
+        assertEquals(21.5, toDouble(mapper.toType(datapoint("9.001"), new byte[] { 0x0C, 0x33 })), 0.001);
+    }
+
+    private static Datapoint datapoint(String dpt) {
+        return new CommandDP(new GroupAddress(1, 0, 1), "test", 0, dpt);
+    }
+
+    private static double toDouble(Type type) {
+        assertTrue(type instanceof DecimalType);
+        return ((DecimalType) type).doubleValue();
+    }
 }
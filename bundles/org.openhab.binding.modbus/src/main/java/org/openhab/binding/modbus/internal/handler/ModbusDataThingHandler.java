@@ -60,6 +60,7 @@ import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
 import org.openhab.binding.modbus.internal.Transformation;
 import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
+import org.openhab.binding.modbus.internal.handler.RegisterDecodePlan.DecodedValue;
 import org.openhab.io.transport.modbus.BasicModbusWriteCoilRequestBlueprint;
 import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
 import org.openhab.io.transport.modbus.BasicWriteTask;
@@ -150,6 +151,9 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    private volatile boolean lastRawBitsValid;
+    private volatile long lastRawBits;
+    private volatile long unchangedValuesExpireMillis;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -390,6 +394,10 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                     e.getMessage());
             updateStatusIfChanged(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
         } finally {
+            ModbusPollerThingHandler poller = pollerHandler;
+            if (poller != null) {
+                poller.childReadConfigurationChanged();
+            }
             logger.trace("initialize() of thing {} '{}' finished", thing.getUID(), thing.getLabel());
         }
     }
@@ -419,6 +427,9 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        lastRawBitsValid = false;
+        lastRawBits = 0;
+        unchangedValuesExpireMillis = 0;
     }
 
     @Override
@@ -651,19 +662,25 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         });
     }
 
-    @Override
-    public synchronized void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
-        if (hasConfigurationError()) {
-            return;
-        } else if (!isReadEnabled) {
-            return;
-        }
+    /**
+     * @return value type read from registers, or null if the thing is not reading
+     */
+    public @Nullable ValueType getReadValueType() {
+        return isReadEnabled ? readValueType : null;
+    }
+
+    /**
+     * Index of the value in the polled registers, as understood by
+     * {@link ModbusBitUtilities#extractStateFromRegisters(ModbusRegisterArray, int, ValueType)}
+     *
+     * @return index of the value, or -1 if the thing is not reading
+     */
+    public int getReadExtractIndex() {
         ValueType readValueType = this.readValueType;
-        if (readValueType == null) {
-            return;
+        Optional<Integer> readIndex = this.readIndex;
+        if (!isReadEnabled || readValueType == null || !readIndex.isPresent()) {
+            return -1;
         }
-        State numericState;
-
         // extractIndex:
         // e.g. with bit, extractIndex=4 means 5th bit (from right) ("10.4" -> 5th bit of register 10, "10.4" -> 5th bit
         // of register 10)
@@ -673,26 +690,109 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
         // with <16 bit types, this is the index of the N'th 1-bit/8-bit item. Each register has 16/2 items,
         // respectively.
         // with >=16 bit types, this is index of first register
-        int extractIndex;
         if (readValueType.getBits() >= 16) {
             // Invariant, checked in initialize
             assert readSubIndex.orElse(0) == 0;
-            extractIndex = readIndex.get() - pollStart;
+            return readIndex.get() - pollStart;
         } else {
             int subIndex = readSubIndex.orElse(0);
             int itemsPerRegister = 16 / readValueType.getBits();
-            extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
+            return (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
-        numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
-                .map(state -> (State) state).orElse(UnDefType.UNDEF);
+    }
+
+    @Override
+    public synchronized void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+        if (hasConfigurationError()) {
+            return;
+        } else if (!isReadEnabled) {
+            return;
+        }
+        ValueType readValueType = this.readValueType;
+        if (readValueType == null) {
+            return;
+        }
+        int extractIndex = getReadExtractIndex();
+        DecodedValue value = new DecodedValue(readValueType,
+                ModbusBitUtilities.extractRawBitsFromRegisters(registers, extractIndex, readValueType));
+        processRegisterValue(request, registers, extractIndex, value);
+    }
+
+    /**
+     * Process registers already decoded by the poller
+     *
+     * @param request request of the poll
+     * @param registers polled registers
+     * @param value value read by this thing, decoded from the registers
+     */
+    public synchronized void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers,
+            DecodedValue value) {
+        if (hasConfigurationError()) {
+            return;
+        } else if (!isReadEnabled) {
+            return;
+        }
+        if (value.getValueType() != readValueType) {
+            // configuration changed after the value was decoded
+            onRegisters(request, registers);
+            return;
+        }
+        processRegisterValue(request, registers, getReadExtractIndex(), value);
+    }
+
+    private void processRegisterValue(ModbusReadRequestBlueprint request, ModbusRegisterArray registers,
+            int extractIndex, DecodedValue value) {
+        long now = System.currentTimeMillis();
+        if (lastRawBitsValid && lastRawBits == value.getRawBits() && now <= unchangedValuesExpireMillis) {
+            // Channels would be updated with the very same states, which is skipped until
+            // updateUnchangedValuesEveryMillis has passed. Only status and the read timestamp need updating.
+            updateStatusIfChanged(ThingStatus.ONLINE);
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            if (isLinked(lastReadSuccessUID)) {
+                tryUpdateState(lastReadSuccessUID, new DateTimeType());
+            }
+            logger.trace("Thing {} received unchanged value {}. Registers {} for request {}", thing.getUID(), value,
+                    registers, request);
+            return;
+        }
+        State numericState = value.getState();
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
+        rememberRawBits(now, value.getRawBits(), values);
         logger.debug(
                 "Thing {} channels updated: {}. readValueType={}, readIndex={}, readSubIndex(or 0)={}, extractIndex={} -> numeric value {} and boolValue={}. Registers {} for request {}",
                 thing.getUID(), values, readValueType, readIndex, readSubIndex.orElse(0), extractIndex, numericState,
                 boolValue, registers, request);
     }
 
+    /**
+     * Remember the raw value the channels were updated with, and the time until which the channels are not updated
+     * with unchanged value
+     */
+    private void rememberRawBits(long now, long rawBits, Map<ChannelUID, State> states) {
+        long updateUnchangedValuesEveryMillis = this.updateUnchangedValuesEveryMillis;
+        Transformation readTransformation = this.readTransformation;
+        if (updateUnchangedValuesEveryMillis <= 0L || readTransformation == null
+                || !readTransformation.isIdentityTransform()) {
+            // every poll updates all channels. Transformations run on every poll, since their result might change
+            // even though the value has not.
+            lastRawBitsValid = false;
+            return;
+        }
+        // Bounded also when no channel is linked, so that newly linked channels get their state in time
+        long expireMillis = now + updateUnchangedValuesEveryMillis;
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        for (ChannelUID uid : states.keySet()) {
+            if (!uid.equals(lastReadSuccessUID)) {
+                expireMillis = Math.min(expireMillis,
+                        channelLastUpdated.getOrDefault(uid, 0L) + updateUnchangedValuesEveryMillis);
+            }
+        }
+        lastRawBits = rawBits;
+        unchangedValuesExpireMillis = expireMillis;
+        lastRawBitsValid = true;
+    }
+
     @Override
     public synchronized void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
         if (hasConfigurationError()) {
@@ -727,6 +827,8 @@ public class ModbusDataThingHandler extends BaseThingHandler implements ModbusRe
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        // process next value in full, even if unchanged
+        lastRawBitsValid = false;
         Map<@NonNull ChannelUID, @NonNull State> states = new HashMap<>();
         ChannelUID lastReadErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_ERROR);
         if (isLinked(lastReadErrorUID)) {
@@ -49,4 +49,9 @@ public interface ModbusPollerThingHandler {
      */
     public void refresh();
 
+    /**
+     * Notify that a child thing has (re-)initialized the values it reads
+     */
+    public void childReadConfigurationChanged();
+
 }
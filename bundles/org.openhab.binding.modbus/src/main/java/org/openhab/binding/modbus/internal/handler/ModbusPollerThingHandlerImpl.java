@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -92,7 +93,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
             }
             logger.debug("Thing {} received registers {} for request {}", thing.getUID(), registers, request);
             resetCommunicationError();
-            childCallbacks.forEach(handler -> handler.onRegisters(request, registers));
+            getDecodePlan().dispatch(request, registers);
         }
 
         @Override
@@ -198,7 +199,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
                     atomicData.getValue(), request);
             if (atomicData.getValue() instanceof ModbusRegisterArray) {
                 ModbusRegisterArray registers = (ModbusRegisterArray) atomicData.getValue();
-                childCallbacks.forEach(handler -> handler.onRegisters(atomicData.getKey(), registers));
+                getDecodePlan().dispatch(atomicData.getKey(), registers);
             } else if (atomicData.getValue() instanceof BitArray) {
                 BitArray coils = (BitArray) atomicData.getValue();
                 childCallbacks.forEach(handler -> handler.onBits(request, coils));
@@ -255,6 +256,11 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     private Supplier<ModbusManager> managerRef;
     private volatile boolean disposed;
     private volatile List<ModbusReadCallback> childCallbacks = new CopyOnWriteArrayList<>();
+    private volatile @Nullable RegisterDecodePlan decodePlan;
+    /**
+     * Incremented whenever children or the values they read change, invalidating {@link #decodePlan}
+     */
+    private final AtomicInteger childrenVersion = new AtomicInteger();
 
     private ReadCallbackDelegator callbackDelegator = new ReadCallbackDelegator();
 
@@ -384,6 +390,22 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
         }
     }
 
+    /**
+     * Get plan for decoding registers for the child things, compiling it again if children have changed
+     */
+    private RegisterDecodePlan getDecodePlan() {
+        RegisterDecodePlan plan = decodePlan;
+        // read before compiling, so that changes during compilation are picked up by the next poll
+        int version = childrenVersion.get();
+        if (plan == null || plan.getVersion() != version) {
+            plan = RegisterDecodePlan.compile(childCallbacks, version);
+            decodePlan = plan;
+            logger.debug("Thing {} compiled decode plan of {} distinct value(s) for {} child(ren)", thing.getUID(),
+                    plan.getLocationCount(), childCallbacks.size());
+        }
+        return plan;
+    }
+
     private boolean hasConfigurationError() {
         ThingStatusInfo statusInfo = getThing().getStatusInfo();
         return statusInfo.getStatus() == ThingStatus.OFFLINE
@@ -401,6 +423,7 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
         if (childHandler instanceof ModbusReadCallback) {
             this.childCallbacks.add((ModbusReadCallback) childHandler);
+            childrenVersion.incrementAndGet();
         }
     }
 
@@ -409,9 +432,15 @@ public class ModbusPollerThingHandlerImpl extends BaseBridgeHandler implements M
     public void childHandlerDisposed(ThingHandler childHandler, Thing childThing) {
         if (childHandler instanceof ModbusReadCallback) {
             this.childCallbacks.remove(childHandler);
+            childrenVersion.incrementAndGet();
         }
     }
 
+    @Override
+    public void childReadConfigurationChanged() {
+        childrenVersion.incrementAndGet();
+    }
+
     @Override
     public Supplier<ModbusManager> getManagerRef() {
         return managerRef;
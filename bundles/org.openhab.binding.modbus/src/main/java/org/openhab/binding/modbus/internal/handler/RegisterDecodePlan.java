@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Plan for decoding registers polled by a poller for all of its child things
+ *
+ * The plan is compiled from the child callbacks of the poller. Data things reading the same value (same position and
+ * value type) share a single decode: the raw bits are extracted once per poll, and converted to state at most once,
+ * and only if one of the things actually needs the state (see
+ * {@link ModbusDataThingHandler#onRegisters(ModbusReadRequestBlueprint, ModbusRegisterArray, DecodedValue)}).
+ * Other callbacks receive the registers as is.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RegisterDecodePlan {
+
+    /**
+     * Value decoded from the polled registers, shared by all things reading it
+     */
+    public static class DecodedValue {
+        private final ValueType valueType;
+        private final long rawBits;
+        private @Nullable State state;
+
+        public DecodedValue(ValueType valueType, long rawBits) {
+            this.valueType = valueType;
+            this.rawBits = rawBits;
+        }
+
+        public ValueType getValueType() {
+            return valueType;
+        }
+
+        /**
+         * @return right-aligned raw bits of the value
+         */
+        public long getRawBits() {
+            return rawBits;
+        }
+
+        /**
+         * @return numeric state of the value, or UNDEF with floating point NaN or infinity
+         */
+        public synchronized State getState() {
+            State state = this.state;
+            if (state == null) {
+                state = ModbusBitUtilities.rawBitsToState(rawBits, valueType).map(s -> (State) s)
+                        .orElse(UnDefType.UNDEF);
+                this.state = state;
+            }
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("DecodedValue(valueType=%s, rawBits=0x%x)", valueType, rawBits);
+        }
+    }
+
+    /**
+     * Value read by one or more data things
+     */
+    private static class Location {
+        private final int extractIndex;
+        private final ValueType valueType;
+
+        private Location(int extractIndex, ValueType valueType) {
+            this.extractIndex = extractIndex;
+            this.valueType = valueType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(extractIndex, valueType);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Location other = (Location) obj;
+            return extractIndex == other.extractIndex && valueType == other.valueType;
+        }
+    }
+
+    private final ModbusReadCallback[] callbacks;
+    /**
+     * Index to {@link #locations} by callback, or -1 for callbacks receiving the registers as is
+     */
+    private final int[] locationIndices;
+    private final Location[] locations;
+    private final int version;
+
+    private RegisterDecodePlan(ModbusReadCallback[] callbacks, int[] locationIndices, Location[] locations,
+            int version) {
+        this.callbacks = callbacks;
+        this.locationIndices = locationIndices;
+        this.locations = locations;
+        this.version = version;
+    }
+
+    /**
+     * Compile plan for the callbacks
+     *
+     * @param callbacks child callbacks of the poller, in the order of dispatching
+     * @param version version of the children, changed by the poller whenever children or the values they read change
+     * @return compiled plan
+     */
+    public static RegisterDecodePlan compile(Iterable<ModbusReadCallback> callbacks, int version) {
+        List<ModbusReadCallback> callbackList = new ArrayList<>();
+        List<Integer> locationIndices = new ArrayList<>();
+        Map<Location, Integer> locations = new HashMap<>();
+        for (ModbusReadCallback callback : callbacks) {
+            callbackList.add(callback);
+            Location location = getLocation(callback);
+            if (location == null) {
+                locationIndices.add(-1);
+            } else {
+                locationIndices.add(locations.computeIfAbsent(location, l -> locations.size()));
+            }
+        }
+        Location[] locationArray = new Location[locations.size()];
+        locations.forEach((location, index) -> locationArray[index] = location);
+        return new RegisterDecodePlan(callbackList.toArray(new ModbusReadCallback[0]),
+                locationIndices.stream().mapToInt(Integer::intValue).toArray(), locationArray, version);
+    }
+
+    private static @Nullable Location getLocation(ModbusReadCallback callback) {
+        if (!(callback instanceof ModbusDataThingHandler)) {
+            return null;
+        }
+        ModbusDataThingHandler handler = (ModbusDataThingHandler) callback;
+        ValueType valueType = handler.getReadValueType();
+        int extractIndex = handler.getReadExtractIndex();
+        return valueType == null || extractIndex < 0 ? null : new Location(extractIndex, valueType);
+    }
+
+    /**
+     * @return version of the children the plan was compiled from
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return number of distinct values decoded on each poll
+     */
+    public int getLocationCount() {
+        return locations.length;
+    }
+
+    /**
+     * Decode the registers and pass the values to the callbacks
+     *
+     * @param request request of the poll
+     * @param registers polled registers
+     */
+    public void dispatch(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+        @Nullable
+        DecodedValue[] values = new DecodedValue[locations.length];
+        for (int i = 0; i < callbacks.length; i++) {
+            ModbusReadCallback callback = callbacks[i];
+            int locationIndex = locationIndices[i];
+            if (locationIndex < 0) {
+                callback.onRegisters(request, registers);
+                continue;
+            }
+            DecodedValue value = values[locationIndex];
+            if (value == null) {
+                Location location = locations[locationIndex];
+                long rawBits;
+                try {
+                    rawBits = ModbusBitUtilities.extractRawBitsFromRegisters(registers, location.extractIndex,
+                            location.valueType);
+                } catch (IllegalArgumentException e) {
+                    // out-of-bounds, let the thing handle the registers on its own
+                    callback.onRegisters(request, registers);
+                    continue;
+                }
+                value = new DecodedValue(location.valueType, rawBits);
+                values[locationIndex] = value;
+            }
+            ((ModbusDataThingHandler) callback).onRegisters(request, registers, value);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.modbus.internal.handler.ModbusDataThingHandler;
+import org.openhab.binding.modbus.internal.handler.RegisterDecodePlan;
+import org.openhab.binding.modbus.internal.handler.RegisterDecodePlan.DecodedValue;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class RegisterDecodePlanTest {
+
+    private final ModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(1,
+            ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 4, 1);
+    private final ModbusRegisterArray registers = new BasicModbusRegisterArray(0xFFFF, 0x3F80, 0x0000, 7);
+
+    private ModbusDataThingHandler dataHandler(ValueType valueType, int extractIndex) {
+        ModbusDataThingHandler handler = mock(ModbusDataThingHandler.class);
+        when(handler.getReadValueType()).thenReturn(valueType);
+        when(handler.getReadExtractIndex()).thenReturn(extractIndex);
+        return handler;
+    }
+
+    private DecodedValue captureValue(ModbusDataThingHandler handler) {
+        ArgumentCaptor<DecodedValue> value = ArgumentCaptor.forClass(DecodedValue.class);
+        verify(handler).onRegisters(eq(request), eq(registers), value.capture());
+        verify(handler, never()).onRegisters(request, registers);
+        return value.getValue();
+    }
+
+    @Test
+    public void testThingsReadingSameValueShareDecode() {
+        ModbusDataThingHandler handler1 = dataHandler(ValueType.INT16, 0);
+        ModbusDataThingHandler handler2 = dataHandler(ValueType.INT16, 0);
+        ModbusDataThingHandler handler3 = dataHandler(ValueType.FLOAT32, 1);
+        ModbusReadCallback other = mock(ModbusReadCallback.class);
+
+        RegisterDecodePlan plan = RegisterDecodePlan
+                .compile(Arrays.<ModbusReadCallback> asList(handler1, other, handler2, handler3), 0);
+        assertThat(plan.getLocationCount(), is(equalTo(2)));
+        plan.dispatch(request, registers);
+
+        DecodedValue value1 = captureValue(handler1);
+        assertThat(captureValue(handler2), is(sameInstance(value1)));
+        assertThat(value1.getRawBits(), is(equalTo(0xFFFFL)));
+        assertThat(value1.getState(), is(equalTo(new DecimalType(-1))));
+        assertThat(captureValue(handler3).getState(), is(equalTo(new DecimalType(1.0))));
+        verify(other).onRegisters(request, registers);
+    }
+
+    @Test
+    public void testSubRegisterValues() {
+        ModbusDataThingHandler bitHandler = dataHandler(ValueType.BIT, 49);
+        ModbusDataThingHandler byteHandler = dataHandler(ValueType.UINT8, 3);
+
+        RegisterDecodePlan.compile(Arrays.<ModbusReadCallback> asList(bitHandler, byteHandler), 0).dispatch(request,
+                registers);
+
+        assertThat(captureValue(bitHandler).getState(), is(equalTo(new DecimalType(1))));
+        assertThat(captureValue(byteHandler).getState(), is(equalTo(new DecimalType(0x3F))));
+    }
+
+    @Test
+    public void testNaNIsUndefined() {
+        ModbusDataThingHandler handler = dataHandler(ValueType.FLOAT32, 0);
+        ModbusRegisterArray nan = new BasicModbusRegisterArray(0x7FC0, 0);
+
+        RegisterDecodePlan.compile(Arrays.<ModbusReadCallback> asList(handler), 0).dispatch(request, nan);
+
+        ArgumentCaptor<DecodedValue> value = ArgumentCaptor.forClass(DecodedValue.class);
+        verify(handler).onRegisters(eq(request), eq(nan), value.capture());
+        assertThat(value.getValue().getState(), is(equalTo(UnDefType.UNDEF)));
+    }
+
+    @Test
+    public void testOutOfBoundsIsLeftToThing() {
+        ModbusDataThingHandler handler = dataHandler(ValueType.INT64, 2);
+
+        RegisterDecodePlan.compile(Arrays.<ModbusReadCallback> asList(handler), 0).dispatch(request, registers);
+
+        verify(handler).onRegisters(request, registers);
+        verify(handler, never()).onRegisters(any(), any(), any());
+    }
+
+    @Test
+    public void testPlanDispatchesToCallbacksItWasCompiledFrom() {
+        ModbusDataThingHandler handler1 = dataHandler(ValueType.INT16, 0);
+        ModbusDataThingHandler handler2 = dataHandler(ValueType.INT16, 1);
+        List<ModbusReadCallback> callbacks = new ArrayList<>(Arrays.asList(handler1, handler2));
+
+        RegisterDecodePlan plan = RegisterDecodePlan.compile(callbacks, 3);
+        assertThat(plan.getVersion(), is(equalTo(3)));
+
+        // changes of the children take effect with the next compiled plan only
+        callbacks.remove(handler1);
+        plan.dispatch(request, registers);
+        assertThat(captureValue(handler1).getRawBits(), is(equalTo(0xFFFFL)));
+        assertThat(captureValue(handler2).getRawBits(), is(equalTo(0x3F80L)));
+    }
+}
@@ -39,6 +39,12 @@ public class ChannelConfig {
     public boolean postCommand = false;
     public @Nullable Integer qos;
     public boolean retained = false;
+    /**
+     * Minimum time in milliseconds between two publishes to the command topic. Commands in between are merged and
+     * only the latest one is published. 0 publishes every command immediately. Generic MQTT things set it from their
+     * thing configuration.
+     */
+    public int publishInterval = 0;
     /** If true, the state topic will not update a state, but trigger a channel instead. */
     public boolean trigger = false;
     public String unit = "";
@@ -64,6 +64,11 @@ public class ChannelConfigBuilder {
         return this;
     }
 
+    public ChannelConfigBuilder withPublishInterval(int publishInterval) {
+        config.publishInterval = publishInterval;
+        return this;
+    }
+
     public ChannelConfigBuilder withQos(@Nullable Integer qos) {
         config.qos = qos;
         return this;
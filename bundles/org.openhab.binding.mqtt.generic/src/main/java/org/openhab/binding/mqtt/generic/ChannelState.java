@@ -30,6 +30,8 @@ import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.generic.tools.RateLimitedPublisher;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +56,8 @@ public class ChannelState implements MqttMessageSubscriber {
 
     // Runtime variables
     private @Nullable MqttBrokerConnection connection;
+    private @Nullable TopicSubscriptionTrie topicTrie;
+    private @Nullable RateLimitedPublisher publisher;
     protected final List<ChannelStateTransformation> transformationsIn = new ArrayList<>();
     protected final List<ChannelStateTransformation> transformationsOut = new ArrayList<>();
     private @Nullable ChannelStateUpdateListener channelStateUpdateListener;
@@ -152,7 +156,7 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         // String value: Apply transformations
-        String strValue = new String(payload, StandardCharsets.UTF_8);
+        String strValue = decodePayload(topic, payload);
         for (ChannelStateTransformation t : transformationsIn) {
             String transformedValue = t.processValue(strValue);
             if (transformedValue != null) {
@@ -219,6 +223,30 @@ public class ChannelState implements MqttMessageSubscriber {
         return config.commandTopic;
     }
 
+    /**
+     * Returns the number of values published to the command topic with a publish interval, or 0 without one.
+     */
+    public long getPublishedCount() {
+        final RateLimitedPublisher publisher = this.publisher;
+        return publisher != null ? publisher.getPublishedCount() : 0;
+    }
+
+    /**
+     * Returns the number of commands merged into a later one within the publish interval.
+     */
+    public long getMergedCount() {
+        final RateLimitedPublisher publisher = this.publisher;
+        return publisher != null ? publisher.getMergedCount() : 0;
+    }
+
+    /**
+     * Returns the number of commands still pending within the publish interval when the channel was stopped.
+     */
+    public long getDroppedCount() {
+        final RateLimitedPublisher publisher = this.publisher;
+        return publisher != null ? publisher.getDroppedCount() : 0;
+    }
+
     /**
      * Returns the channelType ID which also happens to be an item-type
      */
@@ -226,6 +254,18 @@ public class ChannelState implements MqttMessageSubscriber {
         return cachedValue.getItemType();
     }
 
+    /**
+     * Decodes a received payload to a string before transformations are applied.
+     * Override this to share the decoded value between channel states receiving the same message.
+     *
+     * @param topic The topic the payload was received on
+     * @param payload The byte payload
+     * @return The UTF8 decoded payload
+     */
+    protected String decodePayload(String topic, byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
     /**
      * Returns true if this is a stateful channel.
      */
@@ -240,8 +280,17 @@ public class ChannelState implements MqttMessageSubscriber {
      *         It completes with false if no connection is established and completes exceptionally otherwise.
      */
     public CompletableFuture<@Nullable Void> stop() {
+        final RateLimitedPublisher publisher = this.publisher;
+        if (publisher != null) {
+            publisher.stop();
+            logger.debug("Channel {} published {} values, merged {} and dropped {} pending ones", channelUID,
+                    publisher.getPublishedCount(), publisher.getMergedCount(), publisher.getDroppedCount());
+        }
         final MqttBrokerConnection connection = this.connection;
-        if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
+        final TopicSubscriptionTrie topicTrie = this.topicTrie;
+        if (connection != null && topicTrie != null && StringUtils.isNotBlank(config.stateTopic)) {
+            return topicTrie.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+        } else if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
             return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
         } else {
             internalStop();
@@ -276,6 +325,20 @@ public class ChannelState implements MqttMessageSubscriber {
         return null;
     }
 
+    /**
+     * Receive the state topic through the given topic trie instead of subscribing to it on the broker.
+     * Takes effect with the next call to {@link #start(MqttBrokerConnection, ScheduledExecutorService, int)} and is
+     * ignored while this channel is subscribed. Trigger channels are not handed the last value kept by the trie.
+     *
+     * @param topicTrie A topic trie that is started on the same connection and covers the state topic, or null to
+     *            subscribe to the state topic itself.
+     */
+    public void setTopicTrie(@Nullable TopicSubscriptionTrie topicTrie) {
+        if (!hasSubscribed) {
+            this.topicTrie = topicTrie;
+        }
+    }
+
     /**
      * Subscribes to the state topic on the given connection and informs about updates on the given listener.
      *
@@ -295,13 +358,20 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         this.connection = connection;
+        if (config.publishInterval > 0 && publisher == null) {
+            publisher = new RateLimitedPublisher(scheduler, config.publishInterval);
+        }
 
         if (StringUtils.isBlank(config.stateTopic)) {
             return CompletableFuture.completedFuture(null);
         }
 
         this.future = new CompletableFuture<>();
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        final TopicSubscriptionTrie topicTrie = this.topicTrie;
+        final CompletableFuture<Boolean> subscription = topicTrie != null
+                ? topicTrie.subscribe(config.stateTopic, this, !config.trigger)
+                : connection.subscribe(config.stateTopic, this);
+        subscription.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -374,6 +444,11 @@ public class ChannelState implements MqttMessageSubscriber {
 
         int qos = (config.qos != null) ? config.qos : connection.getQos();
 
+        final RateLimitedPublisher publisher = this.publisher;
+        if (publisher != null) {
+            return publisher.publish(connection, config.commandTopic, mqttCommandValue.getBytes(), qos,
+                    config.retained);
+        }
         return connection.publish(config.commandTopic, mqttCommandValue.getBytes(), qos, config.retained);
     }
 
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.internal.handler;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The configuration of a generic MQTT thing, which applies to all of its channels.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class GenericThingConfiguration {
+    /**
+     * Minimum time in milliseconds between two values published by a channel, see {@link org.openhab.binding.mqtt.generic.ChannelConfig}.
+     */
+    public int publishInterval = 0;
+}
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +103,8 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
     protected transient List<SubscribeFieldToMQTTtopic> subscriptions = new ArrayList<>();
     public transient WeakReference<@Nullable MqttBrokerConnection> connection = new WeakReference<>(null);
     protected transient WeakReference<@Nullable ScheduledExecutorService> scheduler = new WeakReference<>(null);
+    private transient @Nullable TopicSubscriptionTrie topicTrie;
+    private transient @Nullable TopicSubscriptionTrie subscribedTopicTrie;
     private final String prefix;
     private transient String basetopic = "";
     protected transient AttributeChanged attributeChangedListener = (b, c, d, e, f) -> {
@@ -139,6 +142,14 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
      * @return Returns a future that completes as soon as all unsubscriptions have been performed.
      */
     public CompletableFuture<@Nullable Void> unsubscribe() {
+        final TopicSubscriptionTrie subscribedTopicTrie = this.subscribedTopicTrie;
+        if (subscribedTopicTrie != null) {
+            subscriptions.forEach(m -> subscribedTopicTrie.unsubscribe(m.topic, m));
+            subscriptions.clear();
+            this.subscribedTopicTrie = null;
+            return CompletableFuture.completedFuture(null);
+        }
+
         final MqttBrokerConnection connection = this.connection.get();
         if (connection == null) {
             subscriptions.clear();
@@ -151,6 +162,17 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         return CompletableFuture.allOf(futures);
     }
 
+    /**
+     * Receive the field topics through the given topic trie instead of subscribing to each topic on the broker.
+     * Takes effect with the next call to
+     * {@link #subscribeAndReceive(MqttBrokerConnection, ScheduledExecutorService, String, AttributeChanged, int)}.
+     *
+     * @param topicTrie A topic trie that covers the base topic of this object or null to subscribe to each topic.
+     */
+    public void setTopicTrie(@Nullable TopicSubscriptionTrie topicTrie) {
+        this.topicTrie = topicTrie;
+    }
+
     /**
      * Subscribe to all subtopics on a MQTT broker connection base topic that match field names of s java object.
      * The fields will be kept in sync with their respective topics. Optionally, you can register update-observers for
@@ -191,8 +213,12 @@ public abstract class AbstractMqttAttributeClass implements SubscribeFieldToMQTT
         subscriptions = getAllFields(getFieldsOf().getClass()).stream().filter(AbstractMqttAttributeClass::filterField)
                 .map(this::mapFieldToSubscriber).collect(Collectors.toList());
 
+        final TopicSubscriptionTrie topicTrie = this.topicTrie;
+        subscribedTopicTrie = topicTrie;
         final CompletableFuture<?>[] futures = subscriptions.stream()
-                .map(m -> m.subscribeAndReceive(connection, timeout)).toArray(CompletableFuture[]::new);
+                .map(m -> topicTrie != null ? m.registerAndReceive(topicTrie, timeout)
+                        : m.subscribeAndReceive(connection, timeout))
+                .toArray(CompletableFuture[]::new);
         return CompletableFuture.allOf(startFuture, CompletableFuture.allOf(futures));
     }
 
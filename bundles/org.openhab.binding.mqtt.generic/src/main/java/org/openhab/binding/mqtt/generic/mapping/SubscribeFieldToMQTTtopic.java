@@ -25,6 +25,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttException;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -180,7 +181,25 @@ public class SubscribeFieldToMQTTtopic implements MqttMessageSubscriber {
      * @throws MqttException If an MQTT IO exception happens this exception is thrown.
      */
     public CompletableFuture<@Nullable Void> subscribeAndReceive(MqttBrokerConnection connection, int timeout) {
-        connection.subscribe(topic, this).exceptionally(e -> {
+        return receive(connection.subscribe(topic, this), timeout);
+    }
+
+    /**
+     * Register for the MQTT topic on a {@link TopicSubscriptionTrie} instead of subscribing on the broker.
+     * A value that the trie has already received for the topic is applied immediately.
+     * You need to manually unregister from the {@link #topic} before disposing.
+     *
+     * @param topicTrie A started topic trie. The {@link #topic} must be below the base topic of the trie.
+     * @param timeout Timeout in milliseconds. The returned future completes after this time even if no message has
+     *            been received for the MQTT topic.
+     * @return Returns a future that completes if either a value is received for the topic or a timeout happens.
+     */
+    public CompletableFuture<@Nullable Void> registerAndReceive(TopicSubscriptionTrie topicTrie, int timeout) {
+        return receive(topicTrie.subscribe(topic, this, true), timeout);
+    }
+
+    private CompletableFuture<@Nullable Void> receive(CompletableFuture<Boolean> subscription, int timeout) {
+        subscription.exceptionally(e -> {
             logger.debug("Failed to subscribe to topic {}", topic, e);
             final ScheduledFuture<?> scheduledFuture = this.scheduledFuture;
             if (scheduledFuture != null) { // Cancel timeout
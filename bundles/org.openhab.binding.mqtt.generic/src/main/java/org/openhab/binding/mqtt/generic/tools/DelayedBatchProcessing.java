@@ -13,11 +13,16 @@
 package org.openhab.binding.mqtt.generic.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -27,6 +32,15 @@ import org.eclipse.jdt.annotation.Nullable;
  * Collects objects over time until a specified delay passed by.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * <p>
+ * Objects can be added from any number of threads without locking. The user is called back by one thread at a time.
+ * By default all accumulated objects are delivered in one list when the delay has passed. With a maximum batch size,
+ * the user gets lists of at most that size, and a full batch is delivered on the executor without waiting for the
+ * delay. A delivery on the executor that finds another one running leaves the pending batches to it instead of
+ * waiting. Adding threads never call the user: if the user does not keep up, every further full batch pending hands
+ * another delivery to the executor. The queue itself is not bounded.
+ * </p>
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
@@ -34,25 +48,54 @@ import org.eclipse.jdt.annotation.Nullable;
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
     private final int delay;
+    private final int maxBatchSize;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    private final AtomicBoolean deliverAll = new AtomicBoolean();
     private final ScheduledExecutorService executor;
     protected @Nullable ScheduledFuture<?> future;
 
+    // Statistics
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong fullBatchFlushCount = new AtomicLong();
+    private final AtomicLong backlogFlushCount = new AtomicLong();
+
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} which delivers all accumulated objects at once.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
+        this(delay, Integer.MAX_VALUE, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxBatchSize The maximum number of objects delivered to the consumer at once
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, int maxBatchSize, Consumer<List<T>> consumer,
+            ScheduledExecutorService executor) {
         this.delay = delay;
+        this.maxBatchSize = maxBatchSize;
         this.consumer = consumer;
         this.executor = executor;
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size need to be greater than 0!");
+        }
     }
 
     /**
@@ -63,11 +106,24 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      */
     @Override
     public void accept(T t) {
+        // Count first, so that the size is never lower than the number of queued objects
+        final int size = queueSize.incrementAndGet();
         queue.add(t);
-        final ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture == null || scheduledFuture.isDone()) {
+        acceptedCount.incrementAndGet();
+
+        // Arm the timer for the remainder in any case
+        if (armed.compareAndSet(false, true)) {
             this.future = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
         }
+
+        if (size >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            fullBatchFlushCount.incrementAndGet();
+            executor.execute(this::flushFullBatches);
+        } else if (size / maxBatchSize >= 2 && size % maxBatchSize == 0) {
+            // The consumer does not keep up: hand another delivery to the executor, but never call it on this thread
+            backlogFlushCount.incrementAndGet();
+            executor.execute(this::flushFullBatches);
+        }
     }
 
     /**
@@ -80,10 +136,12 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
         if (scheduledFuture != null && !scheduledFuture.isDone()) {
             scheduledFuture.cancel(false);
         }
+        armed.set(false);
         List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        T t;
+        while ((t = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            lqueue.add(t);
         }
         return lqueue;
     }
@@ -93,29 +151,126 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      */
     public boolean isArmed() {
         ScheduledFuture<?> scheduledFuture = this.future;
-        return scheduledFuture != null && !scheduledFuture.isDone();
+        return armed.get() && scheduledFuture != null && !scheduledFuture.isDone();
     }
 
     /**
-     * Deliver queued items now to the target consumer.
+     * Deliver queued items now to the target consumer. Waits for a delivery of another thread to finish, so that all
+     * items queued before the call have been delivered when it returns. Called by the consumer itself, the items are
+     * delivered once the current list has been consumed.
      */
     public void forceProcessNow() {
         ScheduledFuture<?> scheduledFuture = this.future;
         if (scheduledFuture != null && !scheduledFuture.isDone()) {
             scheduledFuture.cancel(false);
         }
-        run();
+        armed.set(false);
+        if (deliveryLock.isHeldByCurrentThread()) {
+            // The delivery in progress on this thread continues with all pending objects
+            deliverAll.set(true);
+            return;
+        }
+        deliveryLock.lock();
+        try {
+            while (deliver(false)) {
+                // Deliver until nothing is left
+            }
+        } finally {
+            deliveryLock.unlock();
+        }
+        // Pick up deliveries requested while the lock was held
+        drain();
+    }
+
+    /**
+     * Return the number of objects added so far.
+     */
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    /**
+     * Return the number of lists delivered to the consumer so far.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Return how often a full batch was delivered before the delay passed by.
+     */
+    public long getFullBatchFlushCount() {
+        return fullBatchFlushCount.get();
+    }
+
+    /**
+     * Return how often an additional delivery was handed to the executor, because the consumer did not keep up.
+     */
+    public long getBacklogFlushCount() {
+        return backlogFlushCount.get();
+    }
+
+    /**
+     * Return the number of objects waiting to be delivered.
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    private void flushFullBatches() {
+        flushScheduled.set(false);
+        drain();
     }
 
     private void run() {
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        armed.set(false);
+        // Deliver everything that has accumulated, in batches of the maximum size
+        deliverAll.set(true);
+        drain();
+    }
+
+    /**
+     * Deliver the full batches, and all pending objects if requested by {@link #run()}. Only the thread that gets the
+     * delivery lock calls the consumer. Others return at once, and the delivering thread checks for their requests
+     * after releasing the lock.
+     */
+    private void drain() {
+        while (deliveryLock.tryLock()) {
+            try {
+                boolean all = deliverAll.getAndSet(false);
+                while (deliver(!all)) {
+                    // Deliver until less than a full batch or nothing is left
+                }
+            } finally {
+                deliveryLock.unlock();
+            }
+            if (!deliverAll.get() && queueSize.get() < maxBatchSize) {
+                return;
+            }
         }
+    }
 
-        if (!lqueue.isEmpty()) {
-            consumer.accept(lqueue);
+    /**
+     * Deliver at most one batch. Must only be called by the thread holding the delivery lock.
+     *
+     * @param onlyFull Only deliver if a full batch is available
+     * @return True if a batch has been delivered
+     */
+    private boolean deliver(boolean onlyFull) {
+        if (onlyFull && queueSize.get() < maxBatchSize) {
+            return false;
+        }
+        List<T> lqueue = new ArrayList<>(Math.max(0, Math.min(queueSize.get(), maxBatchSize)));
+        T t;
+        while (lqueue.size() < maxBatchSize && (t = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            lqueue.add(t);
+        }
+        if (lqueue.isEmpty()) {
+            return false;
         }
+        batchCount.incrementAndGet();
+        consumer.accept(lqueue);
+        return true;
     }
 }
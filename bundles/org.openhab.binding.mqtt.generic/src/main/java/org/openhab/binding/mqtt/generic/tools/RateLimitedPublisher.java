@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes to a single topic at most once per interval. A value that is published within the interval after the
+ * previous publish is delayed until the interval has passed. If further values arrive in the meantime, only the latest
+ * value is published and the earlier ones are merged into it (latest value wins).
+ *
+ * <p>
+ * All callers whose values got merged receive the future of the publish that finally happens. Values that are still
+ * pending when {@link #stop()} is called are dropped and their future completes with false.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RateLimitedPublisher {
+    private final Logger logger = LoggerFactory.getLogger(RateLimitedPublisher.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final long intervalNanos;
+
+    private long nextPublishNanos;
+    private @Nullable Pending pending;
+    private long publishedCount;
+    private long mergedCount;
+    private long droppedCount;
+
+    /**
+     * A value waiting for the end of the interval
+     */
+    private static class Pending {
+        MqttBrokerConnection connection;
+        String topic;
+        byte[] payload;
+        int qos;
+        boolean retained;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        @Nullable
+        ScheduledFuture<?> timer;
+
+        Pending(MqttBrokerConnection connection, String topic, byte[] payload, int qos, boolean retained) {
+            this.connection = connection;
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retained = retained;
+        }
+    }
+
+    /**
+     * Creates a publisher.
+     *
+     * @param scheduler The scheduler for delayed publishes
+     * @param intervalMillis The minimum time between two publishes in milliseconds
+     */
+    public RateLimitedPublisher(ScheduledExecutorService scheduler, int intervalMillis) {
+        this.scheduler = scheduler;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.nextPublishNanos = System.nanoTime();
+    }
+
+    /**
+     * Publishes the given value now or as soon as the interval since the last publish has passed.
+     * The parameters equal those of {@link MqttBrokerConnection#publish(String, byte[], int, boolean)}.
+     *
+     * @return A future that completes with the result of the publish that carries this or a later value.
+     */
+    public synchronized CompletableFuture<Boolean> publish(MqttBrokerConnection connection, String topic,
+            byte[] payload, int qos, boolean retained) {
+        final Pending pending = this.pending;
+        if (pending != null) {
+            pending.connection = connection;
+            pending.topic = topic;
+            pending.payload = payload;
+            pending.qos = qos;
+            pending.retained = retained;
+            mergedCount++;
+            logger.trace("Merged value into pending publish to {}, {} merged so far", topic, mergedCount);
+            return pending.future;
+        }
+
+        final long delayNanos = nextPublishNanos - System.nanoTime();
+        if (delayNanos <= 0) {
+            return publishNow(connection, topic, payload, qos, retained);
+        }
+
+        final Pending newPending = new Pending(connection, topic, payload, qos, retained);
+        newPending.timer = scheduler.schedule(this::publishPending, delayNanos, TimeUnit.NANOSECONDS);
+        this.pending = newPending;
+        return newPending.future;
+    }
+
+    private CompletableFuture<Boolean> publishNow(MqttBrokerConnection connection, String topic, byte[] payload,
+            int qos, boolean retained) {
+        nextPublishNanos = System.nanoTime() + intervalNanos;
+        publishedCount++;
+        return connection.publish(topic, payload, qos, retained);
+    }
+
+    private void publishPending() {
+        final Pending pending;
+        final CompletableFuture<Boolean> result;
+        synchronized (this) {
+            pending = this.pending;
+            if (pending == null) {
+                return;
+            }
+            this.pending = null;
+            result = publishNow(pending.connection, pending.topic, pending.payload, pending.qos, pending.retained);
+        }
+        result.whenComplete((r, e) -> {
+            if (e != null) {
+                pending.future.completeExceptionally(e);
+            } else {
+                pending.future.complete(r);
+            }
+        });
+    }
+
+    /**
+     * Drops a pending value. Its future and the futures of all values merged into it complete with false.
+     */
+    public void stop() {
+        final Pending pending;
+        synchronized (this) {
+            pending = this.pending;
+            if (pending == null) {
+                return;
+            }
+            this.pending = null;
+            droppedCount++;
+            final ScheduledFuture<?> timer = pending.timer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+        pending.future.complete(false);
+    }
+
+    /**
+     * Returns the number of publishes performed.
+     */
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+
+    /**
+     * Returns the number of values that were replaced by a later value before being published.
+     */
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+    /**
+     * Returns the number of pending values that were dropped by {@link #stop()}.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes once to a whole MQTT topic tree (e.g. "homie/device/#") and dispatches incoming messages
+ * to the subscribers registered for exact topics within that tree. The registered topics are stored in a
+ * prefix trie with one level per topic level.
+ *
+ * <p>
+ * Registering or removing a subscriber does not cause any broker round-trip. Because the broker sends retained
+ * messages only once for the wildcard subscription, the last payload of each topic is kept and handed to
+ * subscribers that register later, if requested. An empty payload clears the kept value, like it clears a retained
+ * message on the broker.
+ * </p>
+ *
+ * Usage:
+ *
+ * <pre>
+ * TopicSubscriptionTrie trie = new TopicSubscriptionTrie("homie/device");
+ * trie.start(connection).thenRun(() -> trie.subscribe("homie/device/$name", subscriber, true));
+ * </pre>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicSubscriptionTrie implements MqttMessageSubscriber {
+    private final Logger logger = LoggerFactory.getLogger(TopicSubscriptionTrie.class);
+
+    /**
+     * A topic level. Children are accessed under the lock of the trie only. The kept payload is updated and delivered
+     * under the lock of the level, so that a subscriber registering meanwhile is either handed the kept payload or
+     * receives the message, but never an outdated payload after a newer one.
+     */
+    private static class Level {
+        final Map<String, Level> children = new HashMap<>(4);
+        final List<MqttMessageSubscriber> subscribers = new CopyOnWriteArrayList<>();
+        volatile byte @Nullable [] lastPayload;
+    }
+
+    private final String baseTopic;
+    private final String wildcardTopic;
+    private final Level root = new Level();
+    private @Nullable MqttBrokerConnection connection;
+    private CompletableFuture<Boolean> subscribeFuture = CompletableFuture.completedFuture(false);
+
+    /**
+     * Creates a trie for all topics below the given base topic.
+     *
+     * @param baseTopic The base topic, without a trailing "/#".
+     */
+    public TopicSubscriptionTrie(String baseTopic) {
+        this.baseTopic = baseTopic;
+        this.wildcardTopic = baseTopic + "/#";
+    }
+
+    /**
+     * Subscribes to the wildcard topic on the given connection.
+     *
+     * @param connection A broker connection
+     * @return A future that completes with true if subscribing worked and exceptionally otherwise.
+     */
+    public synchronized CompletableFuture<Boolean> start(MqttBrokerConnection connection) {
+        if (connection.equals(this.connection)) {
+            return subscribeFuture;
+        }
+        this.connection = connection;
+        subscribeFuture = connection.subscribe(wildcardTopic, this);
+        logger.debug("Subscribed to {} for all topics of {}", wildcardTopic, baseTopic);
+        return subscribeFuture;
+    }
+
+    /**
+     * Removes the wildcard subscription and forgets all kept payloads. Registered subscribers stay registered
+     * and will receive messages again after the next {@link #start(MqttBrokerConnection)}.
+     *
+     * @return A future that completes as soon as the broker has confirmed the unsubscription.
+     */
+    public CompletableFuture<Boolean> stop() {
+        final MqttBrokerConnection connection;
+        synchronized (this) {
+            connection = this.connection;
+            this.connection = null;
+            subscribeFuture = CompletableFuture.completedFuture(false);
+            clearPayloads(root);
+        }
+        if (connection == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(wildcardTopic, this);
+    }
+
+    private static void clearPayloads(Level level) {
+        level.lastPayload = null;
+        level.children.values().forEach(TopicSubscriptionTrie::clearPayloads);
+    }
+
+    /**
+     * Registers a subscriber for the given topic. The topic must be below the base topic of this trie and must not
+     * contain wildcards.
+     *
+     * @param topic The full topic
+     * @param subscriber The subscriber
+     * @param retained If true and a payload for the topic has been received before, the subscriber is called with
+     *            that payload before this method returns, like the broker would do for a retained message.
+     * @return The future of the wildcard subscription. It completes with false if {@link #start(MqttBrokerConnection)}
+     *         has not been called.
+     */
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber, boolean retained) {
+        final Level level;
+        final CompletableFuture<Boolean> subscribeFuture;
+        synchronized (this) {
+            level = find(topic, true);
+            if (level == null) {
+                throw new IllegalArgumentException("Topic " + topic + " is not below " + baseTopic);
+            }
+            subscribeFuture = this.subscribeFuture;
+        }
+        synchronized (level) {
+            level.subscribers.add(subscriber);
+            final byte @Nullable [] lastPayload = level.lastPayload;
+            if (retained && lastPayload != null) {
+                subscriber.processMessage(topic, lastPayload);
+            }
+        }
+        return subscribeFuture;
+    }
+
+    /**
+     * Removes the given subscriber from the given topic.
+     *
+     * @param topic The full topic
+     * @param subscriber The subscriber
+     * @return A completed future. It completes with true if the subscriber was registered for the topic.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        final Level level;
+        synchronized (this) {
+            level = find(topic, false);
+        }
+        return CompletableFuture.completedFuture(level != null && level.subscribers.remove(subscriber));
+    }
+
+    /**
+     * Returns the number of topics with at least one registered subscriber.
+     */
+    public synchronized int getSubscribedTopicCount() {
+        return countSubscribed(root);
+    }
+
+    private static int countSubscribed(Level level) {
+        int count = level.subscribers.isEmpty() ? 0 : 1;
+        for (Level child : level.children.values()) {
+            count += countSubscribed(child);
+        }
+        return count;
+    }
+
+    /**
+     * Walks the trie along the levels of the given topic. Must be called with the lock held.
+     *
+     * @param topic The full topic
+     * @param create Creates missing levels if true
+     * @return The level of the topic or null if it is not below the base topic or does not exist and should not be
+     *         created.
+     */
+    private @Nullable Level find(String topic, boolean create) {
+        if (!topic.startsWith(baseTopic) || topic.length() <= baseTopic.length() + 1
+                || topic.charAt(baseTopic.length()) != '/') {
+            return null;
+        }
+        Level level = root;
+        int start = baseTopic.length() + 1;
+        while (true) {
+            int end = topic.indexOf('/', start);
+            String name = end < 0 ? topic.substring(start) : topic.substring(start, end);
+            Level child = level.children.get(name);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Level();
+                level.children.put(name, child);
+            }
+            level = child;
+            if (end < 0) {
+                return level;
+            }
+            start = end + 1;
+        }
+    }
+
+    @Override
+    public void processMessage(String topic, byte[] payload) {
+        final Level level;
+        synchronized (this) {
+            // Only keep payloads of topics that are known or may become known, an empty payload removes the value
+            level = find(topic, payload.length > 0);
+        }
+        if (level == null) {
+            return;
+        }
+        synchronized (level) {
+            level.lastPayload = payload.length > 0 ? payload : null;
+            for (MqttMessageSubscriber subscriber : level.subscribers) {
+                subscriber.processMessage(topic, payload);
+            }
+        }
+    }
+}
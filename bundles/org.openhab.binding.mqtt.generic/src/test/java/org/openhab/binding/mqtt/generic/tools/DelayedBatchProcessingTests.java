@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link DelayedBatchProcessing}.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedBatchProcessingTests {
+    @Mock
+    ScheduledExecutorService executor;
+
+    @Mock
+    ScheduledFuture<?> scheduledFuture;
+
+    final List<List<Integer>> batches = new ArrayList<>();
+
+    DelayedBatchProcessing<Integer> subject;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(scheduledFuture).when(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        subject = new DelayedBatchProcessing<>(500, 3, batches::add, executor);
+    }
+
+    private Runnable scheduledRun() {
+        ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).schedule(runnable.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        return runnable.getValue();
+    }
+
+    @Test
+    public void deliversAfterDelay() {
+        subject.accept(1);
+        subject.accept(2);
+        assertTrue(subject.isArmed());
+        assertTrue(batches.isEmpty());
+
+        scheduledRun().run();
+
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2))));
+        assertThat(subject.getQueueSize(), is(0));
+        assertThat(subject.getBatchCount(), is(1L));
+    }
+
+    @Test
+    public void fullBatchIsDeliveredWithoutDelay() {
+        subject.accept(1);
+        subject.accept(2);
+        verify(executor, never()).execute(any());
+        subject.accept(3);
+        subject.accept(4);
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1)).execute(flush.capture());
+        flush.getValue().run();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2, 3))));
+        assertThat(subject.getFullBatchFlushCount(), is(1L));
+
+        // The remainder is delivered after the delay
+        scheduledRun().run();
+        assertThat(batches.get(1), is(Arrays.asList(4)));
+    }
+
+    @Test
+    public void backlogIsHandedToExecutorIfConsumerDoesNotKeepUp() {
+        for (int i = 1; i <= 7; i++) {
+            subject.accept(i);
+        }
+
+        // The adding thread never calls the consumer
+        assertTrue(batches.isEmpty());
+        assertThat(subject.getBacklogFlushCount(), is(1L));
+        assertThat(subject.getQueueSize(), is(7));
+        assertThat(subject.getAcceptedCount(), is(7L));
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(flush.capture());
+        flush.getAllValues().forEach(Runnable::run);
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6))));
+        assertThat(subject.getQueueSize(), is(1));
+    }
+
+    @Test
+    public void deliveryInProgressPicksUpRequestsOfOtherThreads() {
+        List<List<Integer>> delivered = new ArrayList<>();
+        AtomicReference<DelayedBatchProcessing<Integer>> self = new AtomicReference<>();
+        self.set(new DelayedBatchProcessing<>(500, 3, batch -> {
+            delivered.add(batch);
+            if (delivered.size() == 1) {
+                // The delay passes while the full batch is delivered
+                self.get().accept(4);
+                self.get().forceProcessNow();
+                assertThat(delivered.size(), is(1));
+            }
+        }, executor));
+        for (int i = 1; i <= 3; i++) {
+            self.get().accept(i);
+        }
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(flush.capture());
+        flush.getValue().run();
+        assertThat(delivered, is(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4))));
+    }
+
+    @Test
+    public void deliversAllObjectsAtOnceWithoutMaximumBatchSize() {
+        DelayedBatchProcessing<Integer> unlimited = new DelayedBatchProcessing<>(500, batches::add, executor);
+        for (int i = 0; i < 5000; i++) {
+            unlimited.accept(i);
+        }
+        verify(executor, never()).execute(any());
+
+        scheduledRun().run();
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).size(), is(5000));
+    }
+
+    @Test
+    public void forceProcessNowWaitsForDeliveryOfOtherThread() throws Exception {
+        List<List<Integer>> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(500, 3, batch -> {
+            delivered.add(batch);
+            delivering.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor);
+        for (int i = 1; i <= 4; i++) {
+            processing.accept(i);
+        }
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(flush.capture());
+        Thread flushThread = new Thread(flush.getValue());
+        flushThread.start();
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+        Thread forceThread = new Thread(processing::forceProcessNow);
+        forceThread.start();
+        forceThread.join(200);
+        assertTrue(forceThread.isAlive());
+
+        release.countDown();
+        forceThread.join(5000);
+        assertFalse(forceThread.isAlive());
+        assertThat(delivered, is(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4))));
+        flushThread.join(5000);
+    }
+
+    @Test
+    public void joinReturnsQueuedObjects() {
+        subject.accept(1);
+        subject.accept(2);
+
+        assertThat(subject.join(), is(Arrays.asList(1, 2)));
+        verify(scheduledFuture).cancel(false);
+        assertFalse(subject.isArmed());
+
+        scheduledRun().run();
+        assertTrue(batches.isEmpty());
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link RateLimitedPublisher}.
+ *
+ * @author agent - Initial contribution
+ */
+public class RateLimitedPublisherTests {
+    @Mock
+    MqttBrokerConnection connection;
+
+    @Mock
+    ScheduledExecutorService scheduler;
+
+    @Mock
+    ScheduledFuture<?> scheduledFuture;
+
+    RateLimitedPublisher subject;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).publish(any(), any(), anyInt(),
+                anyBoolean());
+        doReturn(scheduledFuture).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        subject = new RateLimitedPublisher(scheduler, 60000);
+    }
+
+    private Runnable scheduledPublish() {
+        ArgumentCaptor<Runnable> runnable = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(runnable.capture(), anyLong(), any(TimeUnit.class));
+        return runnable.getValue();
+    }
+
+    @Test
+    public void mergesValuesWithinInterval() throws Exception {
+        assertTrue(subject.publish(connection, "dimmer/set", "10".getBytes(), 1, false).get());
+        verify(connection).publish("dimmer/set", "10".getBytes(), 1, false);
+
+        CompletableFuture<Boolean> second = subject.publish(connection, "dimmer/set", "20".getBytes(), 1, false);
+        CompletableFuture<Boolean> third = subject.publish(connection, "dimmer/set", "30".getBytes(), 1, false);
+        assertThat(third, is(second));
+        assertFalse(second.isDone());
+        verify(connection, times(1)).publish(any(), any(), anyInt(), anyBoolean());
+
+        scheduledPublish().run();
+
+        verify(connection).publish("dimmer/set", "30".getBytes(), 1, false);
+        verify(connection, never()).publish("dimmer/set", "20".getBytes(), 1, false);
+        assertTrue(second.get());
+        assertThat(subject.getPublishedCount(), is(2L));
+        assertThat(subject.getMergedCount(), is(1L));
+        assertThat(subject.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void stopDropsPendingValue() throws Exception {
+        subject.publish(connection, "dimmer/set", "10".getBytes(), 1, false);
+        CompletableFuture<Boolean> pending = subject.publish(connection, "dimmer/set", "20".getBytes(), 1, false);
+
+        subject.stop();
+
+        assertFalse(pending.get());
+        verify(scheduledFuture).cancel(false);
+        assertThat(subject.getDroppedCount(), is(1L));
+
+        // A late timer does not publish anymore
+        scheduledPublish().run();
+        verify(connection, times(1)).publish(any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void zeroIntervalPublishesImmediately() {
+        subject = new RateLimitedPublisher(scheduler, 0);
+        subject.publish(connection, "dimmer/set", "10".getBytes(), 1, false);
+        subject.publish(connection, "dimmer/set", "20".getBytes(), 1, false);
+
+        verify(connection, times(2)).publish(any(), any(), anyInt(), anyBoolean());
+        verifyNoMoreInteractions(scheduler);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link TopicSubscriptionTrie}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicSubscriptionTrieTests {
+    @Mock
+    MqttBrokerConnection connection;
+
+    @Mock
+    MqttMessageSubscriber subscriber1;
+
+    @Mock
+    MqttMessageSubscriber subscriber2;
+
+    TopicSubscriptionTrie subject;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        subject = new TopicSubscriptionTrie("homie/device");
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void subscribesOnceForAllTopics() throws Exception {
+        assertTrue(subject.start(connection).get());
+        assertTrue(subject.subscribe("homie/device/$name", subscriber1, true).get());
+        assertTrue(subject.subscribe("homie/device/node/property", subscriber2, true).get());
+        subject.start(connection);
+
+        verify(connection, times(1)).subscribe(eq("homie/device/#"), eq(subject));
+        assertThat(subject.getSubscribedTopicCount(), is(2));
+
+        subject.stop();
+        verify(connection).unsubscribe(eq("homie/device/#"), eq(subject));
+    }
+
+    @Test
+    public void dispatchesToExactTopicOnly() {
+        subject.start(connection);
+        subject.subscribe("homie/device/node/$name", subscriber1, true);
+        subject.subscribe("homie/device/node/property", subscriber2, true);
+
+        byte[] value = payload("21.5");
+        subject.processMessage("homie/device/node/property", value);
+        subject.processMessage("homie/device/node/property/set", payload("22"));
+        subject.processMessage("homie/device/node", payload("ignored"));
+        subject.processMessage("homie/other/node/property", payload("ignored"));
+
+        verify(subscriber2).processMessage("homie/device/node/property", value);
+        verifyNoMoreInteractions(subscriber1, subscriber2);
+    }
+
+    @Test
+    public void replaysLastPayloadToLateSubscribers() {
+        subject.start(connection);
+        byte[] name = payload("Living room");
+        subject.processMessage("homie/device/node/$name", payload("Old name"));
+        subject.processMessage("homie/device/node/$name", name);
+        subject.processMessage("homie/device/node/button", payload("PRESSED"));
+
+        subject.subscribe("homie/device/node/$name", subscriber1, true);
+        verify(subscriber1).processMessage("homie/device/node/$name", name);
+
+        // Non-retained topics are not replayed
+        subject.subscribe("homie/device/node/button", subscriber2, false);
+        verifyNoMoreInteractions(subscriber2);
+    }
+
+    @Test
+    public void replayDoesNotOvertakeNewerPayload() throws Exception {
+        subject.start(connection);
+        subject.processMessage("homie/device/$name", payload("Old name"));
+
+        byte[] name = payload("New name");
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        subject.subscribe("homie/device/$name", (topic, value) -> {
+            delivering.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, false);
+        Thread publisher = new Thread(() -> subject.processMessage("homie/device/$name", name));
+        publisher.start();
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+        // The late subscriber waits for the delivery in progress and is then handed the newer payload only
+        CompletableFuture<Void> subscribed = CompletableFuture
+                .runAsync(() -> subject.subscribe("homie/device/$name", subscriber1, true));
+        Thread.sleep(100);
+        assertFalse(subscribed.isDone());
+        release.countDown();
+        subscribed.get(5, TimeUnit.SECONDS);
+        publisher.join(5000);
+
+        verify(subscriber1).processMessage("homie/device/$name", name);
+        verifyNoMoreInteractions(subscriber1);
+    }
+
+    @Test
+    public void emptyPayloadClearsLastPayload() {
+        subject.start(connection);
+        subject.processMessage("homie/device/$name", payload("Device"));
+        subject.processMessage("homie/device/$name", new byte[0]);
+
+        subject.subscribe("homie/device/$name", subscriber1, true);
+        verifyNoMoreInteractions(subscriber1);
+    }
+
+    @Test
+    public void unsubscribeStopsDispatching() throws Exception {
+        subject.start(connection);
+        subject.subscribe("homie/device/$name", subscriber1, true);
+        assertTrue(subject.unsubscribe("homie/device/$name", subscriber1).get());
+        assertFalse(subject.unsubscribe("homie/device/$name", subscriber1).get());
+        assertThat(subject.getSubscribedTopicCount(), is(0));
+
+        subject.processMessage("homie/device/$name", payload("Device"));
+        verifyNoMoreInteractions(subscriber1);
+        verify(connection, never()).unsubscribe(any(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTopicsOutsideBaseTopic() {
+        subject.subscribe("homie/other/$name", subscriber1, true);
+    }
+}
@@ -30,6 +30,7 @@ import org.eclipse.smarthome.core.thing.type.ChannelTypeBuilder;
 import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
 import org.eclipse.smarthome.core.types.StateDescription;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.openhab.binding.mqtt.generic.ChannelConfig;
 import org.openhab.binding.mqtt.generic.ChannelConfigBuilder;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.ChannelStateTransformation;
@@ -193,10 +194,14 @@ public class CChannel {
             channelUID = new ChannelUID(component.channelGroupUID, channelID);
             channelTypeUID = new ChannelTypeUID(MqttBindingConstants.BINDING_ID,
                     channelUID.getGroupId() + "_" + channelID);
-            channelState = new ChannelState(
-                    ChannelConfigBuilder.create().withRetain(retain).withQos(qos).withStateTopic(state_topic)
-                            .withCommandTopic(command_topic).build(),
-                    channelUID, valueState, channelStateUpdateListener);
+            ChannelConfig channelConfig = ChannelConfigBuilder.create().withRetain(retain).withQos(qos)
+                    .withStateTopic(state_topic).withCommandTopic(command_topic).build();
+            SharedPayloadDecoder payloadDecoder = componentConfiguration.getPayloadDecoder();
+            if (payloadDecoder == null) {
+                channelState = new ChannelState(channelConfig, channelUID, valueState, channelStateUpdateListener);
+            } else {
+                channelState = createSharedDecodingState(channelConfig, channelUID, payloadDecoder);
+            }
 
             if (StringUtils.isBlank(state_topic)) {
                 type = ChannelTypeBuilder.trigger(channelTypeUID, label)
@@ -233,5 +238,18 @@ public class CChannel {
             }
             return result;
         }
+
+        /**
+         * Creates a channel state which shares the decoded payload with the channels on the same state topic.
+         */
+        private ChannelState createSharedDecodingState(ChannelConfig channelConfig, ChannelUID channelUID,
+                SharedPayloadDecoder payloadDecoder) {
+            return new ChannelState(channelConfig, channelUID, valueState, channelStateUpdateListener) {
+                @Override
+                protected String decodePayload(String topic, byte[] payload) {
+                    return payloadDecoder.decode(topic, payload);
+                }
+            };
+        }
     }
 }
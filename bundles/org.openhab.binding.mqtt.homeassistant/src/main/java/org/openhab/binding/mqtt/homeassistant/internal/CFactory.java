@@ -46,8 +46,23 @@ public class CFactory {
     public static @Nullable AbstractComponent<?> createComponent(ThingUID thingUID, HaID haID,
             String channelConfigurationJSON, ChannelStateUpdateListener updateListener, Gson gson,
             TransformationServiceProvider transformationServiceProvider) {
+        return createComponent(thingUID, haID, channelConfigurationJSON, updateListener, gson,
+                transformationServiceProvider, null);
+    }
+
+    /**
+     * Create a HA MQTT component, whose channels decode payloads with the given decoder.
+     *
+     * @param payloadDecoder A decoder shared by the channels of a thing, or null to decode the payload per channel
+     * @see #createComponent(ThingUID, HaID, String, ChannelStateUpdateListener, Gson, TransformationServiceProvider)
+     */
+    public static @Nullable AbstractComponent<?> createComponent(ThingUID thingUID, HaID haID,
+            String channelConfigurationJSON, ChannelStateUpdateListener updateListener, Gson gson,
+            TransformationServiceProvider transformationServiceProvider,
+            @Nullable SharedPayloadDecoder payloadDecoder) {
         ComponentConfiguration componentConfiguration = new ComponentConfiguration(thingUID, haID,
-                channelConfigurationJSON, gson, updateListener).transformationProvider(transformationServiceProvider);
+                channelConfigurationJSON, gson, updateListener).transformationProvider(transformationServiceProvider)
+                        .payloadDecoder(payloadDecoder);
         try {
             switch (haID.component) {
                 case "alarm_control_panel":
@@ -82,6 +97,7 @@ public class CFactory {
         private HaID haID;
         private String configJSON;
         private @Nullable TransformationServiceProvider transformationServiceProvider;
+        private @Nullable SharedPayloadDecoder payloadDecoder;
         private ChannelStateUpdateListener updateListener;
         private Gson gson;
 
@@ -100,6 +116,11 @@ public class CFactory {
             return this;
         }
 
+        public ComponentConfiguration payloadDecoder(@Nullable SharedPayloadDecoder payloadDecoder) {
+            this.payloadDecoder = payloadDecoder;
+            return this;
+        }
+
         public ThingUID getThingUID() {
             return thingUID;
         }
@@ -121,6 +142,11 @@ public class CFactory {
             return transformationServiceProvider;
         }
 
+        @Nullable
+        public SharedPayloadDecoder getPayloadDecoder() {
+            return payloadDecoder;
+        }
+
         public Gson getGson() {
             return gson;
         }
@@ -47,6 +47,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     private final ScheduledExecutorService scheduler;
     private final ChannelStateUpdateListener updateListener;
     private final TransformationServiceProvider transformationServiceProvider;
+    private final @Nullable SharedPayloadDecoder payloadDecoder;
 
     protected final CompletableFuture<@Nullable Void> discoverFinishedFuture = new CompletableFuture<>();
     private final Gson gson;
@@ -74,11 +75,24 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
             ChannelStateUpdateListener channelStateUpdateListener, Gson gson,
             TransformationServiceProvider transformationServiceProvider) {
+        this(thingUID, scheduler, channelStateUpdateListener, gson, transformationServiceProvider, null);
+    }
+
+    /**
+     * Create a new discovery object, whose components decode payloads with the given decoder.
+     *
+     * @param payloadDecoder A decoder shared by the channels of the thing, or null to decode the payload per channel
+     */
+    public DiscoverComponents(ThingUID thingUID, ScheduledExecutorService scheduler,
+            ChannelStateUpdateListener channelStateUpdateListener, Gson gson,
+            TransformationServiceProvider transformationServiceProvider,
+            @Nullable SharedPayloadDecoder payloadDecoder) {
         this.thingUID = thingUID;
         this.scheduler = scheduler;
         this.updateListener = channelStateUpdateListener;
         this.gson = gson;
         this.transformationServiceProvider = transformationServiceProvider;
+        this.payloadDecoder = payloadDecoder;
     }
 
     @Override
@@ -94,7 +108,7 @@ public class DiscoverComponents implements MqttMessageSubscriber {
 
         if (config.length() > 0) {
             component = CFactory.createComponent(thingUID, haID, config, updateListener, gson,
-                    transformationServiceProvider);
+                    transformationServiceProvider, payloadDecoder);
         }
         if (component != null) {
             component.setConfigSeen();
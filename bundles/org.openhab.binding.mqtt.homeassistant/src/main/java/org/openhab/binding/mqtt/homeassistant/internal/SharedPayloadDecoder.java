@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Decodes MQTT payloads once per message for all component channels on the same state topic.
+ *
+ * <p>
+ * The broker connection hands the same payload array to every subscriber of a topic, one after the other. Many
+ * devices (e.g. zigbee2mqtt, Tasmota) publish a single JSON state topic for a dozen channels, each with its own
+ * value template. Decoding the payload to the very same string instance for all those channels allows the JINJA
+ * transformation to recognise the value and to parse the JSON only once per message.
+ * </p>
+ *
+ * <p>
+ * The last payload is kept per topic, so messages of different topics arriving in between do not evict each other.
+ * The number of kept topics is bounded. A decoder is owned by a thing handler, which clears it when it stops.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SharedPayloadDecoder {
+    /** maximum number of topics to keep the last payload of */
+    static final int MAX_TOPICS = 1024;
+
+    private static class Decoded {
+        final byte[] payload;
+        final String value;
+
+        Decoded(byte[] payload, String value) {
+            this.payload = payload;
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Decoded> lastByTopic = new ConcurrentHashMap<>();
+
+    /**
+     * Decodes the given payload as UTF8 string. Returns the same string instance as the previous call for the topic if
+     * it was given the same payload array.
+     *
+     * @param topic The topic the payload was received on
+     * @param payload The payload of a received message
+     * @return The decoded payload
+     */
+    public String decode(String topic, byte[] payload) {
+        final Decoded decoded = lastByTopic.get(topic);
+        if (decoded != null && decoded.payload == payload) {
+            return decoded.value;
+        }
+        final String value = new String(payload, StandardCharsets.UTF_8);
+        if (decoded == null && lastByTopic.size() >= MAX_TOPICS) {
+            lastByTopic.clear();
+        }
+        lastByTopic.put(topic, new Decoded(payload, value));
+        return value;
+    }
+
+    /**
+     * Forgets the kept payloads.
+     */
+    public void clear() {
+        lastByTopic.clear();
+    }
+}
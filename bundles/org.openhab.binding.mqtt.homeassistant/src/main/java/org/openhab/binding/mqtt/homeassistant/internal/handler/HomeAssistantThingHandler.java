@@ -51,6 +51,7 @@ import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents;
 import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents.ComponentDiscovered;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
+import org.openhab.binding.mqtt.homeassistant.internal.SharedPayloadDecoder;
 import org.openhab.binding.mqtt.homeassistant.internal.util.FutureCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +88,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     protected final DiscoverComponents discoverComponents;
 
     private final Gson gson;
+    private final SharedPayloadDecoder payloadDecoder = new SharedPayloadDecoder();
     protected final Map<String, AbstractComponent<?>> haComponents = new HashMap<>();
 
     protected HandlerConfiguration config = new HandlerConfiguration();
@@ -115,7 +117,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         this.attributeReceiveTimeout = attributeReceiveTimeout;
         this.delayedProcessing = new DelayedBatchProcessing<>(attributeReceiveTimeout, this, scheduler);
         this.discoverComponents = new DiscoverComponents(thing.getUID(), scheduler, this, gson,
-                this.transformationServiceProvider);
+                this.transformationServiceProvider, payloadDecoder);
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -153,7 +155,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                 logger.warn("Provided channel does not have a 'config' configuration key!");
             } else {
                 component = CFactory.createComponent(thingUID, haID, channelConfigurationJSON, this, gson,
-                        transformationServiceProvider);
+                        transformationServiceProvider, payloadDecoder);
             }
 
             if (component != null) {
@@ -216,6 +218,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
             haComponents.values().parallelStream().map(e -> e.stop()) //
                     // we need to join all the stops, otherwise they might not be done when start is called
                     .collect(FutureCollector.allOf()).join();
+            payloadDecoder.clear();
 
             started = false;
         }
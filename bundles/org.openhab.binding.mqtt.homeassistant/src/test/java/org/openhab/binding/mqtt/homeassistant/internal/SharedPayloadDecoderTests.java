@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests cases for {@link SharedPayloadDecoder}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SharedPayloadDecoderTests {
+    private final SharedPayloadDecoder decoder = new SharedPayloadDecoder();
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void channelsOnTheSameTopicShareTheDecodedPayload() {
+        byte[] message = payload("{\"temperature\":21.5,\"humidity\":40}");
+
+        String first = decoder.decode("zigbee2mqtt/sensor", message);
+        assertThat(first, is("{\"temperature\":21.5,\"humidity\":40}"));
+        assertThat(decoder.decode("zigbee2mqtt/sensor", message), is(sameInstance(first)));
+        assertThat(decoder.decode("zigbee2mqtt/sensor", message), is(sameInstance(first)));
+    }
+
+    @Test
+    public void interleavedTopicsDoNotEvictEachOther() {
+        byte[] sensor = payload("{\"temperature\":21.5}");
+        byte[] plug = payload("{\"power\":12}");
+
+        String sensorValue = decoder.decode("zigbee2mqtt/sensor", sensor);
+        String plugValue = decoder.decode("zigbee2mqtt/plug", plug);
+        assertThat(decoder.decode("zigbee2mqtt/sensor", sensor), is(sameInstance(sensorValue)));
+        assertThat(decoder.decode("zigbee2mqtt/plug", plug), is(sameInstance(plugValue)));
+        assertThat(sensorValue, is("{\"temperature\":21.5}"));
+        assertThat(plugValue, is("{\"power\":12}"));
+    }
+
+    @Test
+    public void newMessageIsDecodedAgain() {
+        String first = decoder.decode("zigbee2mqtt/sensor", payload("{\"temperature\":21.5}"));
+        String second = decoder.decode("zigbee2mqtt/sensor", payload("{\"temperature\":22}"));
+
+        assertThat(first, is("{\"temperature\":21.5}"));
+        assertThat(second, is("{\"temperature\":22}"));
+    }
+
+    @Test
+    public void clearForgetsPayloads() {
+        byte[] message = payload("{\"temperature\":21.5}");
+
+        String first = decoder.decode("zigbee2mqtt/sensor", message);
+        decoder.clear();
+        assertThat(decoder.decode("zigbee2mqtt/sensor", message), is(not(sameInstance(first))));
+    }
+}
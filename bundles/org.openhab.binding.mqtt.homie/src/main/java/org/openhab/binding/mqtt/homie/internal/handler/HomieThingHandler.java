@@ -30,6 +30,7 @@ import org.openhab.binding.mqtt.generic.AbstractMQTTThingHandler;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.MqttChannelTypeProvider;
 import org.openhab.binding.mqtt.generic.tools.DelayedBatchProcessing;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homie.internal.homie300.Device;
 import org.openhab.binding.mqtt.homie.internal.homie300.DeviceAttributes;
@@ -58,6 +59,7 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
     protected HandlerConfiguration config = new HandlerConfiguration();
     protected DelayedBatchProcessing<Object> delayedProcessing;
     private @Nullable ScheduledFuture<?> heartBeatTimer;
+    private @Nullable TopicSubscriptionTrie topicTrie;
 
     /**
      * Create a new thing handler for homie discovered things. A channel type provider and a topic value receive timeout
@@ -122,11 +124,22 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
                     "Homie devices require QoS 1 but Qos 0/2 is configured. Using override. Please check the configuration");
             connection.setQos(1);
         }
-        return device.subscribe(connection, scheduler, attributeReceiveTimeout).thenCompose((Void v) -> {
-            return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
-        }).thenRun(() -> {
-            logger.debug("Homie device {} fully attached", device.attributes.name);
-        });
+        final CompletableFuture<?> wildcardSubscription;
+        if (config.wildcardsubscription) {
+            final TopicSubscriptionTrie topicTrie = new TopicSubscriptionTrie(config.basetopic + "/" + config.deviceid);
+            this.topicTrie = topicTrie;
+            device.setTopicTrie(topicTrie);
+            wildcardSubscription = topicTrie.start(connection);
+        } else {
+            device.setTopicTrie(null);
+            wildcardSubscription = CompletableFuture.completedFuture(null);
+        }
+        return wildcardSubscription.thenCompose(b -> device.subscribe(connection, scheduler, attributeReceiveTimeout))
+                .thenCompose((Void v) -> {
+                    return device.startChannels(connection, scheduler, attributeReceiveTimeout, this);
+                }).thenRun(() -> {
+                    logger.debug("Homie device {} fully attached", device.attributes.name);
+                });
     }
 
     @Override
@@ -139,6 +152,11 @@ public class HomieThingHandler extends AbstractMQTTThingHandler implements Devic
         }
         delayedProcessing.join();
         device.stop();
+        final TopicSubscriptionTrie topicTrie = this.topicTrie;
+        if (topicTrie != null) {
+            topicTrie.stop();
+            this.topicTrie = null;
+        }
     }
 
     @Override
@@ -29,6 +29,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.binding.mqtt.generic.ChannelConfig;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.openhab.binding.mqtt.homie.internal.handler.HomieThingHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
     private String topic = "";
     public String deviceID = "";
     private boolean initialized = false;
+    private @Nullable TopicSubscriptionTrie topicTrie;
 
     /**
      * Creates a Homie Device structure. It consists of device attributes, device statistics and nodes.
@@ -113,6 +115,7 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
             throw new IllegalStateException("You must call initialize()!");
         }
 
+        attributes.setTopicTrie(topicTrie);
         return attributes.subscribeAndReceive(connection, scheduler, topic, this, timeout)
                 // On success, create all nodes and tell the handler about the ready state
                 .thenCompose(b -> attributesReceived(connection, scheduler, timeout))
@@ -147,7 +150,10 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
         }
 
         return CompletableFuture.allOf(nodes.stream().flatMap(node -> node.properties.stream())
-                .map(p -> p.startChannel(connection, scheduler, timeout)).toArray(CompletableFuture[]::new));
+                .map(p -> {
+                    p.setTopicTrie(topicTrie);
+                    return p.startChannel(connection, scheduler, timeout);
+                }).toArray(CompletableFuture[]::new));
     }
 
     /**
@@ -178,6 +184,16 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
                 b -> CompletableFuture.allOf(nodes.stream().map(n -> n.stop()).toArray(CompletableFuture[]::new)));
     }
 
+    /**
+     * Receive all topics of this device through the given topic trie instead of subscribing to each topic.
+     * Takes effect with the next subscription.
+     *
+     * @param topicTrie A topic trie that covers the device topic tree or null to subscribe to each topic.
+     */
+    public void setTopicTrie(@Nullable TopicSubscriptionTrie topicTrie) {
+        this.topicTrie = topicTrie;
+    }
+
     /**
      * Return all homie nodes on this device
      */
@@ -275,8 +291,10 @@ public class Device implements AbstractMqttAttributeClass.AttributeChanged {
 
     CompletableFuture<@Nullable Void> applyNodes(MqttBrokerConnection connection, ScheduledExecutorService scheduler,
             int timeout) {
-        return nodes.apply(attributes.nodes, node -> node.subscribe(connection, scheduler, timeout), this::createNode,
-                this::notifyNodeRemoved).exceptionally(e -> {
+        return nodes.apply(attributes.nodes, node -> {
+            node.setTopicTrie(topicTrie);
+            return node.subscribe(connection, scheduler, timeout);
+        }, this::createNode, this::notifyNodeRemoved).exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
                 });
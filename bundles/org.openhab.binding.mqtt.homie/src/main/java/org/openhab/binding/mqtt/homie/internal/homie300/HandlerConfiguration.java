@@ -36,4 +36,8 @@ public class HandlerConfiguration {
      * Indicates if retained topics should be removed when the Thing is deleted.
      */
     public boolean removetopics = false;
+    /**
+     * Subscribes once to all topics of the device ("basetopic/deviceid/#") instead of subscribing to each topic.
+     */
+    public boolean wildcardsubscription = false;
 }
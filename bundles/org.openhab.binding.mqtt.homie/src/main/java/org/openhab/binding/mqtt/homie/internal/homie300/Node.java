@@ -32,6 +32,7 @@ import org.eclipse.smarthome.core.util.UIDUtils;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
 import org.openhab.binding.mqtt.generic.tools.ChildMap;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.openhab.binding.mqtt.homie.generic.internal.MqttBindingConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
     public final ChannelGroupTypeUID channelGroupTypeUID;
     private final String topic;
     private boolean initialized = false;
+    private @Nullable TopicSubscriptionTrie topicTrie;
 
     /**
      * Creates a Homie Node.
@@ -84,6 +86,7 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
      */
     public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
+        attributes.setTopicTrie(topicTrie);
         return attributes.subscribeAndReceive(connection, scheduler, topic, this, timeout)
                 // On success, create all properties and tell the handler about this node
                 .thenCompose(b -> attributesReceived(connection, scheduler, timeout))
@@ -114,6 +117,16 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
                 b -> CompletableFuture.allOf(properties.stream().map(p -> p.stop()).toArray(CompletableFuture[]::new)));
     }
 
+    /**
+     * Receive all topics of this node and its properties through the given topic trie instead of subscribing to each
+     * topic. Takes effect with the next subscription.
+     *
+     * @param topicTrie A topic trie that covers the device topic tree or null to subscribe to each topic.
+     */
+    public void setTopicTrie(@Nullable TopicSubscriptionTrie topicTrie) {
+        this.topicTrie = topicTrie;
+    }
+
     /**
      * Return the channel group type for this Node.
      */
@@ -174,8 +187,10 @@ public class Node implements AbstractMqttAttributeClass.AttributeChanged {
 
     protected CompletableFuture<@Nullable Void> applyProperties(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
-        return properties.apply(attributes.properties, prop -> prop.subscribe(connection, scheduler, timeout),
-                this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
+        return properties.apply(attributes.properties, prop -> {
+            prop.setTopicTrie(topicTrie);
+            return prop.subscribe(connection, scheduler, timeout);
+        }, this::createProperty, this::notifyPropertyRemoved).exceptionally(e -> {
                     logger.warn("Could not subscribe", e);
                     return null;
                 });
@@ -37,6 +37,7 @@ import org.openhab.binding.mqtt.generic.ChannelConfigBuilder;
 import org.openhab.binding.mqtt.generic.ChannelState;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass;
 import org.openhab.binding.mqtt.generic.mapping.AbstractMqttAttributeClass.AttributeChanged;
+import org.openhab.binding.mqtt.generic.tools.TopicSubscriptionTrie;
 import org.openhab.binding.mqtt.generic.values.ColorValue;
 import org.openhab.binding.mqtt.generic.values.NumberValue;
 import org.openhab.binding.mqtt.generic.values.OnOffValue;
@@ -69,6 +70,7 @@ public class Property implements AttributeChanged {
     private final String topic;
     private final DeviceCallback callback;
     protected boolean initialized = false;
+    private @Nullable TopicSubscriptionTrie topicTrie;
 
     /**
      * Creates a Homie Property.
@@ -99,6 +101,7 @@ public class Property implements AttributeChanged {
      */
     public CompletableFuture<@Nullable Void> subscribe(MqttBrokerConnection connection,
             ScheduledExecutorService scheduler, int timeout) {
+        attributes.setTopicTrie(topicTrie);
         return attributes.subscribeAndReceive(connection, scheduler, topic, this, timeout)
                 // On success, create the channel and tell the handler about this property
                 .thenRun(this::attributesReceived)
@@ -237,6 +240,16 @@ public class Property implements AttributeChanged {
         return attributes.unsubscribe();
     }
 
+    /**
+     * Receive all topics of this property, including its value through the given topic trie instead of subscribing to
+     * each topic. Takes effect with the next subscription.
+     *
+     * @param topicTrie A topic trie that covers the device topic tree or null to subscribe to each topic.
+     */
+    public void setTopicTrie(@Nullable TopicSubscriptionTrie topicTrie) {
+        this.topicTrie = topicTrie;
+    }
+
     /**
      * @return Returns the channelState. You should have called
      *         {@link Property#subscribe(AbstractMqttAttributeClass, int)}
@@ -265,6 +278,7 @@ public class Property implements AttributeChanged {
         }
         // Make sure we set the callback again which might have been nulled during an stop
         channelState.setChannelStateUpdateListener(this.callback);
+        channelState.setTopicTrie(topicTrie);
         return channelState.start(connection, scheduler, timeout);
     }
 
@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
 
 /**
  * The {@link MqttBindingConstants} class defines common constants, which are
@@ -30,4 +31,7 @@ public class MqttBindingConstants {
     public static final ThingTypeUID BRIDGE_TYPE_BROKER = new ThingTypeUID(BINDING_ID, "broker");
 
     public static final String PUBLISH_TRIGGER_CHANNEL = "publishTrigger";
+
+    // Channel type of the per topic prefix message rates of the system broker
+    public static final ChannelTypeUID CHANNEL_TYPE_PREFIX_RATE = new ChannelTypeUID(BINDING_ID, "prefixRate");
 }
@@ -12,25 +12,33 @@
  */
 package org.openhab.binding.mqtt.handler;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttServiceObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttWillAndTestament;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.PeriodicReconnectStrategy;
+import org.openhab.binding.mqtt.MqttBindingConstants;
 
 /**
  * This handler does not much except providing all information from a
  * {@link MqttBrokerConnection} via Thing properties and put the Thing
- * offline or online depending on the connection.
+ * offline or online depending on the connection. Broker metrics published
+ * on "$SYS" topics are provided as channels. A channel for the message rate
+ * of a topic prefix is added when the broker publishes it for the first time.
  *
  * @author David Graeff - Initial contribution
  */
@@ -47,7 +55,22 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
     public static final String PROPERTY_KEEP_ALIVE_TIME = "keep_alive_time_ms";
     public static final String PROPERTY_CONNECT_TIMEOUT = "connect_timeout_ms";
 
+    // Channels with broker metrics, by the "$SYS" topic the broker publishes them on
+    public static final String METRICS_TOPIC = "$SYS/broker/#";
+    private static final Map<String, String> METRIC_CHANNELS_BY_TOPIC = new HashMap<>();
+    static {
+        METRIC_CHANNELS_BY_TOPIC.put("$SYS/broker/clients/connected", "clientsConnected");
+        METRIC_CHANNELS_BY_TOPIC.put("$SYS/broker/publish/messages/received", "publishReceived");
+        METRIC_CHANNELS_BY_TOPIC.put("$SYS/broker/load/publish/received/persecond", "publishRate");
+        METRIC_CHANNELS_BY_TOPIC.put("$SYS/broker/load/bytes/received/persecond", "bytesRate");
+    }
+    // Message rates per first topic level: "$SYS/broker/load/prefix/<prefix>/received/persecond"
+    private static final String PREFIX_RATE_TOPIC_START = "$SYS/broker/load/prefix/";
+    private static final String PREFIX_RATE_TOPIC_END = "/received/persecond";
+    public static final String PREFIX_RATE_CHANNEL_PREFIX = "prefixRate_";
+
     protected final MqttService service;
+    private final MqttMessageSubscriber metricsSubscriber = this::processMetric;
 
     protected String brokerID = "";
 
@@ -85,6 +108,50 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
 
         updateProperties(properties);
         super.connectionStateChanged(state, error);
+
+        final MqttBrokerConnection connection = this.connection;
+        if (state == MqttConnectionState.CONNECTED && connection != null) {
+            // Remove the subscription of a previous connection first, so that metrics are not received twice
+            connection.unsubscribe(METRICS_TOPIC, metricsSubscriber)
+                    .whenComplete((result, e) -> connection.subscribe(METRICS_TOPIC, metricsSubscriber));
+        }
+    }
+
+    /**
+     * Updates the metric channel of a received "$SYS" topic. Other "$SYS" topics are ignored.
+     */
+    protected void processMetric(String topic, byte[] payload) {
+        String channelID = METRIC_CHANNELS_BY_TOPIC.get(topic);
+        if (channelID == null) {
+            if (!topic.startsWith(PREFIX_RATE_TOPIC_START) || !topic.endsWith(PREFIX_RATE_TOPIC_END)
+                    || topic.length() < PREFIX_RATE_TOPIC_START.length() + PREFIX_RATE_TOPIC_END.length()) {
+                return;
+            }
+            channelID = addPrefixRateChannel(topic.substring(PREFIX_RATE_TOPIC_START.length(),
+                    topic.length() - PREFIX_RATE_TOPIC_END.length()));
+        }
+        try {
+            updateState(channelID, new DecimalType(new String(payload, StandardCharsets.UTF_8).trim()));
+        } catch (NumberFormatException e) {
+            // Not a number metric
+        }
+    }
+
+    /**
+     * Adds the message rate channel of the given topic prefix, if the thing does not have it yet.
+     *
+     * @param prefix The first topic level
+     * @return The channel ID
+     */
+    private synchronized String addPrefixRateChannel(String prefix) {
+        final String channelID = PREFIX_RATE_CHANNEL_PREFIX + prefix.replaceAll("[^\\w-]", "_");
+        if (thing.getChannel(channelID) == null) {
+            final ChannelUID channelUID = new ChannelUID(thing.getUID(), channelID);
+            updateThing(editThing().withChannel(ChannelBuilder.create(channelUID, "Number")
+                    .withType(MqttBindingConstants.CHANNEL_TYPE_PREFIX_RATE)
+                    .withLabel("Received Messages per Second for " + prefix).build()).build());
+        }
+        return channelID;
     }
 
     /**
@@ -130,6 +197,10 @@ public class SystemBrokerHandler extends AbstractBrokerHandler implements MqttSe
     @Override
     public void dispose() {
         service.removeBrokersListener(this);
+        final MqttBrokerConnection connection = this.connection;
+        if (connection != null) {
+            connection.unsubscribe(METRICS_TOPIC, metricsSubscriber);
+        }
         super.dispose();
     }
 }
@@ -26,4 +26,18 @@ public class Constants {
      * </pre>
      */
     public static final String CLIENTID = "embedded-mqtt-broker";
+
+    /** Number of connected clients. Also provided by Mosquitto. */
+    public static final String METRIC_CLIENTS_CONNECTED = "$SYS/broker/clients/connected";
+    /** Total number of received publish messages. Also provided by Mosquitto. */
+    public static final String METRIC_PUBLISH_RECEIVED = "$SYS/broker/publish/messages/received";
+    /** Total number of received payload bytes. */
+    public static final String METRIC_BYTES_RECEIVED = "$SYS/broker/publish/bytes/received";
+    /** Received publish messages per second. */
+    public static final String METRIC_PUBLISH_RATE = "$SYS/broker/load/publish/received/persecond";
+    /** Received payload bytes per second. */
+    public static final String METRIC_BYTES_RATE = "$SYS/broker/load/bytes/received/persecond";
+    /** Received publish messages per second per first topic level, the topic is prefix + level + suffix. */
+    public static final String METRIC_PREFIX_RATE_PREFIX = "$SYS/broker/load/prefix/";
+    public static final String METRIC_PREFIX_RATE_SUFFIX = "/received/persecond";
 }
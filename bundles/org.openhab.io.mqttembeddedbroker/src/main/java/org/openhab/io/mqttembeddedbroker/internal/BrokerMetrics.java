@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.moquette.interception.InterceptHandler;
+import io.moquette.interception.messages.InterceptAcknowledgedMessage;
+import io.moquette.interception.messages.InterceptConnectMessage;
+import io.moquette.interception.messages.InterceptConnectionLostMessage;
+import io.moquette.interception.messages.InterceptDisconnectMessage;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.moquette.interception.messages.InterceptSubscribeMessage;
+import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+
+/**
+ * Counts the messages published to the embedded broker, in total and per first topic level (the topic prefix).
+ * <p>
+ * Moquette calls interceptors on its own thread pool, so counting does not slow down message routing. Rates are
+ * computed by {@link #sample(long)} over the time since the previous sample. Topics starting with "$" (like the
+ * "$SYS" metric topics) are not counted. The number of tracked prefixes is limited; messages to further prefixes are
+ * counted for {@link #OTHER_PREFIX}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault({})
+public class BrokerMetrics implements InterceptHandler {
+    /** The maximum number of individually tracked topic prefixes */
+    public static final int MAX_PREFIXES = 50;
+    /** The prefix that all further topic prefixes are counted for */
+    public static final String OTHER_PREFIX = "other";
+
+    private final Logger logger = LoggerFactory.getLogger(BrokerMetrics.class);
+
+    private final LongAdder publishCount = new LongAdder();
+    private final LongAdder byteCount = new LongAdder();
+    private final Map<String, LongAdder> prefixCounts = new ConcurrentHashMap<>();
+
+    // Values of the previous sample. Only accessed by the sampling thread.
+    private long lastSampleNanos = System.nanoTime();
+    private long lastPublishCount;
+    private long lastByteCount;
+    private final Map<String, Long> lastPrefixCounts = new LinkedHashMap<>();
+
+    /**
+     * The rates since the previous call of {@link #sample(long)}.
+     */
+    public static class Sample {
+        public final long publishCount;
+        public final long byteCount;
+        public final double publishRate;
+        public final double byteRate;
+        /** Messages per second per topic prefix */
+        public final Map<String, Double> prefixRates;
+
+        Sample(long publishCount, long byteCount, double publishRate, double byteRate,
+                Map<String, Double> prefixRates) {
+            this.publishCount = publishCount;
+            this.byteCount = byteCount;
+            this.publishRate = publishRate;
+            this.byteRate = byteRate;
+            this.prefixRates = prefixRates;
+        }
+    }
+
+    @Override
+    public String getID() {
+        return "metrics";
+    }
+
+    @Override
+    public Class<?>[] getInterceptedMessageTypes() {
+        return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class,
+                InterceptConnectionLostMessage.class, InterceptPublishMessage.class };
+    }
+
+    @Override
+    public void onConnect(InterceptConnectMessage msg) {
+        logger.debug("MQTT Client connected: {}", msg.getClientID());
+    }
+
+    @Override
+    public void onConnectionLost(InterceptConnectionLostMessage msg) {
+        logger.debug("MQTT Client connection lost: {}", msg.getClientID());
+    }
+
+    @Override
+    public void onDisconnect(InterceptDisconnectMessage msg) {
+        logger.debug("MQTT Client disconnected: {}", msg.getClientID());
+    }
+
+    @Override
+    public void onMessageAcknowledged(InterceptAcknowledgedMessage msg) {
+    }
+
+    @Override
+    public void onPublish(InterceptPublishMessage msg) {
+        count(msg.getTopicName(), msg.getPayload().readableBytes());
+    }
+
+    @Override
+    public void onSubscribe(InterceptSubscribeMessage msg) {
+    }
+
+    @Override
+    public void onUnsubscribe(InterceptUnsubscribeMessage msg) {
+    }
+
+    /**
+     * Counts a published message.
+     *
+     * @param topic The message topic
+     * @param payloadSize The payload size in bytes
+     */
+    public void count(String topic, int payloadSize) {
+        if (topic.startsWith("$")) {
+            return;
+        }
+        publishCount.increment();
+        byteCount.add(payloadSize);
+
+        int index = topic.indexOf('/');
+        String prefix = index < 0 ? topic : topic.substring(0, index);
+        LongAdder counter = prefixCounts.get(prefix);
+        if (counter == null) {
+            counter = prefixCounts.size() < MAX_PREFIXES ? prefixCounts.computeIfAbsent(prefix, p -> new LongAdder())
+                    : prefixCounts.computeIfAbsent(OTHER_PREFIX, p -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Computes the rates since the previous sample. Must not be called concurrently.
+     *
+     * @param nowNanos The current time of {@link System#nanoTime()}
+     * @return The totals and rates
+     */
+    public Sample sample(long nowNanos) {
+        final double seconds = Math.max(1, nowNanos - lastSampleNanos) / 1e9;
+        lastSampleNanos = nowNanos;
+
+        final long publishes = publishCount.sum();
+        final long bytes = byteCount.sum();
+        final double publishRate = (publishes - lastPublishCount) / seconds;
+        final double byteRate = (bytes - lastByteCount) / seconds;
+        lastPublishCount = publishes;
+        lastByteCount = bytes;
+
+        Map<String, Double> prefixRates = new LinkedHashMap<>();
+        prefixCounts.forEach((prefix, counter) -> {
+            final long count = counter.sum();
+            final Long last = lastPrefixCounts.put(prefix, count);
+            prefixRates.put(prefix, (count - (last == null ? 0 : last)) / seconds);
+        });
+        return new Sample(publishes, bytes, publishRate, byteRate, prefixRates);
+    }
+}
@@ -15,6 +15,7 @@ package org.openhab.io.mqttembeddedbroker.internal;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -43,6 +44,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttServiceObserver;
+import org.h2.mvstore.MVStoreTool;
 import org.openhab.io.mqttembeddedbroker.Constants;
 import org.openhab.io.mqttembeddedbroker.internal.MqttEmbeddedBrokerDetectStart.MqttEmbeddedBrokerStartedListener;
 import org.osgi.service.component.annotations.*;
@@ -55,14 +57,10 @@ import io.moquette.broker.Server;
 import io.moquette.broker.config.MemoryConfig;
 import io.moquette.broker.security.IAuthenticator;
 import io.moquette.broker.security.IAuthorizatorPolicy;
-import io.moquette.interception.InterceptHandler;
-import io.moquette.interception.messages.InterceptAcknowledgedMessage;
-import io.moquette.interception.messages.InterceptConnectMessage;
-import io.moquette.interception.messages.InterceptConnectionLostMessage;
-import io.moquette.interception.messages.InterceptDisconnectMessage;
-import io.moquette.interception.messages.InterceptPublishMessage;
-import io.moquette.interception.messages.InterceptSubscribeMessage;
-import io.moquette.interception.messages.InterceptUnsubscribeMessage;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttQoS;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 
@@ -87,59 +85,13 @@ public class EmbeddedBrokerService
     private String persistenceFilename = "";
     // private NetworkServerTls networkServerTls; //TODO wait for NetworkServerTls implementation
 
-    @NonNullByDefault({})
-    class BrokerMetricsListenerEx implements InterceptHandler {
-
-        @Override
-        public String getID() {
-            return "logger";
-        }
-
-        @Override
-        public Class<?>[] getInterceptedMessageTypes() {
-            return new Class<?>[] { InterceptConnectMessage.class, InterceptDisconnectMessage.class };
-        }
-
-        @Override
-        public void onConnect(InterceptConnectMessage arg0) {
-            logger.debug("MQTT Client connected: {}", arg0.getClientID());
-        }
-
-        @Override
-        public void onConnectionLost(InterceptConnectionLostMessage arg0) {
-
-        }
-
-        @Override
-        public void onDisconnect(InterceptDisconnectMessage arg0) {
-            logger.debug("MQTT Client disconnected: {}", arg0.getClientID());
-        }
-
-        @Override
-        public void onMessageAcknowledged(InterceptAcknowledgedMessage arg0) {
-
-        }
-
-        @Override
-        public void onPublish(InterceptPublishMessage arg0) {
-
-        }
-
-        @Override
-        public void onSubscribe(InterceptSubscribeMessage arg0) {
-
-        }
-
-        @Override
-        public void onUnsubscribe(InterceptUnsubscribeMessage arg0) {
-
-        }
-    }
-
     protected @Nullable Server server;
     private final Logger logger = LoggerFactory.getLogger(EmbeddedBrokerService.class);
     protected MqttEmbeddedBrokerDetectStart detectStart = new MqttEmbeddedBrokerDetectStart(this);
-    protected BrokerMetricsListenerEx metrics = new BrokerMetricsListenerEx();
+    protected BrokerMetrics metrics = new BrokerMetrics();
+    private int metricsInterval;
+    private int persistenceAutosave = 30;
+    private @Nullable ScheduledExecutorService metricsScheduler;
 
     private @Nullable MqttBrokerConnection connection;
 
@@ -179,13 +131,21 @@ public class EmbeddedBrokerService
                 Path path = Paths.get(ConfigConstants.getUserDataFolder()).toAbsolutePath();
                 Files.createDirectories(path);
                 this.persistenceFilename = path.resolve(persistenceFilename).toString();
+            } else {
+                this.persistenceFilename = persistenceFilename;
             }
 
             logger.info("Broker persistence file: {}", persistenceFilename);
+            if (config.persistenceCompact) {
+                compactPersistenceFile(this.persistenceFilename);
+            }
         } else {
             logger.info("Using in-memory persistence. No persistence file has been set!");
         }
 
+        persistenceAutosave = config.persistenceAutosave;
+        metricsInterval = config.metricsInterval;
+
         // Start embedded server
         startEmbeddedServer(port, config.secure, config.username, config.password);
     }
@@ -195,6 +155,7 @@ public class EmbeddedBrokerService
         if (service != null) {
             service.removeBrokersListener(this);
         }
+        stopMetrics();
         MqttBrokerConnection connection = this.connection;
         if (connection == null) {
             if (server != null) {
@@ -293,7 +254,7 @@ public class EmbeddedBrokerService
 
         if (!persistenceFilename.isEmpty()) { // Persistence: If not set, an in-memory database is used.
             properties.put(BrokerConstants.PERSISTENT_STORE_PROPERTY_NAME, persistenceFilename);
-            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME, "30"); // in seconds
+            properties.put(BrokerConstants.AUTOSAVE_INTERVAL_PROPERTY_NAME, Integer.toString(persistenceAutosave));
         }
 
         // We may provide ACL functionality at some point as well
@@ -317,11 +278,13 @@ public class EmbeddedBrokerService
         server.addInterceptHandler(metrics);
         ScheduledExecutorService s = new ScheduledThreadPoolExecutor(1);
         detectStart.startBrokerStartedDetection(port, s);
+        startMetrics();
     }
 
     public void stopEmbeddedServer() {
         Server server = this.server;
         if (server != null) {
+            stopMetrics();
             server.removeInterceptHandler(metrics);
             detectStart.stopBrokerStartDetection();
             server.stopServer();
@@ -329,6 +292,77 @@ public class EmbeddedBrokerService
         }
     }
 
+    /**
+     * Compacts the moquette persistence file before the broker opens it. Moquette appends changed retained messages
+     * and sessions to the file on every autosave, so with many frequently updated retained topics the file grows
+     * and opening it takes longer and longer. A failed compaction is logged and the file is used as it is.
+     *
+     * @param filename The persistence file
+     */
+    protected void compactPersistenceFile(String filename) {
+        if (!new File(filename).isFile()) {
+            return;
+        }
+        final long sizeBefore = new File(filename).length();
+        final long started = System.nanoTime();
+        try {
+            MVStoreTool.compact(filename, false);
+            logger.debug("Compacted broker persistence file from {} to {} bytes in {} ms", sizeBefore,
+                    new File(filename).length(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IllegalStateException e) {
+            logger.warn("Could not compact broker persistence file {}", filename, e);
+        }
+    }
+
+    /**
+     * Publishes the {@link BrokerMetrics} every {@link #metricsInterval} seconds as retained messages on "$SYS/broker"
+     * topics. The topics that Mosquitto also provides are named like the Mosquitto ones.
+     */
+    private void startMetrics() {
+        if (metricsInterval <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.scheduleWithFixedDelay(this::publishMetrics, metricsInterval, metricsInterval, TimeUnit.SECONDS);
+        metricsScheduler = scheduler;
+    }
+
+    private void stopMetrics() {
+        ScheduledExecutorService scheduler = metricsScheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            metricsScheduler = null;
+        }
+    }
+
+    private void publishMetrics() {
+        final Server server = this.server;
+        if (server == null) {
+            return;
+        }
+        try {
+            final BrokerMetrics.Sample sample = metrics.sample(System.nanoTime());
+            publishMetric(server, Constants.METRIC_CLIENTS_CONNECTED, server.listConnectedClients().size());
+            publishMetric(server, Constants.METRIC_PUBLISH_RECEIVED, sample.publishCount);
+            publishMetric(server, Constants.METRIC_BYTES_RECEIVED, sample.byteCount);
+            publishMetric(server, Constants.METRIC_PUBLISH_RATE, sample.publishRate);
+            publishMetric(server, Constants.METRIC_BYTES_RATE, sample.byteRate);
+            sample.prefixRates.forEach((prefix, rate) -> publishMetric(server,
+                    Constants.METRIC_PREFIX_RATE_PREFIX + prefix + Constants.METRIC_PREFIX_RATE_SUFFIX, rate));
+        } catch (RuntimeException e) {
+            // Do not cancel the scheduled task
+            logger.debug("Could not publish broker metrics", e);
+        }
+    }
+
+    private void publishMetric(Server server, String topic, Number value) {
+        final String payload = value instanceof Double ? String.valueOf(Math.round(value.doubleValue() * 10) / 10.0)
+                : value.toString();
+        MqttPublishMessage message = MqttMessageBuilders.publish().topicName(topic).retained(true)
+                .qos(MqttQoS.AT_MOST_ONCE).payload(Unpooled.copiedBuffer(payload, StandardCharsets.UTF_8)).build();
+        server.internalPublish(message, Constants.CLIENTID);
+    }
+
     /**
      * For testing: Returns true if the embedded server confirms that the MqttBrokerConnection is connected.
      */
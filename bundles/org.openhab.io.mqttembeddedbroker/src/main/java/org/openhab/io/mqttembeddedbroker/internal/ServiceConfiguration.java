@@ -25,6 +25,9 @@ public class ServiceConfiguration {
     public @Nullable Integer port;
     public Boolean secure = false;
     public String persistenceFile = "mqttembedded.bin";
+    public Integer persistenceAutosave = 30;
+    public Boolean persistenceCompact = true;
+    public Integer metricsInterval = 10;
 
     public @Nullable String username;
     public @Nullable String password;
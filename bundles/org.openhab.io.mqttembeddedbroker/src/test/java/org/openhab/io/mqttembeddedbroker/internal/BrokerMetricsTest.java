@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.mqttembeddedbroker.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link BrokerMetrics}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BrokerMetricsTest {
+    @Test
+    public void ratesPerSample() {
+        BrokerMetrics metrics = new BrokerMetrics();
+        long now = System.nanoTime();
+        metrics.sample(now);
+
+        metrics.count("zigbee2mqtt/lamp", 100);
+        metrics.count("zigbee2mqtt/sensor", 50);
+        metrics.count("homie/device/$state", 10);
+        metrics.count("$SYS/broker/clients/connected", 1);
+
+        BrokerMetrics.Sample sample = metrics.sample(now + TimeUnit.SECONDS.toNanos(2));
+        assertThat(sample.publishCount, is(3L));
+        assertThat(sample.byteCount, is(160L));
+        assertThat(sample.publishRate, is(1.5));
+        assertThat(sample.byteRate, is(80.0));
+        assertThat(sample.prefixRates.get("zigbee2mqtt"), is(1.0));
+        assertThat(sample.prefixRates.get("homie"), is(0.5));
+        assertNull(sample.prefixRates.get("$SYS"));
+
+        sample = metrics.sample(now + TimeUnit.SECONDS.toNanos(3));
+        assertThat(sample.publishCount, is(3L));
+        assertThat(sample.publishRate, is(0.0));
+        assertThat(sample.prefixRates.get("zigbee2mqtt"), is(0.0));
+    }
+
+    @Test
+    public void limitsTrackedPrefixes() {
+        BrokerMetrics metrics = new BrokerMetrics();
+        for (int i = 0; i < BrokerMetrics.MAX_PREFIXES + 10; i++) {
+            metrics.count("device" + i + "/state", 1);
+        }
+
+        BrokerMetrics.Sample sample = metrics.sample(System.nanoTime());
+        assertThat(sample.prefixRates.size(), is(BrokerMetrics.MAX_PREFIXES + 1));
+        assertTrue(sample.prefixRates.containsKey(BrokerMetrics.OTHER_PREFIX));
+    }
+}
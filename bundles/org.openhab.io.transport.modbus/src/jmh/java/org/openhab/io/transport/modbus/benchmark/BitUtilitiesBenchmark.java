@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks decoding registers to states and encoding commands to registers with {@link ModbusBitUtilities}
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BitUtilitiesBenchmark {
+
+    @Param({ "INT16", "UINT32", "FLOAT32", "INT64" })
+    public String valueType;
+
+    private ValueType type = ValueType.INT16;
+    private final ModbusRegisterArray registers = new BasicModbusRegisterArray(0x3F80, 0x0000, 0x1234, 0x5678,
+            0x9ABC, 0xDEF0);
+    private final DecimalType command = new DecimalType(12.5);
+
+    @Setup
+    public void setup() {
+        type = ValueType.valueOf(valueType);
+    }
+
+    @Benchmark
+    public Object extractStateFromRegisters() {
+        return ModbusBitUtilities.extractStateFromRegisters(registers, 0, type);
+    }
+
+    @Benchmark
+    public long extractRawBitsFromRegisters() {
+        return ModbusBitUtilities.extractRawBitsFromRegisters(registers, 0, type);
+    }
+
+    @Benchmark
+    public Object commandToRegisters() {
+        return ModbusBitUtilities.commandToRegisters(command, type);
+    }
+}
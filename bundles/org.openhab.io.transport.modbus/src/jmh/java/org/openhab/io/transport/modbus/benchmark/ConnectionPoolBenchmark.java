@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusConnectionPool;
+import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+import org.openhab.io.transport.modbus.test.ModbusSlaveSimulator;
+import org.openhab.io.transport.modbus.test.ModbusSlaveSimulator.Transport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.wimpi.modbus.net.ModbusSlaveConnection;
+
+/**
+ * Benchmarks borrowing a connection to {@link ModbusSlaveSimulator} from the pool and returning it
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConnectionPoolBenchmark {
+
+    private ModbusSlaveSimulator simulator;
+    private ModbusSlaveEndpoint endpoint;
+    private ModbusConnectionPool pool;
+
+    @Setup
+    public void setup() throws Exception {
+        simulator = new ModbusSlaveSimulator(Transport.TCP).start();
+        endpoint = simulator.getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setInterTransactionDelayMillis(0);
+        configuration.setInterConnectDelayMillis(0);
+        ModbusSlaveConnectionFactoryImpl factory = new ModbusSlaveConnectionFactoryImpl();
+        factory.setEndpointPoolConfiguration(endpoint, configuration);
+        pool = new ModbusConnectionPool(factory);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+        simulator.close();
+    }
+
+    @Benchmark
+    public ModbusSlaveConnection borrowAndReturn() throws Exception {
+        ModbusSlaveConnection connection = pool.borrowObject(endpoint);
+        pool.returnObject(endpoint, connection);
+        return connection;
+    }
+}
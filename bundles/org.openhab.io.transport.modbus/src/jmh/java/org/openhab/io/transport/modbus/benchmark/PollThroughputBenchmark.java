@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.test.IntegrationTestSupport.NonOSGIModbusManager;
+import org.openhab.io.transport.modbus.test.ModbusSlaveSimulator;
+import org.openhab.io.transport.modbus.test.ModbusSlaveSimulator.Transport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the throughput of one-time polls through the {@link NonOSGIModbusManager}, from submitting the poll to
+ * the callback, against {@link ModbusSlaveSimulator} over Modbus/TCP and Modbus/UDP
+ *
+ * RTU over a pseudo terminal is not covered, since it depends on the serial setup of the host.
+ *
+ * @author agent - Initial contribution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class PollThroughputBenchmark {
+
+    @Param({ "TCP", "UDP" })
+    public String transport;
+
+    @Param({ "0", "5" })
+    public long latencyMillis;
+
+    @Param({ "1", "100" })
+    public int registerCount;
+
+    private ModbusSlaveSimulator simulator;
+    private ModbusSlaveEndpoint endpoint;
+    private NonOSGIModbusManager manager;
+    private BasicModbusReadRequestBlueprint request;
+
+    @Setup
+    public void setup() throws Exception {
+        simulator = new ModbusSlaveSimulator(Transport.valueOf(transport)).start();
+        simulator.setLatencyMillis(latencyMillis);
+        endpoint = simulator.getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setInterTransactionDelayMillis(0);
+        configuration.setInterConnectDelayMillis(0);
+        manager = new NonOSGIModbusManager();
+        manager.setEndpointPoolConfiguration(endpoint, configuration);
+        request = new BasicModbusReadRequestBlueprint(1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0,
+                registerCount, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+        simulator.close();
+    }
+
+    @Benchmark
+    public void poll() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        manager.submitOneTimePoll(new BasicPollTaskImpl(endpoint, request, new ModbusReadCallback() {
+
+            @Override
+            public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                done.countDown();
+            }
+
+            @Override
+            public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                throw new IllegalStateException(error);
+            }
+        }));
+        if (!done.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Poll timed out");
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of the operations of a single endpoint, executed in order of priority
+ *
+ * Operations are executed by the threads calling {@link #drain()}, at most {@link #getMaxActive()} at a time. Writes
+ * are executed before one-time polls, and one-time polls before regular polls. Within the same priority, operations
+ * are executed in submission order.
+ *
+ * A regular poll is queued only once: submitting it again while it is still waiting is ignored. A regular poll which
+ * is still waiting when its deadline (usually the next poll) has passed is skipped.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusEndpointScheduler {
+
+    /**
+     * Priority classes of operations, highest priority first
+     */
+    public enum Priority {
+        WRITE,
+        ONE_TIME_POLL,
+        REGULAR_POLL
+    }
+
+    private static class ScheduledOperation implements Comparable<ScheduledOperation> {
+        private final Object task;
+        private final Priority priority;
+        private final long sequence;
+        private final long submitMillis;
+        private final long deadlineMillis;
+        private final Runnable operation;
+
+        private ScheduledOperation(Object task, Priority priority, long sequence, long submitMillis,
+                long deadlineMillis, Runnable operation) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submitMillis = submitMillis;
+            this.deadlineMillis = deadlineMillis;
+            this.operation = operation;
+        }
+
+        @Override
+        public int compareTo(ScheduledOperation other) {
+            int result = priority.compareTo(other.priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Counters of a priority class
+     */
+    private static class Statistics {
+        private final AtomicLong executed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusEndpointScheduler.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final PriorityBlockingQueue<ScheduledOperation> queue = new PriorityBlockingQueue<>();
+    private final Set<Object> queuedRegularPolls = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Statistics[] statistics = new Statistics[Priority.values().length];
+    private volatile int maxActive;
+
+    /**
+     * @param endpoint endpoint of the operations, used for logging
+     * @param maxActive maximum number of operations executed at the same time
+     */
+    public ModbusEndpointScheduler(ModbusSlaveEndpoint endpoint, int maxActive) {
+        this.endpoint = endpoint;
+        this.maxActive = maxActive;
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new Statistics();
+        }
+    }
+
+    /**
+     * Queue an operation. The operation is executed by the next call to {@link #drain()}.
+     *
+     * @param task task of the operation, used for removing queued regular polls
+     * @param priority priority of the operation
+     * @param deadlineMillis time after which a waiting regular poll is skipped, ignored with other priorities
+     * @param operation operation to execute
+     * @return whether the operation was queued. Regular polls are not queued when they are already waiting.
+     */
+    public boolean submit(Object task, Priority priority, long deadlineMillis, Runnable operation) {
+        if (priority == Priority.REGULAR_POLL && !queuedRegularPolls.add(task)) {
+            statistics[priority.ordinal()].skipped.incrementAndGet();
+            logger.debug("Regular poll {} of endpoint {} is still waiting, not queuing it again", task, endpoint);
+            return false;
+        }
+        queue.add(new ScheduledOperation(task, priority, sequence.getAndIncrement(), System.currentTimeMillis(),
+                priority == Priority.REGULAR_POLL ? deadlineMillis : Long.MAX_VALUE, operation));
+        return true;
+    }
+
+    /**
+     * Execute queued operations in the calling thread, unless the maximum number of operations are active already
+     */
+    public void drain() {
+        while (tryAcquire()) {
+            try {
+                ScheduledOperation operation;
+                while ((operation = queue.poll()) != null) {
+                    execute(operation);
+                }
+            } finally {
+                active.decrementAndGet();
+            }
+            // Another thread might have queued an operation after we polled the last one, but before it could
+            // acquire the slot we were still holding
+            if (queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove the waiting operations of a task
+     *
+     * @param task task of the operations
+     * @return whether any operation was removed
+     */
+    public boolean remove(Object task) {
+        queuedRegularPolls.remove(task);
+        return queue.removeIf(operation -> operation.task.equals(task));
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public void setMaxActive(int maxActive) {
+        this.maxActive = maxActive;
+    }
+
+    /**
+     * @return number of operations currently executed
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * @return number of waiting operations
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @param priority priority class
+     * @return number of waiting operations of the given priority
+     */
+    public int getQueueSize(Priority priority) {
+        return (int) queue.stream().filter(operation -> operation.priority == priority).count();
+    }
+
+    /**
+     * @param priority priority class
+     * @return number of executed operations of the given priority
+     */
+    public long getExecutedCount(Priority priority) {
+        return statistics[priority.ordinal()].executed.get();
+    }
+
+    /**
+     * @param priority priority class
+     * @return number of operations of the given priority skipped as duplicate or stale
+     */
+    public long getSkippedCount(Priority priority) {
+        return statistics[priority.ordinal()].skipped.get();
+    }
+
+    /**
+     * @param priority priority class
+     * @return average time the executed operations of the given priority waited in the queue, in milliseconds
+     */
+    public long getAverageWaitMillis(Priority priority) {
+        Statistics stats = statistics[priority.ordinal()];
+        long executed = stats.executed.get();
+        return executed == 0 ? 0 : stats.totalWaitMillis.get() / executed;
+    }
+
+    /**
+     * @param priority priority class
+     * @return longest time an executed operation of the given priority waited in the queue, in milliseconds
+     */
+    public long getMaxWaitMillis(Priority priority) {
+        return statistics[priority.ordinal()].maxWaitMillis.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxActive) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void execute(ScheduledOperation operation) {
+        if (operation.priority == Priority.REGULAR_POLL) {
+            queuedRegularPolls.remove(operation.task);
+        }
+        Statistics stats = statistics[operation.priority.ordinal()];
+        long now = System.currentTimeMillis();
+        if (now > operation.deadlineMillis) {
+            stats.skipped.incrementAndGet();
+            logger.debug("Skipping stale regular poll {} of endpoint {}, deadline passed {} ms ago", operation.task,
+                    endpoint, now - operation.deadlineMillis);
+            return;
+        }
+        long waitMillis = now - operation.submitMillis;
+        stats.executed.incrementAndGet();
+        stats.totalWaitMillis.addAndGet(waitMillis);
+        stats.maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        try {
+            operation.operation.run();
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error executing operation of task {} with endpoint {}", operation.task, endpoint,
+                    e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ModbusEndpointScheduler(endpoint=").append(endpoint)
+                .append(", active=").append(getActiveCount()).append('/').append(maxActive);
+        for (Priority priority : Priority.values()) {
+            builder.append(", ").append(priority).append("={queued=").append(getQueueSize(priority))
+                    .append(", executed=").append(getExecutedCount(priority)).append(", skipped=")
+                    .append(getSkippedCount(priority)).append(", avgWait=").append(getAverageWaitMillis(priority))
+                    .append(" ms, maxWait=").append(getMaxWaitMillis(priority)).append(" ms}");
+        }
+        return builder.append(')').toString();
+    }
+
+}
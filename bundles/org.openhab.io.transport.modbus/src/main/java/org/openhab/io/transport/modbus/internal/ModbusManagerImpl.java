@@ -14,16 +14,24 @@ package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.IIOException;
@@ -40,6 +48,7 @@ import org.openhab.io.transport.modbus.ModbusConnectionException;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusUnexpectedTransactionIdException;
@@ -54,6 +63,7 @@ import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointScheduler.Priority;
 import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -249,6 +259,151 @@ public class ModbusManagerImpl implements ModbusManager {
     private static final long WARN_QUEUE_SIZE = 500;
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
+    /**
+     * Configuration parameter enabling coalescing of regular polls, see {@link ModbusPollPlanner}
+     */
+    static final String CONFIG_POLL_COALESCING = "pollCoalescing";
+
+    /**
+     * Configuration parameter for the maximum gap (in registers or bits) between coalesced polls
+     */
+    static final String CONFIG_POLL_COALESCING_MAX_GAP = "pollCoalescingMaxGap";
+
+    /**
+     * Regular poll tasks of the same endpoint, slave, function code and poll period, executed together with requests
+     * planned by {@link ModbusPollPlanner}
+     */
+    private static class PollGroup {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final ModbusReadFunctionCode functionCode;
+        private final long pollPeriodMillis;
+
+        private final Set<PollTask> tasks = new LinkedHashSet<>();
+        private @Nullable List<PollTask> plan;
+        private @Nullable ScheduledFuture<?> future;
+
+        private PollGroup(PollTask task, long pollPeriodMillis) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        private boolean accepts(PollTask task, long pollPeriodMillis) {
+            return endpoint.equals(task.getEndpoint()) && unitId == task.getRequest().getUnitID()
+                    && functionCode == task.getRequest().getFunctionCode() && this.pollPeriodMillis == pollPeriodMillis;
+        }
+
+        private synchronized void add(PollTask task) {
+            tasks.add(task);
+            plan = null;
+        }
+
+        /**
+         * @return whether the group is empty after removing the task
+         */
+        private synchronized boolean remove(PollTask task) {
+            tasks.remove(task);
+            plan = null;
+            return tasks.isEmpty();
+        }
+
+        private synchronized boolean isEmpty() {
+            return tasks.isEmpty();
+        }
+
+        /**
+         * @return planned tasks, or empty list if not planned since the last change
+         */
+        private synchronized List<PollTask> getCurrentPlan() {
+            List<PollTask> plan = this.plan;
+            return plan == null ? Collections.emptyList() : plan;
+        }
+
+        private synchronized List<PollTask> getPlan(ModbusPollPlanner planner) {
+            List<PollTask> plan = this.plan;
+            if (plan == null) {
+                this.plan = plan = Collections.unmodifiableList(planner.plan(tasks));
+            }
+            return plan;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PollGroup(endpoint=%s, unitId=%d, functionCode=%s, period=%d ms, tasks=%d)",
+                    endpoint, unitId, functionCode, pollPeriodMillis, tasks.size());
+        }
+    }
+
+    /**
+     * Future of a one-off operation, done once the operation has been executed by the endpoint scheduler
+     */
+    private static class OperationFuture implements ScheduledFuture<Object> {
+        private final CompletableFuture<Object> completion = new CompletableFuture<>();
+        private volatile @Nullable ScheduledFuture<?> scheduled;
+
+        /**
+         * Wrap the operation so that it completes this future, and is skipped if this future has been cancelled
+         */
+        private Runnable wrap(Runnable operation) {
+            return () -> {
+                if (completion.isDone()) {
+                    return;
+                }
+                try {
+                    operation.run();
+                    completion.complete(null);
+                } catch (RuntimeException e) {
+                    completion.completeExceptionally(e);
+                    throw e;
+                }
+            };
+        }
+
+        @Override
+        public long getDelay(@Nullable TimeUnit unit) {
+            ScheduledFuture<?> scheduled = this.scheduled;
+            return scheduled == null || unit == null ? 0 : scheduled.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(@Nullable Delayed other) {
+            return other == null ? 1
+                    : Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            ScheduledFuture<?> scheduled = this.scheduled;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            return completion.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return completion.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return completion.isDone();
+        }
+
+        @Override
+        public @Nullable Object get() throws InterruptedException, ExecutionException {
+            return completion.get();
+        }
+
+        @Override
+        public @Nullable Object get(long timeout, @Nullable TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return completion.get(timeout, unit);
+        }
+    }
+
     private final PollOperation pollOperation = new PollOperation();
     private final WriteOperation writeOperation = new WriteOperation();
 
@@ -268,6 +423,21 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Groups of coalesced regular polls, by poll task. Only used when poll coalescing is enabled.
+     */
+    private final Map<PollTask, PollGroup> coalescedPollTasks = new ConcurrentHashMap<>();
+    private final Set<PollGroup> pollGroups = new CopyOnWriteArraySet<>();
+    @Nullable
+    private volatile ModbusPollPlanner pollPlanner;
+    /**
+     * Pipelined connections of TCP endpoints configured with more than one transaction in flight
+     */
+    private final Map<ModbusTCPSlaveEndpoint, ModbusTCPPipeline> pipelines = new ConcurrentHashMap<>();
+    /**
+     * Priority queues of the operations, by endpoint
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusEndpointScheduler> endpointSchedulers = new ConcurrentHashMap<>();
     /**
      * Executor for requests
      */
@@ -467,8 +637,12 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Verify that the task is still registered. Requests planned by {@link ModbusPollPlanner} are registered as long
+     * as all the tasks merged into them are.
+     */
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
-        if (!this.scheduledPollTasks.containsKey(task)) {
+        if (!ModbusPollPlanner.getMergedTasks(task).stream().allMatch(this.scheduledPollTasks::containsKey)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
             throw new PollTaskUnregistered(msg);
@@ -518,6 +692,11 @@ public class ModbusManagerImpl implements ModbusManager {
 
         Optional<ModbusSlaveConnection> connection = Optional.empty();
         try {
+            if (getPipeline(endpoint) != null) {
+                logger.trace("Starting new pipelined operation with task {} [operation ID {}]", task, operationId);
+                executePipelinedOperation(timer, task, oneOffTask, retryDelay);
+                return;
+            }
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
                     operationId);
             connection = getConnection(timer, oneOffTask, task);
@@ -690,17 +869,162 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Queue operation to the priority queue of the endpoint, and execute queued operations in the calling thread
+     * unless the endpoint is busy already
+     *
+     * @param task task of the operation
+     * @param priority priority of the operation
+     * @param deadlineMillis time after which a waiting regular poll is skipped
+     * @param operation operation to execute
+     */
+    private void submitToEndpoint(TaskWithEndpoint<?, ?> task, Priority priority, long deadlineMillis,
+            Runnable operation) {
+        ModbusEndpointScheduler endpointScheduler = endpointSchedulers.computeIfAbsent(task.getEndpoint(),
+                endpoint -> new ModbusEndpointScheduler(endpoint, getMaxActiveOperations(endpoint)));
+        endpointScheduler.submit(task, priority, deadlineMillis, operation);
+        endpointScheduler.drain();
+    }
+
+    /**
+     * Get the number of operations executed at the same time with the endpoint. Only pipelined TCP endpoints execute
+     * more than one operation at a time.
+     */
+    private int getMaxActiveOperations(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint) || connectionFactory == null) {
+            return 1;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        return configuration == null ? 1 : Math.max(1, configuration.getMaxInFlight());
+    }
+
+    /**
+     * Get the priority queue of the endpoint, for monitoring queue depth and latency
+     *
+     * @param endpoint endpoint to query
+     * @return scheduler of the endpoint, or null if no operation has been executed with the endpoint
+     */
+    public @Nullable ModbusEndpointScheduler getEndpointScheduler(ModbusSlaveEndpoint endpoint) {
+        return endpointSchedulers.get(endpoint);
+    }
+
+    /**
+     * Get the pipelined connection of the endpoint
+     *
+     * @param endpoint endpoint of the operation
+     * @return pipelined connection, or null if the endpoint is not configured for pipelining
+     */
+    private @Nullable ModbusTCPPipeline getPipeline(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint) || connectionFactory == null) {
+            return null;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        if (configuration == null || configuration.getMaxInFlight() <= 1) {
+            return null;
+        }
+        return pipelines.computeIfAbsent((ModbusTCPSlaveEndpoint) endpoint,
+                tcpEndpoint -> new ModbusTCPPipeline(tcpEndpoint, configuration));
+    }
+
+    private void closePipeline(ModbusSlaveEndpoint endpoint) {
+        ModbusTCPPipeline pipeline = pipelines.remove(endpoint);
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    /**
+     * Execute operation with a pipelined connection, using the same retry mechanism as
+     * {@link #executeOperation(TaskWithEndpoint, boolean, ModbusOperation)}.
+     *
+     * Other operations may be executed on the same connection while waiting for the response. The inter transaction
+     * delay is only respected between the retries of this operation. The pipelined connection is looked up on every
+     * try, since it is replaced when the configuration of the endpoint changes.
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executePipelinedOperation(
+            AggregateStopWatch timer, T task, boolean oneOffTask, long retryDelay)
+            throws PollTaskUnregistered, InterruptedException {
+        String operationId = timer.operationId;
+        ModbusSlaveEndpoint endpoint = task.getEndpoint();
+        R request = task.getRequest();
+        @Nullable
+        C callback = task.getCallback();
+        int maxTries = task.getMaxTries();
+        @Nullable
+        Exception lastError = null;
+        @Nullable
+        Long lastTryMillis = null;
+        for (int tryIndex = 1; tryIndex <= maxTries; tryIndex++) {
+            if (!oneOffTask && task instanceof PollTask) {
+                verifyTaskIsRegistered((PollTask) task);
+            }
+            ModbusSlaveConnectionFactoryImpl.waitAtleast(lastTryMillis, retryDelay);
+            ModbusTCPPipeline pipeline = getPipeline(endpoint);
+            if (pipeline == null) {
+                // the endpoint is not configured for pipelining anymore
+                lastError = new ModbusSlaveIOExceptionImpl(
+                        new IOException("Pipelining of endpoint " + endpoint + " has been disabled"));
+                logger.debug("Aborting pipelined request ({}), pipelining has been disabled [operation ID {}]",
+                        request, operationId);
+                break;
+            }
+            ModbusRequest libRequest = request instanceof ModbusReadRequestBlueprint
+                    ? ModbusLibraryWrapper.createRequest((ModbusReadRequestBlueprint) request)
+                    : ModbusLibraryWrapper.createRequest((ModbusWriteRequestBlueprint) request);
+            ModbusResponse response;
+            timer.transaction.resume();
+            try {
+                response = pipeline.execute(libRequest);
+            } catch (ModbusIOException e) {
+                lastError = new ModbusSlaveIOExceptionImpl(e);
+                logger.warn(
+                        "Try {} out of {} failed when executing pipelined request ({}). Error was I/O error: {} [operation ID {}]",
+                        tryIndex, maxTries, request, e.getMessage(), operationId);
+                continue;
+            } catch (ModbusSlaveException e) {
+                lastError = new ModbusSlaveErrorResponseExceptionImpl(e);
+                logger.warn(
+                        "Try {} out of {} failed when executing pipelined request ({}). Error was: {} {} [operation ID {}]",
+                        tryIndex, maxTries, request, e.getClass().getName(), e.getMessage(), operationId);
+                continue;
+            } finally {
+                timer.transaction.suspend();
+                lastTryMillis = System.currentTimeMillis();
+            }
+            logger.trace("Response for pipelined request (FC={}, transaction ID={}): {} [operation ID {}]",
+                    response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(), operationId);
+            if (callback != null) {
+                if (request instanceof ModbusReadRequestBlueprint) {
+                    timer.callback.timeRunnable(() -> ModbusLibraryWrapper.invokeCallbackWithResponse(
+                            (ModbusReadRequestBlueprint) request, (ModbusReadCallback) callback, response));
+                } else {
+                    timer.callback.timeRunnable(() -> invokeCallbackWithResponse((ModbusWriteRequestBlueprint) request,
+                            (ModbusWriteCallback) callback, new ModbusResponseImpl(response)));
+                }
+            }
+            return;
+        }
+        Exception exception = lastError;
+        if (exception != null && callback != null) {
+            timer.callback.timeRunnable(() -> invokeCallbackWithError(request, callback, exception));
+        }
+    }
+
     @Override
     public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
         ScheduledExecutorService executor = scheduledThreadPoolExecutor;
         Objects.requireNonNull(executor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
+        OperationFuture future = new OperationFuture();
+        future.scheduled = executor.schedule(() -> {
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
+            submitToEndpoint(task, Priority.ONE_TIME_POLL, Long.MAX_VALUE,
+                    future.wrap(() -> executeOperation(task, true, pollOperation)));
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
@@ -716,11 +1040,17 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
+            ModbusPollPlanner planner = pollPlanner;
+            if (planner != null) {
+                registerCoalescedPoll(executor, planner, task, pollPeriodMillis, initialDelayMillis);
+                return;
+            }
             ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
                 long started = System.currentTimeMillis();
                 logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
                         started);
-                executeOperation(task, false, pollOperation);
+                submitToEndpoint(task, Priority.REGULAR_POLL, started + pollPeriodMillis,
+                        () -> executeOperation(task, false, pollOperation));
                 long finished = System.currentTimeMillis();
                 logger.debug(
                         "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
@@ -733,6 +1063,97 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Register regular poll task to the group of tasks with same endpoint, slave, function code and period. The
+     * group is polled with the requests planned by {@link ModbusPollPlanner}.
+     */
+    private void registerCoalescedPoll(ScheduledExecutorService executor, ModbusPollPlanner planner, PollTask task,
+            long pollPeriodMillis, long initialDelayMillis) {
+        PollGroup group = pollGroups.stream().filter(g -> g.accepts(task, pollPeriodMillis)).findFirst()
+                .orElse(null);
+        if (group == null) {
+            PollGroup newGroup = group = new PollGroup(task, pollPeriodMillis);
+            newGroup.future = executor.scheduleWithFixedDelay(() -> {
+                long started = System.currentTimeMillis();
+                List<PollTask> plan = newGroup.getPlan(planner);
+                logger.debug("Executing scheduled ({}ms) coalesced poll group {} with {} request(s)", pollPeriodMillis,
+                        newGroup, plan.size());
+                for (PollTask plannedTask : plan) {
+                    submitPlannedPoll(plannedTask, started + pollPeriodMillis);
+                }
+                logger.debug("Execution of scheduled ({}ms) coalesced poll group {} took {} millis", pollPeriodMillis,
+                        newGroup, System.currentTimeMillis() - started);
+            }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+            pollGroups.add(newGroup);
+        }
+        group.add(task);
+        coalescedPollTasks.put(task, group);
+        ScheduledFuture<?> future = group.future;
+        if (future != null) {
+            scheduledPollTasks.put(task, future);
+        }
+        logger.trace("Registered poll task {} to coalesced poll group {}", task, group);
+    }
+
+    /**
+     * Submit request planned by {@link ModbusPollPlanner}. The request is aborted once one of the tasks merged into it
+     * is unregistered.
+     */
+    private void submitPlannedPoll(PollTask plannedTask, long deadlineMillis) {
+        submitToEndpoint(plannedTask, Priority.REGULAR_POLL, deadlineMillis,
+                () -> executeOperation(plannedTask, false, pollOperation));
+    }
+
+    /**
+     * Remove the waiting requests the unregistered task was merged into, and queue the requests of the re-planned
+     * group for the other tasks of the removed requests, so that they are still polled in this poll period
+     */
+    private void replanCoalescedPoll(ScheduledExecutorService executor, PollGroup group, PollTask task,
+            @Nullable ModbusEndpointScheduler endpointScheduler) {
+        List<PollTask> previousPlan = group.getCurrentPlan();
+        boolean empty = group.remove(task);
+        ModbusPollPlanner planner = pollPlanner;
+        if (endpointScheduler == null) {
+            return;
+        }
+        Set<PollTask> unpolled = new HashSet<>();
+        for (PollTask plannedTask : previousPlan) {
+            List<PollTask> merged = ModbusPollPlanner.getMergedTasks(plannedTask);
+            if (merged.contains(task) && endpointScheduler.remove(plannedTask)) {
+                unpolled.addAll(merged);
+            }
+        }
+        unpolled.remove(task);
+        if (empty || unpolled.isEmpty() || planner == null) {
+            return;
+        }
+        long deadlineMillis = System.currentTimeMillis() + group.pollPeriodMillis;
+        for (PollTask plannedTask : group.getPlan(planner)) {
+            if (ModbusPollPlanner.getMergedTasks(plannedTask).stream().anyMatch(unpolled::contains)) {
+                // not draining while holding the lock of the manager
+                executor.execute(() -> submitPlannedPoll(plannedTask, deadlineMillis));
+            }
+        }
+    }
+
+    /**
+     * Drop the priority queue and the pipelined connection of the endpoint once no poll of the endpoint is registered
+     * and no operation is waiting. An operation submitted meanwhile is still executed by the submitting thread, with a
+     * new pipelined connection if necessary.
+     */
+    private void removeIdleEndpointScheduler(ModbusSlaveEndpoint endpoint) {
+        if (scheduledPollTasks.keySet().stream().anyMatch(task -> task.getEndpoint().equals(endpoint))) {
+            return;
+        }
+        ModbusEndpointScheduler endpointScheduler = endpointSchedulers.get(endpoint);
+        if (endpointScheduler == null) {
+            closePipeline(endpoint);
+        } else if (endpointScheduler.getQueueSize() == 0 && endpointScheduler.getActiveCount() == 0) {
+            endpointSchedulers.remove(endpoint, endpointScheduler);
+            closePipeline(endpoint);
+        }
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public boolean unregisterRegularPoll(PollTask task) {
@@ -750,13 +1171,31 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.warn("Caller tried to unregister nonexisting poll task {}", task);
                 return false;
             }
-            logger.info("Unregistering regular poll task {} (interrupting if necessary)", task);
+            ModbusEndpointScheduler endpointScheduler = endpointSchedulers.get(task.getEndpoint());
+            if (endpointScheduler != null) {
+                endpointScheduler.remove(task);
+            }
+            PollGroup group = coalescedPollTasks.remove(task);
+            if (group != null) {
+                replanCoalescedPoll(executor, group, task, endpointScheduler);
+                if (!group.isEmpty()) {
+                    // other tasks of the group keep polling the endpoint
+                    logger.info("Removed regular poll task {} from coalesced poll group {}", task, group);
+                    return true;
+                }
+                pollGroups.remove(group);
+            }
+            logger.info("Unregistering regular poll task {}", task);
 
             // Make sure connections to this endpoint are closed when they are returned to pool (which
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            // Not interrupting, since the polling thread might be executing operations of other tasks with the same
+            // endpoint. Ongoing operation of this task, or of a coalesced request including it, is aborted on next
+            // try as the task is no longer registered.
+            future.cancel(false);
+            removeIdleEndpointScheduler(task.getEndpoint());
 
             logger.info("Poll task {} canceled", task);
 
@@ -781,11 +1220,13 @@ public class ModbusManagerImpl implements ModbusManager {
         Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
+        OperationFuture future = new OperationFuture();
+        future.scheduled = scheduledThreadPoolExecutor.schedule(() -> {
             long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
             logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
                     millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
+            submitToEndpoint(task, Priority.WRITE, Long.MAX_VALUE,
+                    future.wrap(() -> executeOperation(task, true, writeOperation)));
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
@@ -795,6 +1236,12 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // pipelined connection is recreated with the new configuration on next use
+        closePipeline(endpoint);
+        ModbusEndpointScheduler endpointScheduler = endpointSchedulers.get(endpoint);
+        if (endpointScheduler != null) {
+            endpointScheduler.setMaxActive(getMaxActiveOperations(endpoint));
+        }
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -825,6 +1272,21 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            if (Boolean.parseBoolean(String.valueOf(configProperties.get(CONFIG_POLL_COALESCING)))) {
+                int maxGap = 0;
+                Object maxGapConfig = configProperties.get(CONFIG_POLL_COALESCING_MAX_GAP);
+                if (maxGapConfig != null) {
+                    try {
+                        maxGap = Integer.parseInt(maxGapConfig.toString());
+                    } catch (NumberFormatException e) {
+                        logger.warn("Invalid {} '{}', using {}", CONFIG_POLL_COALESCING_MAX_GAP, maxGapConfig, maxGap);
+                    }
+                }
+                logger.debug("Coalescing regular polls with max gap of {}", maxGap);
+                pollPlanner = new ModbusPollPlanner(maxGap);
+            } else {
+                pollPlanner = null;
+            }
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -855,6 +1317,9 @@ public class ModbusManagerImpl implements ModbusManager {
                 connectionPool.close();
                 this.connectionPool = connectionPool = null;
             }
+            pipelines.values().forEach(ModbusTCPPipeline::close);
+            pipelines.clear();
+            endpointSchedulers.clear();
 
             if (monitorFuture != null) {
                 monitorFuture.cancel(true);
@@ -899,6 +1364,15 @@ public class ModbusManagerImpl implements ModbusManager {
                 }
             }
 
+            this.endpointSchedulers.forEach((endpoint, endpointScheduler) -> {
+                pollMonitorLogger.trace("POLL MONITOR: endpoint queue {}", endpointScheduler);
+                if (endpointScheduler.getQueueSize() >= WARN_QUEUE_SIZE) {
+                    pollMonitorLogger.warn(
+                            "Many ({}) operations queued for endpoint {}! This might be sign of bad design or bug in the binding code.",
+                            endpointScheduler.getQueueSize(), endpoint);
+                }
+            });
+
             pollMonitorLogger.trace("</POLL MONITOR>");
         }
     }
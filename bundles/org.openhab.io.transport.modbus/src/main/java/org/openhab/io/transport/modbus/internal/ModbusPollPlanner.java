@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges poll tasks reading nearby data of the same slave into as few requests as possible
+ *
+ * Tasks are sorted by their start reference and merged greedily as long as the gap to the previous task does not
+ * exceed the configured maximum and the merged request stays within the protocol limits ({@link #MAX_REGISTERS}
+ * registers or {@link #MAX_BITS} coils/discrete inputs). The data received for a merged request is sliced and passed
+ * to the callbacks of the original tasks, together with their original requests.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPollPlanner {
+
+    /**
+     * Maximum number of registers in a single read request
+     */
+    public static final int MAX_REGISTERS = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read request
+     */
+    public static final int MAX_BITS = 2000;
+
+    private final int maxGap;
+
+    /**
+     * @param maxGap maximum number of unused registers or bits between two tasks which are still merged
+     */
+    public ModbusPollPlanner(int maxGap) {
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Plan requests for the given tasks
+     *
+     * All tasks must share the endpoint, slave id and function code.
+     *
+     * @param tasks tasks to plan
+     * @return tasks to execute. Tasks which could not be merged with any other task are returned as is.
+     */
+    public List<PollTask> plan(Collection<PollTask> tasks) {
+        List<PollTask> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingInt(task -> task.getRequest().getReference()));
+
+        List<PollTask> planned = new ArrayList<>();
+        List<PollTask> merged = new ArrayList<>();
+        int start = 0;
+        int end = 0;
+        for (PollTask task : sorted) {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            int taskStart = request.getReference();
+            int taskEnd = taskStart + request.getDataLength();
+            if (!merged.isEmpty() && taskStart - end <= maxGap
+                    && Math.max(end, taskEnd) - start <= getMaxLength(request.getFunctionCode())) {
+                merged.add(task);
+                end = Math.max(end, taskEnd);
+                continue;
+            }
+            addMerged(planned, merged, start, end);
+            merged = new ArrayList<>();
+            merged.add(task);
+            start = taskStart;
+            end = taskEnd;
+        }
+        addMerged(planned, merged, start, end);
+        return planned;
+    }
+
+    /**
+     * Get maximum number of registers or bits to read with a single request of the given function code
+     *
+     * @param functionCode function code of the request
+     * @return maximum data length
+     */
+    public static int getMaxLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS;
+            default:
+                return MAX_REGISTERS;
+        }
+    }
+
+    /**
+     * Get the original tasks of a planned task
+     *
+     * @param planned task returned by {@link #plan(Collection)}
+     * @return tasks merged into the planned task, or the planned task itself if it was not merged
+     */
+    public static List<PollTask> getMergedTasks(PollTask planned) {
+        Object callback = planned.getCallback();
+        return callback instanceof MergedReadCallback ? ((MergedReadCallback) callback).tasks
+                : Collections.singletonList(planned);
+    }
+
+    private static void addMerged(List<PollTask> planned, List<PollTask> merged, int start, int end) {
+        if (merged.isEmpty()) {
+            return;
+        }
+        PollTask first = merged.get(0);
+        if (merged.size() == 1) {
+            planned.add(first);
+            return;
+        }
+        ModbusReadRequestBlueprint request = first.getRequest();
+        int maxTries = merged.stream().mapToInt(PollTask::getMaxTries).max().orElse(request.getMaxTries());
+        planned.add(new BasicPollTaskImpl(first.getEndpoint(), new BasicModbusReadRequestBlueprint(
+                request.getUnitID(), request.getFunctionCode(), start, end - start, maxTries),
+                new MergedReadCallback(start, merged)));
+    }
+
+    /**
+     * Callback of a merged request, passing slices of the data to the callbacks of the original tasks
+     */
+    private static class MergedReadCallback implements ModbusReadCallback {
+
+        private final Logger logger = LoggerFactory.getLogger(MergedReadCallback.class);
+
+        private final int start;
+        private final List<PollTask> tasks;
+
+        private MergedReadCallback(int start, List<PollTask> tasks) {
+            this.start = start;
+            this.tasks = Collections.unmodifiableList(tasks);
+        }
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback callback = task.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint original = task.getRequest();
+                int offset = original.getReference() - start;
+                ModbusRegister[] slice = new ModbusRegister[sliceLength(original, offset, registers.size())];
+                for (int i = 0; i < slice.length; i++) {
+                    slice[i] = registers.getRegister(offset + i);
+                }
+                try {
+                    callback.onRegisters(original, new BasicModbusRegisterArray(slice));
+                } catch (RuntimeException e) {
+                    logger.error("Unhandled exception in callback {} for request {}", callback, original, e);
+                }
+            }
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback callback = task.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                ModbusReadRequestBlueprint original = task.getRequest();
+                int offset = original.getReference() - start;
+                BasicBitArray slice = new BasicBitArray(sliceLength(original, offset, bits.size()));
+                for (int i = 0; i < slice.size(); i++) {
+                    slice.setBit(i, bits.getBit(offset + i));
+                }
+                try {
+                    callback.onBits(original, slice);
+                } catch (RuntimeException e) {
+                    logger.error("Unhandled exception in callback {} for request {}", callback, original, e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            for (PollTask task : tasks) {
+                ModbusReadCallback callback = task.getCallback();
+                if (callback == null) {
+                    continue;
+                }
+                try {
+                    callback.onError(task.getRequest(), error);
+                } catch (RuntimeException e) {
+                    logger.error("Unhandled exception in callback {} for request {}", callback, task.getRequest(),
+                            e);
+                }
+            }
+        }
+
+        /**
+         * Slave might respond with less data than requested, in which case the slices at the end are cut short
+         */
+        private static int sliceLength(ModbusReadRequestBlueprint original, int offset, int available) {
+            return Math.max(0, Math.min(original.getDataLength(), available - offset));
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder("MergedReadCallback(start=").append(start).append(", tasks=").append(tasks.size())
+                    .append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.NamedThreadFactory;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+
+/**
+ * Modbus/TCP connection with several outstanding transactions
+ *
+ * Requests are written to the socket as soon as one of the <code>maxInFlight</code> slots is free, without waiting
+ * for the response of the previous request. A reader thread reads the responses and hands them to the waiting
+ * requests by transaction id. This is only suitable for slaves and gateways which accept several outstanding
+ * transactions on a single connection.
+ *
+ * The connection is established lazily by the first request, other requests wait for it at most the response timeout.
+ * Like pooled connections, it is re-established after <code>reconnectAfterMillis</code> once no other transaction is
+ * outstanding, and connection attempts are separated by <code>interConnectDelayMillis</code>. Any I/O error closes the
+ * connection and fails all outstanding requests. The next request reconnects.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusTCPPipeline implements AutoCloseable {
+
+    /**
+     * MBAP header length up to and including the length field
+     */
+    private static final int HEADER_LENGTH = 6;
+
+    private static final ThreadFactory READER_THREAD_FACTORY = new NamedThreadFactory("modbus-pipeline", true);
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusTCPPipeline.class);
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final EndpointPoolConfiguration configuration;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    private final Map<Integer, CompletableFuture<ModbusResponse>> pending = new ConcurrentHashMap<>();
+    private int nextTransactionId = 1;
+
+    /**
+     * Current connection, completed once it is established. Guarded by this.
+     */
+    private @Nullable CompletableFuture<Connection> connection;
+    private @Nullable Long lastConnectMillis;
+    private volatile boolean closed;
+
+    private static class Connection {
+        private final Socket socket;
+        private final DataOutputStream output;
+        private final long connectedMillis;
+
+        private Connection(Socket socket, DataOutputStream output, long connectedMillis) {
+            this.socket = socket;
+            this.output = output;
+            this.connectedMillis = connectedMillis;
+        }
+    }
+
+    /**
+     * @param endpoint endpoint to connect to
+     * @param configuration configuration of the endpoint, providing the maximum number of outstanding transactions,
+     *            the timeouts and the reconnect settings
+     */
+    public ModbusTCPPipeline(ModbusTCPSlaveEndpoint endpoint, EndpointPoolConfiguration configuration) {
+        this.endpoint = endpoint;
+        this.configuration = configuration;
+        this.maxInFlight = configuration.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Execute the request and wait for its response
+     *
+     * @param request request to execute. The transaction id of the request is overwritten.
+     * @return response matching the transaction id of the request
+     * @throws ModbusIOException on I/O errors and timeouts
+     * @throws ModbusSlaveException when slave responded with exception response
+     * @throws InterruptedException when interrupted while waiting for a free slot, the connection or the response
+     */
+    public ModbusResponse execute(ModbusRequest request)
+            throws ModbusIOException, ModbusSlaveException, InterruptedException {
+        long responseTimeoutMillis = configuration.getResponseTimeoutMillis();
+        if (!inFlight.tryAcquire(responseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new ModbusIOException(
+                    String.format("All %d transactions to %s are outstanding", maxInFlight, endpoint));
+        }
+        int transactionId = -1;
+        try {
+            Connection connection = getConnection();
+            CompletableFuture<ModbusResponse> future = new CompletableFuture<>();
+            synchronized (this) {
+                if (!isCurrent(connection)) {
+                    throw new ModbusIOException(String.format("Connection to %s has been closed", endpoint));
+                }
+                transactionId = nextTransactionId;
+                nextTransactionId = nextTransactionId == 0xFFFF ? 1 : nextTransactionId + 1;
+                request.setTransactionID(transactionId);
+                pending.put(transactionId, future);
+                try {
+                    request.writeTo(connection.output);
+                    connection.output.flush();
+                } catch (IOException e) {
+                    disconnect(e);
+                    throw new ModbusIOException(String.format("Error writing request to %s: %s", endpoint,
+                            e.getMessage()));
+                }
+            }
+            logger.trace("Sent request with transaction id {} to {}, {} transaction(s) outstanding", transactionId,
+                    endpoint, pending.size());
+
+            ModbusResponse response;
+            try {
+                response = future.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new ModbusIOException(String.format("No response from %s for transaction id %d within %d ms",
+                        endpoint, transactionId, responseTimeoutMillis));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new ModbusIOException(String.format("Connection to %s failed: %s", endpoint,
+                        cause == null ? e.getMessage() : cause.getMessage()));
+            }
+            if (response instanceof ExceptionResponse) {
+                throw new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode());
+            }
+            return response;
+        } finally {
+            if (transactionId >= 0) {
+                pending.remove(transactionId);
+            }
+            inFlight.release();
+        }
+    }
+
+    /**
+     * @return number of transactions waiting for their response
+     */
+    public int getOutstandingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            disconnect(new IOException("Pipeline closed"));
+        }
+    }
+
+    /**
+     * Get the established connection, connecting if needed. Only the calling thread establishes a new connection,
+     * others wait for it at most the response timeout, so that a slow connect does not hold the monitor.
+     */
+    private Connection getConnection() throws ModbusIOException, InterruptedException {
+        CompletableFuture<Connection> future;
+        boolean connect = false;
+        synchronized (this) {
+            if (closed) {
+                throw new ModbusIOException(String.format("Pipeline to %s is closed", endpoint));
+            }
+            future = this.connection;
+            if (future != null && isExpired(future)) {
+                logger.trace("Connection to {} is older than {} ms, reconnecting", endpoint,
+                        configuration.getReconnectAfterMillis());
+                disconnect(new IOException("Reconnecting"));
+                future = null;
+            }
+            if (future == null) {
+                future = new CompletableFuture<>();
+                this.connection = future;
+                connect = true;
+            }
+        }
+        if (connect) {
+            connect(future);
+        }
+        try {
+            return future.get(configuration.getResponseTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ModbusIOException(String.format("Connection to %s not established within %d ms", endpoint,
+                    configuration.getResponseTimeoutMillis()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new ModbusIOException(String.format("Could not connect to %s: %s", endpoint,
+                    cause == null ? e.getMessage() : cause.getMessage()));
+        }
+    }
+
+    /**
+     * Whether the connection should be re-established before the next request. Only called while holding a slot, so
+     * the connection is idle if no other slot is taken.
+     */
+    private boolean isExpired(CompletableFuture<Connection> future) {
+        long reconnectAfterMillis = configuration.getReconnectAfterMillis();
+        if (reconnectAfterMillis < 0 || !future.isDone() || future.isCompletedExceptionally()
+                || inFlight.availablePermits() < maxInFlight - 1) {
+            return false;
+        }
+        return System.currentTimeMillis() - future.join().connectedMillis >= reconnectAfterMillis;
+    }
+
+    private synchronized boolean isCurrent(Connection connection) {
+        CompletableFuture<Connection> current = this.connection;
+        return current != null && current.isDone() && !current.isCompletedExceptionally()
+                && current.join() == connection;
+    }
+
+    private void connect(CompletableFuture<Connection> future) throws InterruptedException {
+        int maxTries = Math.max(1, configuration.getConnectMaxTries());
+        IOException error = null;
+        for (int tryIndex = 0; tryIndex < maxTries && !closed; tryIndex++) {
+            Long lastConnect;
+            synchronized (this) {
+                lastConnect = lastConnectMillis;
+            }
+            long delayMillis = Math.max(configuration.getInterConnectDelayMillis(),
+                    configuration.getInterTransactionDelayMillis());
+            ModbusSlaveConnectionFactoryImpl.waitAtleast(lastConnect, delayMillis);
+            Socket socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(endpoint.getAddress(), endpoint.getPort()),
+                        configuration.getConnectTimeoutMillis());
+                Connection connection = new Connection(socket,
+                        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())),
+                        System.currentTimeMillis());
+                InputStream input = socket.getInputStream();
+                synchronized (this) {
+                    lastConnectMillis = connection.connectedMillis;
+                    if (this.connection != future) {
+                        // closed meanwhile
+                        closeSocket(socket);
+                        future.completeExceptionally(new IOException("Pipeline closed"));
+                        return;
+                    }
+                    future.complete(connection);
+                }
+                READER_THREAD_FACTORY.newThread(() -> readResponses(connection, input)).start();
+                logger.debug("Connected pipeline to {} with at most {} outstanding transactions", endpoint,
+                        maxInFlight);
+                return;
+            } catch (IOException e) {
+                closeSocket(socket);
+                error = e;
+                synchronized (this) {
+                    lastConnectMillis = System.currentTimeMillis();
+                }
+                logger.debug("Connect try {}/{} to {} failed: {}", tryIndex + 1, maxTries, endpoint, e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (this.connection == future) {
+                this.connection = null;
+            }
+        }
+        future.completeExceptionally(error == null ? new IOException("Pipeline closed") : error);
+    }
+
+    /**
+     * Close the current connection and fail all outstanding requests. Must be called while holding the monitor.
+     */
+    private void disconnect(Exception cause) {
+        CompletableFuture<Connection> connection = this.connection;
+        this.connection = null;
+        if (connection != null && connection.isDone() && !connection.isCompletedExceptionally()) {
+            closeSocket(connection.join().socket);
+        }
+        List<CompletableFuture<ModbusResponse>> failed = new ArrayList<>(pending.values());
+        pending.clear();
+        failed.forEach(future -> future.completeExceptionally(cause));
+    }
+
+    private void closeSocket(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Error closing pipeline connection to {}: {}", endpoint, e.getMessage());
+        }
+    }
+
+    private void readResponses(Connection connection, InputStream stream) {
+        DataInputStream input = new DataInputStream(stream);
+        byte[] header = new byte[HEADER_LENGTH];
+        try {
+            while (!closed) {
+                input.readFully(header);
+                int transactionId = ((header[0] & 0xFF) << 8) | (header[1] & 0xFF);
+                int length = ((header[4] & 0xFF) << 8) | (header[5] & 0xFF);
+                if (length < 2) {
+                    throw new IOException(String.format("Invalid length %d in response header", length));
+                }
+                byte[] frame = new byte[HEADER_LENGTH + length];
+                System.arraycopy(header, 0, frame, 0, HEADER_LENGTH);
+                input.readFully(frame, HEADER_LENGTH, length);
+
+                ModbusResponse response = ModbusResponse.createModbusResponse(frame[HEADER_LENGTH + 1] & 0xFF);
+                response.readFrom(new DataInputStream(new ByteArrayInputStream(frame)));
+
+                CompletableFuture<ModbusResponse> future = pending.remove(transactionId);
+                if (future == null) {
+                    logger.debug("Ignoring response from {} with unexpected transaction id {}", endpoint,
+                            transactionId);
+                } else {
+                    future.complete(response);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (isCurrent(connection)) {
+                    if (!closed) {
+                        logger.debug("Pipeline connection to {} failed: {}", endpoint, e.getMessage());
+                    }
+                    disconnect(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointScheduler;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointScheduler.Priority;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusEndpointSchedulerTest {
+
+    private final ModbusEndpointScheduler scheduler = new ModbusEndpointScheduler(
+            new ModbusTCPSlaveEndpoint("127.0.0.1", 502), 1);
+    private final List<String> executed = new ArrayList<>();
+
+    private void submit(String task, Priority priority, long deadlineMillis) {
+        scheduler.submit(task, priority, deadlineMillis, () -> executed.add(task));
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        long deadline = System.currentTimeMillis() + 60000;
+        submit("poll1", Priority.REGULAR_POLL, deadline);
+        submit("oneTime1", Priority.ONE_TIME_POLL, 0);
+        submit("write1", Priority.WRITE, 0);
+        submit("poll2", Priority.REGULAR_POLL, deadline);
+        submit("write2", Priority.WRITE, 0);
+        assertThat(scheduler.getQueueSize(), is(equalTo(5)));
+        assertThat(scheduler.getQueueSize(Priority.WRITE), is(equalTo(2)));
+
+        scheduler.drain();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write1", "write2", "oneTime1", "poll1", "poll2"))));
+        assertThat(scheduler.getQueueSize(), is(equalTo(0)));
+        assertThat(scheduler.getExecutedCount(Priority.WRITE), is(equalTo(2L)));
+        assertThat(scheduler.getExecutedCount(Priority.ONE_TIME_POLL), is(equalTo(1L)));
+        assertThat(scheduler.getExecutedCount(Priority.REGULAR_POLL), is(equalTo(2L)));
+        assertThat(scheduler.getActiveCount(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testStaleRegularPollIsSkipped() {
+        submit("stale", Priority.REGULAR_POLL, System.currentTimeMillis() - 1);
+        submit("oneTime", Priority.ONE_TIME_POLL, System.currentTimeMillis() - 1);
+
+        scheduler.drain();
+
+        assertThat(executed, is(equalTo(Arrays.asList("oneTime"))));
+        assertThat(scheduler.getSkippedCount(Priority.REGULAR_POLL), is(equalTo(1L)));
+        assertThat(scheduler.getExecutedCount(Priority.REGULAR_POLL), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testWaitingRegularPollIsNotQueuedTwice() {
+        long deadline = System.currentTimeMillis() + 60000;
+        assertTrue(scheduler.submit("poll", Priority.REGULAR_POLL, deadline, () -> executed.add("poll")));
+        assertFalse(scheduler.submit("poll", Priority.REGULAR_POLL, deadline, () -> executed.add("poll")));
+
+        scheduler.drain();
+        assertThat(executed, is(equalTo(Arrays.asList("poll"))));
+
+        // once executed, the poll can be queued again
+        assertTrue(scheduler.submit("poll", Priority.REGULAR_POLL, deadline, () -> executed.add("poll")));
+    }
+
+    @Test
+    public void testRemove() {
+        long deadline = System.currentTimeMillis() + 60000;
+        submit("poll1", Priority.REGULAR_POLL, deadline);
+        submit("poll2", Priority.REGULAR_POLL, deadline);
+
+        assertTrue(scheduler.remove("poll1"));
+        assertFalse(scheduler.remove("poll1"));
+        scheduler.drain();
+
+        assertThat(executed, is(equalTo(Arrays.asList("poll2"))));
+    }
+
+    @Test
+    public void testNoDrainWhenBusy() {
+        scheduler.submit("outer", Priority.ONE_TIME_POLL, 0, () -> {
+            executed.add("outer");
+            submit("inner", Priority.WRITE, 0);
+            // slot is taken by the outer operation, inner is left for the outer drain loop
+            scheduler.drain();
+            executed.add("outer done");
+        });
+
+        scheduler.drain();
+
+        assertThat(executed, is(equalTo(Arrays.asList("outer", "outer done", "inner"))));
+    }
+}
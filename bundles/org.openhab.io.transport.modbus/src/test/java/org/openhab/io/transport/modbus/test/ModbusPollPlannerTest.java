@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusPollPlanner;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusPollPlannerTest {
+
+    private final ModbusTCPSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+
+    private PollTask task(ModbusReadFunctionCode functionCode, int start, int length, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(1, functionCode, start, length, 3), callback);
+    }
+
+    @Test
+    public void testAdjacentTasksAreMerged() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, mock(ModbusReadCallback.class));
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 3, mock(ModbusReadCallback.class));
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 4, 4, mock(ModbusReadCallback.class));
+
+        List<PollTask> plan = new ModbusPollPlanner(0).plan(Arrays.asList(task3, task1, task2));
+
+        assertThat(plan.size(), is(equalTo(1)));
+        ModbusReadRequestBlueprint request = plan.get(0).getRequest();
+        assertThat(request.getReference(), is(equalTo(0)));
+        assertThat(request.getDataLength(), is(equalTo(8)));
+        assertThat(request.getUnitID(), is(equalTo(1)));
+        assertThat(request.getFunctionCode(), is(equalTo(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS)));
+        assertThat(plan.get(0).getEndpoint(), is(equalTo(endpoint)));
+    }
+
+    @Test
+    public void testGapIsRespected() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, mock(ModbusReadCallback.class));
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 5, 1, mock(ModbusReadCallback.class));
+
+        assertThat(new ModbusPollPlanner(2).plan(Arrays.asList(task1, task2)),
+                is(equalTo(Arrays.asList(task1, task2))));
+
+        List<PollTask> plan = new ModbusPollPlanner(3).plan(Arrays.asList(task1, task2));
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(6)));
+    }
+
+    @Test
+    public void testRegisterLimitIsRespected() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 100, mock(ModbusReadCallback.class));
+        PollTask task2 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 100, 25, mock(ModbusReadCallback.class));
+        PollTask task3 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 125, 1, mock(ModbusReadCallback.class));
+
+        List<PollTask> plan = new ModbusPollPlanner(0).plan(Arrays.asList(task1, task2, task3));
+
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(ModbusPollPlanner.MAX_REGISTERS)));
+        assertThat(plan.get(1), is(sameInstance(task3)));
+    }
+
+    @Test
+    public void testBitLimitIsRespected() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_COILS, 0, 1000, mock(ModbusReadCallback.class));
+        PollTask task2 = task(ModbusReadFunctionCode.READ_COILS, 1000, 1000, mock(ModbusReadCallback.class));
+        PollTask task3 = task(ModbusReadFunctionCode.READ_COILS, 2000, 1, mock(ModbusReadCallback.class));
+
+        List<PollTask> plan = new ModbusPollPlanner(0).plan(Arrays.asList(task1, task2, task3));
+
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(ModbusPollPlanner.MAX_BITS)));
+        assertThat(plan.get(1), is(sameInstance(task3)));
+    }
+
+    @Test
+    public void testMergedTasksAreKnown() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, mock(ModbusReadCallback.class));
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, mock(ModbusReadCallback.class));
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 1, mock(ModbusReadCallback.class));
+
+        List<PollTask> plan = new ModbusPollPlanner(0).plan(Arrays.asList(task1, task2, task3));
+
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(ModbusPollPlanner.getMergedTasks(plan.get(0)), is(equalTo(Arrays.asList(task1, task2))));
+        assertThat(ModbusPollPlanner.getMergedTasks(plan.get(1)), is(equalTo(Arrays.asList(task3))));
+    }
+
+    @Test
+    public void testRegistersAreSlicedToOriginalCallbacks() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 13, 2, callback2);
+
+        PollTask merged = new ModbusPollPlanner(1).plan(Arrays.asList(task1, task2)).get(0);
+        merged.getCallback().onRegisters(merged.getRequest(), new BasicModbusRegisterArray(1, 2, 3, 4, 5));
+
+        ArgumentCaptor<ModbusRegisterArray> registers1 = ArgumentCaptor.forClass(ModbusRegisterArray.class);
+        verify(callback1).onRegisters(eq(task1.getRequest()), registers1.capture());
+        assertThat(registers1.getValue().toHexString(), is(equalTo("00 01 00 02")));
+
+        ArgumentCaptor<ModbusRegisterArray> registers2 = ArgumentCaptor.forClass(ModbusRegisterArray.class);
+        verify(callback2).onRegisters(eq(task2.getRequest()), registers2.capture());
+        assertThat(registers2.getValue().toHexString(), is(equalTo("00 04 00 05")));
+    }
+
+    @Test
+    public void testBitsAreSlicedToOriginalCallbacks() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        PollTask task1 = task(ModbusReadFunctionCode.READ_INPUT_DISCRETES, 0, 3, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_INPUT_DISCRETES, 2, 2, callback2);
+
+        PollTask merged = new ModbusPollPlanner(0).plan(Arrays.asList(task1, task2)).get(0);
+        assertThat(merged.getRequest().getDataLength(), is(equalTo(4)));
+        merged.getCallback().onBits(merged.getRequest(), new BasicBitArray(true, false, true, true));
+
+        verify(callback1).onBits(task1.getRequest(), new BasicBitArray(true, false, true));
+        verify(callback2).onBits(task2.getRequest(), new BasicBitArray(true, true));
+    }
+
+    @Test
+    public void testErrorIsPassedToAllCallbacks() {
+        ModbusReadCallback callback1 = mock(ModbusReadCallback.class);
+        ModbusReadCallback callback2 = mock(ModbusReadCallback.class);
+        doThrow(new IllegalStateException()).when(callback1).onError(any(), any());
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 1, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 1, 1, callback2);
+
+        PollTask merged = new ModbusPollPlanner(0).plan(Arrays.asList(task1, task2)).get(0);
+        Exception error = new Exception("failure");
+        merged.getCallback().onError(merged.getRequest(), error);
+
+        verify(callback1).onError(task1.getRequest(), error);
+        verify(callback2).onError(task2.getRequest(), error);
+        verify(callback2, never()).onBits(any(), any(BitArray.class));
+    }
+}
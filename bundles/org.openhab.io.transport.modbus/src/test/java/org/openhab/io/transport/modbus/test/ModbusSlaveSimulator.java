@@ -0,0 +1,406 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
+
+/**
+ * In-process Modbus slave for tests and benchmarks
+ *
+ * Unlike the jamod listeners used by {@link IntegrationTestSupport}, the simulator serves any number of connections
+ * concurrently, and can inject latency, exception responses and connection drops. Data is shared by all unit ids.
+ *
+ * Supported function codes are 1 (read coils), 2 (read discrete inputs), 3 (read holding registers), 4 (read input
+ * registers), 5 (write single coil), 6 (write single register), 15 (write multiple coils) and 16 (write multiple
+ * registers).
+ *
+ * @author agent - Initial contribution
+ */
+public class ModbusSlaveSimulator implements AutoCloseable {
+
+    public enum Transport {
+        TCP,
+        UDP
+    }
+
+    public static final int SIZE = 10000;
+
+    public static final int ILLEGAL_FUNCTION = 1;
+    public static final int ILLEGAL_DATA_ADDRESS = 2;
+    public static final int SLAVE_DEVICE_FAILURE = 4;
+
+    private static final int MAX_FRAME_LENGTH = 260;
+
+    private final Transport transport;
+    private final boolean[] coils = new boolean[SIZE];
+    private final boolean[] discreteInputs = new boolean[SIZE];
+    private final int[] holdingRegisters = new int[SIZE];
+    private final int[] inputRegisters = new int[SIZE];
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private volatile long latencyMillis;
+    private volatile int exceptionEveryNthRequest;
+    private volatile int exceptionCode = SLAVE_DEVICE_FAILURE;
+    private volatile int dropEveryNthRequest;
+
+    private volatile boolean closed;
+    private ServerSocket serverSocket;
+    private DatagramSocket datagramSocket;
+
+    public ModbusSlaveSimulator(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Start serving on a free port of the loopback interface
+     *
+     * @return this simulator
+     * @throws IOException when socket cannot be opened
+     */
+    public ModbusSlaveSimulator start() throws IOException {
+        if (transport == Transport.TCP) {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            startThread("ModbusSlaveSimulatorAccept", this::acceptConnections);
+        } else {
+            datagramSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            startThread("ModbusSlaveSimulatorUDP", this::serveDatagrams);
+        }
+        return this;
+    }
+
+    public int getPort() {
+        return transport == Transport.TCP ? serverSocket.getLocalPort() : datagramSocket.getLocalPort();
+    }
+
+    public ModbusSlaveEndpoint getEndpoint() {
+        String address = InetAddress.getLoopbackAddress().getHostAddress();
+        return transport == Transport.TCP ? new ModbusTCPSlaveEndpoint(address, getPort())
+                : new ModbusUDPSlaveEndpoint(address, getPort());
+    }
+
+    /**
+     * @param latencyMillis time to wait before responding to each request
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Respond to every n'th request with exception response
+     *
+     * @param n request interval, zero to disable
+     * @param exceptionCode exception code of the responses
+     */
+    public void setExceptionEveryNthRequest(int n, int exceptionCode) {
+        this.exceptionEveryNthRequest = n;
+        this.exceptionCode = exceptionCode;
+    }
+
+    /**
+     * Close the connection (TCP) or leave the request unanswered (UDP) on every n'th request
+     *
+     * @param n request interval, zero to disable
+     */
+    public void setDropEveryNthRequest(int n) {
+        this.dropEveryNthRequest = n;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void setHoldingRegister(int index, int value) {
+        holdingRegisters[index] = value & 0xFFFF;
+    }
+
+    public int getHoldingRegister(int index) {
+        return holdingRegisters[index];
+    }
+
+    public void setInputRegister(int index, int value) {
+        inputRegisters[index] = value & 0xFFFF;
+    }
+
+    public void setCoil(int index, boolean value) {
+        coils[index] = value;
+    }
+
+    public boolean getCoil(int index) {
+        return coils[index];
+    }
+
+    public void setDiscreteInput(int index, boolean value) {
+        discreteInputs[index] = value;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            if (datagramSocket != null) {
+                datagramSocket.close();
+            }
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            // ignore, closing anyway
+        }
+    }
+
+    private void startThread(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                startThread("ModbusSlaveSimulatorConnection", () -> serveConnection(socket));
+            } catch (IOException e) {
+                // server socket closed
+                return;
+            }
+        }
+    }
+
+    private void serveConnection(Socket socket) {
+        try (Socket s = socket) {
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            byte[] header = new byte[6];
+            while (!closed) {
+                input.readFully(header);
+                int length = ((header[4] & 0xFF) << 8) | (header[5] & 0xFF);
+                if (length < 2 || length > MAX_FRAME_LENGTH) {
+                    return;
+                }
+                byte[] frame = new byte[6 + length];
+                System.arraycopy(header, 0, frame, 0, 6);
+                input.readFully(frame, 6, length);
+                byte[] response = handleFrame(frame);
+                if (response == null) {
+                    return;
+                }
+                output.write(response);
+                output.flush();
+            }
+        } catch (EOFException | SocketException e) {
+            // connection closed by client or by us
+        } catch (IOException e) {
+            // treat as closed connection
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private void serveDatagrams() {
+        byte[] buffer = new byte[MAX_FRAME_LENGTH + 6];
+        while (!closed) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                datagramSocket.receive(packet);
+                if (packet.getLength() < 8) {
+                    continue;
+                }
+                byte[] frame = new byte[packet.getLength()];
+                System.arraycopy(packet.getData(), packet.getOffset(), frame, 0, frame.length);
+                byte[] response = handleFrame(frame);
+                if (response != null) {
+                    datagramSocket.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+                }
+            } catch (IOException e) {
+                // socket closed
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handle request frame including the MBAP header
+     *
+     * @return response frame, or null to drop the connection
+     */
+    private byte[] handleFrame(byte[] frame) {
+        long count = requestCount.incrementAndGet();
+        long latencyMillis = this.latencyMillis;
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        int dropEveryNthRequest = this.dropEveryNthRequest;
+        if (dropEveryNthRequest > 0 && count % dropEveryNthRequest == 0) {
+            return null;
+        }
+
+        ByteBuffer request = ByteBuffer.wrap(frame);
+        int transactionId = request.getShort(0) & 0xFFFF;
+        int unitId = frame[6] & 0xFF;
+        int functionCode = frame[7] & 0xFF;
+        request.position(8);
+
+        ByteArrayOutputStream pdu = new ByteArrayOutputStream();
+        int exceptionEveryNthRequest = this.exceptionEveryNthRequest;
+        int error;
+        if (exceptionEveryNthRequest > 0 && count % exceptionEveryNthRequest == 0) {
+            error = exceptionCode;
+        } else {
+            error = handlePdu(functionCode, request, pdu);
+        }
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(response);
+        try {
+            out.writeShort(transactionId);
+            out.writeShort(0);
+            if (error != 0) {
+                out.writeShort(3);
+                out.writeByte(unitId);
+                out.writeByte(functionCode | 0x80);
+                out.writeByte(error);
+            } else {
+                out.writeShort(2 + pdu.size());
+                out.writeByte(unitId);
+                out.writeByte(functionCode);
+                pdu.writeTo(out);
+            }
+        } catch (IOException e) {
+            // cannot happen with byte array streams
+            throw new IllegalStateException(e);
+        }
+        return response.toByteArray();
+    }
+
+    /**
+     * Handle request data and write response data, excluding function code
+     *
+     * @return exception code, or 0 on success
+     */
+    private int handlePdu(int functionCode, ByteBuffer request, ByteArrayOutputStream response) {
+        if (request.remaining() < 4) {
+            return ILLEGAL_FUNCTION;
+        }
+        int reference = request.getShort() & 0xFFFF;
+        int value = request.getShort() & 0xFFFF;
+        switch (functionCode) {
+            case 1:
+            case 2:
+                if (value < 1 || value > 2000 || reference + value > SIZE) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                writeBits(functionCode == 1 ? coils : discreteInputs, reference, value, response);
+                return 0;
+            case 3:
+            case 4:
+                if (value < 1 || value > 125 || reference + value > SIZE) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                int[] registers = functionCode == 3 ? holdingRegisters : inputRegisters;
+                response.write(value * 2);
+                for (int i = 0; i < value; i++) {
+                    response.write(registers[reference + i] >> 8);
+                    response.write(registers[reference + i]);
+                }
+                return 0;
+            case 5:
+                if (reference >= SIZE) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                coils[reference] = value == 0xFF00;
+                echo(reference, value, response);
+                return 0;
+            case 6:
+                if (reference >= SIZE) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                holdingRegisters[reference] = value;
+                echo(reference, value, response);
+                return 0;
+            case 15:
+                if (value < 1 || reference + value > SIZE || request.remaining() < 1 + (value + 7) / 8) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                request.get(); // byte count
+                int bitsStart = request.position();
+                for (int i = 0; i < value; i++) {
+                    int bits = request.get(bitsStart + i / 8) & 0xFF;
+                    coils[reference + i] = ((bits >> (i % 8)) & 1) == 1;
+                }
+                echo(reference, value, response);
+                return 0;
+            case 16:
+                if (value < 1 || reference + value > SIZE || request.remaining() < 1 + 2 * value) {
+                    return ILLEGAL_DATA_ADDRESS;
+                }
+                request.get(); // byte count
+                for (int i = 0; i < value; i++) {
+                    holdingRegisters[reference + i] = request.getShort() & 0xFFFF;
+                }
+                echo(reference, value, response);
+                return 0;
+            default:
+                return ILLEGAL_FUNCTION;
+        }
+    }
+
+    private static void writeBits(boolean[] source, int reference, int count, ByteArrayOutputStream response) {
+        int byteCount = (count + 7) / 8;
+        response.write(byteCount);
+        for (int b = 0; b < byteCount; b++) {
+            int bits = 0;
+            for (int i = 0; i < 8 && b * 8 + i < count; i++) {
+                if (source[reference + b * 8 + i]) {
+                    bits |= 1 << i;
+                }
+            }
+            response.write(bits);
+        }
+    }
+
+    private static void echo(int reference, int value, ByteArrayOutputStream response) {
+        response.write(reference >> 8);
+        response.write(reference);
+        response.write(value >> 8);
+        response.write(value);
+    }
+}
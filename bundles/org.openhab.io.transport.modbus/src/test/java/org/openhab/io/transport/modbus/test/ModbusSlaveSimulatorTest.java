@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicModbusWriteRegisterRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BasicWriteTask;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusResponse;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.test.IntegrationTestSupport.NonOSGIModbusManager;
+import org.openhab.io.transport.modbus.test.ModbusSlaveSimulator.Transport;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusSlaveSimulatorTest {
+
+    private ModbusSlaveSimulator simulator;
+    private NonOSGIModbusManager manager;
+
+    @After
+    public void tearDown() {
+        if (manager != null) {
+            manager.close();
+        }
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    private ModbusSlaveEndpoint start(Transport transport) throws Exception {
+        simulator = new ModbusSlaveSimulator(transport).start();
+        manager = new NonOSGIModbusManager();
+        ModbusSlaveEndpoint endpoint = simulator.getEndpoint();
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setInterTransactionDelayMillis(0);
+        configuration.setConnectMaxTries(1);
+        manager.setEndpointPoolConfiguration(endpoint, configuration);
+        return endpoint;
+    }
+
+    /**
+     * Read callback completing future with the registers or the error
+     */
+    private static class FutureReadCallback extends CompletableFuture<ModbusRegisterArray>
+            implements ModbusReadCallback {
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            complete(registers);
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            completeExceptionally(new AssertionError("Bits not expected"));
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            completeExceptionally(error);
+        }
+    }
+
+    private ModbusRegisterArray read(ModbusSlaveEndpoint endpoint, int start, int length) throws Exception {
+        FutureReadCallback callback = new FutureReadCallback();
+        manager.submitOneTimePoll(new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(1,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, length, 1), callback));
+        return callback.get(10, TimeUnit.SECONDS);
+    }
+
+    private void testReadRegisters(Transport transport) throws Exception {
+        ModbusSlaveEndpoint endpoint = start(transport);
+        simulator.setHoldingRegister(5, 0x1234);
+        simulator.setHoldingRegister(6, 0xFFFF);
+
+        assertThat(read(endpoint, 5, 2).toHexString(), is(equalTo("12 34 FF FF")));
+        assertThat(simulator.getRequestCount(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testReadRegistersTCP() throws Exception {
+        testReadRegisters(Transport.TCP);
+    }
+
+    @Test
+    public void testReadRegistersUDP() throws Exception {
+        testReadRegisters(Transport.UDP);
+    }
+
+    @Test
+    public void testWriteRegisters() throws Exception {
+        ModbusSlaveEndpoint endpoint = start(Transport.TCP);
+        CompletableFuture<ModbusResponse> response = new CompletableFuture<>();
+        manager.submitOneTimeWrite(new BasicWriteTask(endpoint,
+                new BasicModbusWriteRegisterRequestBlueprint(1, 10, new BasicModbusRegisterArray(7, 8), true, 1),
+                new ModbusWriteCallback() {
+
+                    @Override
+                    public void onWriteResponse(ModbusWriteRequestBlueprint request, ModbusResponse r) {
+                        response.complete(r);
+                    }
+
+                    @Override
+                    public void onError(ModbusWriteRequestBlueprint request, Exception error) {
+                        response.completeExceptionally(error);
+                    }
+                }));
+        response.get(10, TimeUnit.SECONDS);
+
+        assertThat(simulator.getHoldingRegister(10), is(equalTo(7)));
+        assertThat(simulator.getHoldingRegister(11), is(equalTo(8)));
+    }
+
+    @Test
+    public void testInjectedException() throws Exception {
+        ModbusSlaveEndpoint endpoint = start(Transport.TCP);
+        simulator.setExceptionEveryNthRequest(2, ModbusSlaveSimulator.SLAVE_DEVICE_FAILURE);
+
+        read(endpoint, 0, 1);
+        try {
+            read(endpoint, 0, 1);
+            fail("Exception response expected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(ModbusSlaveErrorResponseException.class)));
+            assertThat(((ModbusSlaveErrorResponseException) e.getCause()).getExceptionCode(),
+                    is(equalTo(ModbusSlaveSimulator.SLAVE_DEVICE_FAILURE)));
+        }
+        read(endpoint, 0, 1);
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.EndpointPoolConfiguration;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusTCPPipeline;
+
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ModbusTCPPipelineTest {
+
+    private static final int REQUESTS = 4;
+
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private final List<Long> connectMillis = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        serverSocket.close();
+    }
+
+    /**
+     * Slave reading all requests before responding to them in reverse order. The register value in the response is
+     * the reference of the request.
+     */
+    private void respondInReverseOrder(int count, boolean exceptionForFirst) throws IOException {
+        try (Socket socket = serverSocket.accept()) {
+            connectMillis.add(System.currentTimeMillis());
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            List<int[]> requests = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int transactionId = input.readUnsignedShort();
+                input.readUnsignedShort(); // protocol id
+                input.readUnsignedShort(); // length
+                int unitId = input.readUnsignedByte();
+                int functionCode = input.readUnsignedByte();
+                int reference = input.readUnsignedShort();
+                input.readUnsignedShort(); // quantity
+                requests.add(new int[] { transactionId, unitId, functionCode, reference });
+            }
+            for (int i = requests.size() - 1; i >= 0; i--) {
+                int[] request = requests.get(i);
+                output.writeShort(request[0]);
+                output.writeShort(0);
+                if (exceptionForFirst && i == 0) {
+                    output.writeShort(3);
+                    output.writeByte(request[1]);
+                    output.writeByte(request[2] | 0x80);
+                    output.writeByte(2);
+                } else {
+                    output.writeShort(5);
+                    output.writeByte(request[1]);
+                    output.writeByte(request[2]);
+                    output.writeByte(2);
+                    output.writeShort(request[3]);
+                }
+            }
+            output.flush();
+            // keep connection open until client closes it
+            input.read();
+        }
+    }
+
+    private ModbusTCPPipeline createPipeline() {
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setMaxInFlight(REQUESTS);
+        configuration.setConnectTimeoutMillis(1000);
+        configuration.setResponseTimeoutMillis(5000);
+        return createPipeline(configuration);
+    }
+
+    private ModbusTCPPipeline createPipeline(EndpointPoolConfiguration configuration) {
+        return new ModbusTCPPipeline(new ModbusTCPSlaveEndpoint("127.0.0.1", serverSocket.getLocalPort()),
+                configuration);
+    }
+
+    private Future<?> submitRead(ModbusTCPPipeline pipeline, int reference) {
+        return executor.submit(() -> {
+            ReadMultipleRegistersRequest request = new ReadMultipleRegistersRequest(reference, 1);
+            request.setUnitID(1);
+            return pipeline.execute(request);
+        });
+    }
+
+    @Test
+    public void testResponsesAreMatchedByTransactionId() throws Exception {
+        CompletableFuture<Void> slave = CompletableFuture.runAsync(() -> {
+            try {
+                respondInReverseOrder(REQUESTS, false);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        try (ModbusTCPPipeline pipeline = createPipeline()) {
+            List<Future<?>> responses = new ArrayList<>();
+            for (int reference = 0; reference < REQUESTS; reference++) {
+                responses.add(submitRead(pipeline, reference));
+            }
+            for (int reference = 0; reference < REQUESTS; reference++) {
+                ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) responses.get(reference)
+                        .get(10, TimeUnit.SECONDS);
+                assertThat(response.getRegisterValue(0), is(equalTo(reference)));
+            }
+            assertThat(pipeline.getOutstandingCount(), is(equalTo(0)));
+        }
+        slave.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExceptionResponse() throws Exception {
+        CompletableFuture<Void> slave = CompletableFuture.runAsync(() -> {
+            try {
+                respondInReverseOrder(1, true);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        try (ModbusTCPPipeline pipeline = createPipeline()) {
+            try {
+                submitRead(pipeline, 0).get(10, TimeUnit.SECONDS);
+                throw new AssertionError("Exception response expected");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(ModbusSlaveException.class)));
+                assertThat(((ModbusSlaveException) e.getCause()).getType(), is(equalTo(2)));
+            }
+        }
+        slave.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testReconnectRespectsInterConnectDelay() throws Exception {
+        CompletableFuture<Void> slave = CompletableFuture.runAsync(() -> {
+            try {
+                respondInReverseOrder(1, false);
+                respondInReverseOrder(1, false);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        EndpointPoolConfiguration configuration = new EndpointPoolConfiguration();
+        configuration.setMaxInFlight(REQUESTS);
+        configuration.setConnectTimeoutMillis(1000);
+        configuration.setResponseTimeoutMillis(5000);
+        configuration.setInterConnectDelayMillis(300);
+        // reconnect after every transaction
+        configuration.setReconnectAfterMillis(0);
+        try (ModbusTCPPipeline pipeline = createPipeline(configuration)) {
+            for (int reference = 0; reference < 2; reference++) {
+                ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) submitRead(pipeline,
+                        reference).get(10, TimeUnit.SECONDS);
+                assertThat(response.getRegisterValue(0), is(equalTo(reference)));
+            }
+        }
+        slave.get(10, TimeUnit.SECONDS);
+        assertThat(connectMillis.size(), is(equalTo(2)));
+        assertThat(connectMillis.get(1) - connectMillis.get(0) >= 300, is(true));
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the commits requested for single stores into group commits.
+ *
+ * A commit is executed at the latest <code>commitInterval</code> milliseconds after the first uncommitted change, or
+ * as soon as <code>maxPending</code> changes have accumulated, whichever comes first. A commit interval of 0 commits
+ * every change on its own.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbCommitScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbCommitScheduler.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable commitAction;
+    private final long commitInterval;
+    private final int maxPending;
+
+    private int pending;
+    private long commits;
+    private long changes;
+    private @Nullable ScheduledFuture<?> scheduledCommit;
+
+    public MapDbCommitScheduler(ScheduledExecutorService scheduler, Runnable commitAction, long commitInterval,
+            int maxPending) {
+        this.scheduler = scheduler;
+        this.commitAction = commitAction;
+        this.commitInterval = commitInterval;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records an uncommitted change and schedules a commit if needed.
+     */
+    public synchronized void changed() {
+        pending++;
+        changes++;
+        if (commitInterval <= 0 || pending >= maxPending) {
+            cancelScheduledCommit();
+            scheduler.execute(this::commit);
+        } else if (scheduledCommit == null) {
+            scheduledCommit = scheduler.schedule(this::commit, commitInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commits all pending changes in the calling thread.
+     */
+    public void flush() {
+        synchronized (this) {
+            cancelScheduledCommit();
+        }
+        commit();
+    }
+
+    /**
+     * @return the number of commits executed so far
+     */
+    public synchronized long getCommitCount() {
+        return commits;
+    }
+
+    /**
+     * @return the number of changes recorded so far
+     */
+    public synchronized long getChangeCount() {
+        return changes;
+    }
+
+    private void commit() {
+        int committing;
+        synchronized (this) {
+            scheduledCommit = null;
+            committing = pending;
+            if (committing == 0) {
+                return;
+            }
+            pending = 0;
+            commits++;
+        }
+        try {
+            commitAction.run();
+            logger.trace("Committed {} change(s) to MapDB", committing);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to commit {} change(s) to MapDB: {}", committing, e.getMessage());
+        }
+    }
+
+    private void cancelScheduledCommit() {
+        ScheduledFuture<?> future = scheduledCommit;
+        if (future != null) {
+            future.cancel(false);
+            scheduledCommit = null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PlayPauseType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact binary encoding of {@link MapDbItem}s.
+ *
+ * Every record starts with a format version, the timestamp and a one byte type tag followed by a primitive payload.
+ * The most common state types are written natively, all others fall back to the class name and
+ * {@link State#toFullString()} like the {@link StateTypeAdapter} does.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_GENERIC = 0;
+    private static final byte TAG_ON_OFF = 1;
+    private static final byte TAG_OPEN_CLOSED = 2;
+    private static final byte TAG_UP_DOWN = 3;
+    private static final byte TAG_PLAY_PAUSE = 4;
+    private static final byte TAG_DECIMAL_LONG = 5;
+    private static final byte TAG_DECIMAL = 6;
+    private static final byte TAG_PERCENT = 7;
+    private static final byte TAG_HSB = 8;
+    private static final byte TAG_STRING = 9;
+    private static final byte TAG_DATETIME = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbItemCodec.class);
+
+    /**
+     * Encodes state and timestamp of the given item. The name is not part of the record as it is used as the key.
+     *
+     * @param item the item to encode
+     * @return the binary record
+     */
+    public byte[] encode(MapDbItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(item.getTimestamp().getTime());
+            writeState(out, item.getState());
+        } catch (IOException e) {
+            // cannot happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a record written by {@link #encode(MapDbItem)}.
+     *
+     * @param name the item name the record is stored under
+     * @param data the binary record
+     * @return the decoded item or <code>null</code> if the record could not be decoded
+     */
+    public @Nullable MapDbItem decode(String name, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                logger.warn("Unsupported record format version {} for item '{}'", version, name);
+                return null;
+            }
+            long timestamp = in.readLong();
+            State state = readState(in);
+            if (state == null) {
+                return null;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(timestamp));
+            return item;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Couldn't decode record for item '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads only the timestamp of a record written by {@link #encode(MapDbItem)}, without decoding the state.
+     *
+     * @param data the binary record
+     * @return the timestamp in milliseconds or <code>null</code> if the record is invalid
+     */
+    public @Nullable Long decodeTimestamp(byte[] data) {
+        if (data.length < 1 + Long.BYTES || data[0] != FORMAT_VERSION) {
+            return null;
+        }
+        return ByteBuffer.wrap(data, 1, Long.BYTES).getLong();
+    }
+
+    void writeState(DataOutput out, State state) throws IOException {
+        Class<?> type = state.getClass();
+        if (type == OnOffType.class) {
+            out.writeByte(TAG_ON_OFF);
+            out.writeByte(((OnOffType) state).ordinal());
+        } else if (type == OpenClosedType.class) {
+            out.writeByte(TAG_OPEN_CLOSED);
+            out.writeByte(((OpenClosedType) state).ordinal());
+        } else if (type == UpDownType.class) {
+            out.writeByte(TAG_UP_DOWN);
+            out.writeByte(((UpDownType) state).ordinal());
+        } else if (type == PlayPauseType.class) {
+            out.writeByte(TAG_PLAY_PAUSE);
+            out.writeByte(((PlayPauseType) state).ordinal());
+        } else if (type == DecimalType.class) {
+            BigDecimal value = ((DecimalType) state).toBigDecimal();
+            if (value.scale() == 0 && value.unscaledValue().bitLength() < 64) {
+                out.writeByte(TAG_DECIMAL_LONG);
+                out.writeLong(value.longValueExact());
+            } else {
+                out.writeByte(TAG_DECIMAL);
+                writeBigDecimal(out, value);
+            }
+        } else if (type == PercentType.class) {
+            out.writeByte(TAG_PERCENT);
+            writeBigDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (type == HSBType.class) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TAG_HSB);
+            writeBigDecimal(out, hsb.getHue().toBigDecimal());
+            writeBigDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeBigDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (type == StringType.class) {
+            out.writeByte(TAG_STRING);
+            writeString(out, state.toFullString());
+        } else if (type == DateTimeType.class) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(TAG_DATETIME);
+            out.writeLong(dateTime.toEpochSecond());
+            out.writeInt(dateTime.getNano());
+            writeString(out, dateTime.getZone().getId());
+        } else {
+            out.writeByte(TAG_GENERIC);
+            writeString(out, type.getName());
+            writeString(out, state.toFullString());
+        }
+    }
+
+    @Nullable
+    State readState(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_ON_OFF:
+                return OnOffType.values()[in.readByte()];
+            case TAG_OPEN_CLOSED:
+                return OpenClosedType.values()[in.readByte()];
+            case TAG_UP_DOWN:
+                return UpDownType.values()[in.readByte()];
+            case TAG_PLAY_PAUSE:
+                return PlayPauseType.values()[in.readByte()];
+            case TAG_DECIMAL_LONG:
+                return new DecimalType(in.readLong());
+            case TAG_DECIMAL:
+                return new DecimalType(readBigDecimal(in));
+            case TAG_PERCENT:
+                return new PercentType(readBigDecimal(in));
+            case TAG_HSB:
+                return new HSBType(new DecimalType(readBigDecimal(in)), new PercentType(readBigDecimal(in)),
+                        new PercentType(readBigDecimal(in)));
+            case TAG_STRING:
+                return new StringType(readString(in));
+            case TAG_DATETIME:
+                Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                return new DateTimeType(ZonedDateTime.ofInstant(instant, ZoneId.of(readString(in))));
+            case TAG_GENERIC:
+                return readGenericState(readString(in), readString(in));
+            default:
+                logger.warn("Unknown state type tag {}", tag);
+                return null;
+        }
+    }
+
+    private @Nullable State readGenericState(String valueTypeName, String valueAsString) {
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends State> valueType = (Class<? extends State>) Class.forName(valueTypeName);
+            List<Class<? extends State>> types = Collections.singletonList(valueType);
+            return TypeParser.parseState(types, valueAsString);
+        } catch (Exception e) {
+            logger.warn("Couldn't deserialize state '{}' of type '{}': {}", valueAsString, valueTypeName,
+                    e.getMessage());
+        }
+        return null;
+    }
+
+    private static void writeBigDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readBigDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
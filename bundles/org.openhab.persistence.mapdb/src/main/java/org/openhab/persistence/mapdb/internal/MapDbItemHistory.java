@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.BTreeMap;
+import org.mapdb.DB;
+import org.mapdb.Fun;
+import org.mapdb.Fun.Tuple2;
+import org.mapdb.Serializer;
+
+/**
+ * Keeps a bounded ring of recent samples per item in a MapDB tree map.
+ *
+ * The samples are stored under a composite (item name, timestamp) key, so all samples of one item are adjacent and
+ * queries can be answered with range scans. Only the samples of the requested page are decoded.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemHistory {
+
+    private static final String MAP_NAME = "history";
+
+    private final BTreeMap<Tuple2<String, Long>, byte[]> samples;
+    private final MapDbItemCodec codec;
+    private final int maxSamples;
+    private final long maxAge;
+
+    /** number of samples per item, lazily initialized from the map */
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    /**
+     * @param db the database to keep the samples in
+     * @param codec the codec to encode the samples with
+     * @param maxSamples the maximum number of samples per item, 0 for no limit
+     * @param maxAge the maximum age of samples in hours, 0 for no limit
+     */
+    public MapDbItemHistory(DB db, MapDbItemCodec codec, int maxSamples, long maxAge) {
+        this.samples = db.createTreeMap(MAP_NAME).keySerializer(BTreeKeySerializer.TUPLE2)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        this.codec = codec;
+        this.maxSamples = maxSamples;
+        this.maxAge = TimeUnit.HOURS.toMillis(maxAge);
+    }
+
+    /**
+     * Adds a sample and drops the samples of the item exceeding the configured bounds.
+     *
+     * @param item the sample to add
+     * @return the sample count and time range of the item after adding the sample
+     */
+    public synchronized MapDbItemInfo add(MapDbItem item) {
+        String name = item.getName();
+        int count = getCount(name);
+        if (samples.put(Fun.t2(name, item.getTimestamp().getTime()), codec.encode(item)) == null) {
+            count++;
+        }
+        NavigableMap<Tuple2<String, Long>, byte[]> itemSamples = range(name, Long.MIN_VALUE, Long.MAX_VALUE);
+        long cutoff = maxAge > 0 ? item.getTimestamp().getTime() - maxAge : Long.MIN_VALUE;
+        while (count > 0) {
+            Map.Entry<Tuple2<String, Long>, byte[]> oldest = itemSamples.firstEntry();
+            if (oldest == null || ((maxSamples <= 0 || count <= maxSamples) && oldest.getKey().b >= cutoff)) {
+                break;
+            }
+            samples.remove(oldest.getKey());
+            count--;
+        }
+        counts.put(name, count);
+        return new MapDbItemInfo(name, count, itemSamples.firstKey().b, itemSamples.lastKey().b);
+    }
+
+    /**
+     * Adds the latest value of an item stored while the history was disabled, unless the history already has a sample
+     * of the same age or newer. This keeps the latest value queryable after the history has been enabled.
+     *
+     * @param name the name of the item
+     * @param data the binary record of the latest value
+     * @return the sample count and time range of the item after adding the value or <code>null</code> if it has not
+     *         been added
+     */
+    public synchronized @Nullable MapDbItemInfo addLatest(String name, byte[] data) {
+        Long timestamp = codec.decodeTimestamp(data);
+        if (timestamp == null) {
+            return null;
+        }
+        NavigableMap<Tuple2<String, Long>, byte[]> itemSamples = range(name, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (!itemSamples.isEmpty() && itemSamples.lastKey().b >= timestamp) {
+            return null;
+        }
+        MapDbItem item = codec.decode(name, data);
+        return item == null ? null : add(item);
+    }
+
+    /**
+     * Returns the sample count and time range of the item.
+     *
+     * @param name the name of the item
+     * @return the sample count and time range or <code>null</code> if there are no samples of the item
+     */
+    public synchronized @Nullable MapDbItemInfo getInfo(String name) {
+        NavigableMap<Tuple2<String, Long>, byte[]> itemSamples = range(name, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (itemSamples.isEmpty()) {
+            return null;
+        }
+        int count = getCount(name);
+        counts.put(name, count);
+        return new MapDbItemInfo(name, count, itemSamples.firstKey().b, itemSamples.lastKey().b);
+    }
+
+    /**
+     * Queries the samples matching the item name, time range, ordering and page of the given filter.
+     *
+     * @param filter the filter to apply
+     * @return the matching samples
+     */
+    public List<HistoricItem> query(FilterCriteria filter) {
+        String name = filter.getItemName();
+        if (name == null) {
+            return Collections.emptyList();
+        }
+        Date begin = filter.getBeginDate();
+        Date end = filter.getEndDate();
+        NavigableMap<Tuple2<String, Long>, byte[]> itemSamples = range(name,
+                begin == null ? Long.MIN_VALUE : begin.getTime(), end == null ? Long.MAX_VALUE : end.getTime());
+        if (filter.getOrdering() == Ordering.DESCENDING) {
+            itemSamples = itemSamples.descendingMap();
+        }
+
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        List<HistoricItem> result = new ArrayList<>();
+        Iterator<Map.Entry<Tuple2<String, Long>, byte[]>> iterator = itemSamples.entrySet().iterator();
+        while (iterator.hasNext() && result.size() < filter.getPageSize()) {
+            Map.Entry<Tuple2<String, Long>, byte[]> entry = iterator.next();
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDbItem item = codec.decode(name, entry.getValue());
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private int getCount(String name) {
+        Integer count = counts.get(name);
+        if (count == null) {
+            count = range(name, Long.MIN_VALUE, Long.MAX_VALUE).size();
+        }
+        return count;
+    }
+
+    private NavigableMap<Tuple2<String, Long>, byte[]> range(String name, long from, long to) {
+        return samples.subMap(Fun.t2(name, from), true, Fun.t2(name, to), true);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
+
+/**
+ * Entry of the secondary index holding the sample count and time range of an item, so
+ * {@link PersistenceItemInfo}s can be provided without decoding any stored state.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemInfo implements PersistenceItemInfo {
+
+    private static final int RECORD_SIZE = Integer.BYTES + 2 * Long.BYTES;
+
+    private final String name;
+    private final int count;
+    private final long earliest;
+    private final long latest;
+
+    public MapDbItemInfo(String name, int count, long earliest, long latest) {
+        this.name = name;
+        this.count = count;
+        this.earliest = earliest;
+        this.latest = latest;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public @Nullable Integer getCount() {
+        return count;
+    }
+
+    @Override
+    public @Nullable Date getEarliest() {
+        return new Date(earliest);
+    }
+
+    @Override
+    public @Nullable Date getLatest() {
+        return new Date(latest);
+    }
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(RECORD_SIZE).putInt(count).putLong(earliest).putLong(latest).array();
+    }
+
+    /**
+     * Decodes an index record written by {@link #encode()}.
+     *
+     * @param name the item name the record is stored under
+     * @param data the binary record
+     * @return the decoded entry or <code>null</code> if the record is invalid
+     */
+    public static @Nullable MapDbItemInfo decode(String name, byte[] data) {
+        if (data.length != RECORD_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        return new MapDbItemInfo(name, buffer.getInt(), buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + count + " sample(s) from " + earliest + " to " + latest + ")";
+    }
+}
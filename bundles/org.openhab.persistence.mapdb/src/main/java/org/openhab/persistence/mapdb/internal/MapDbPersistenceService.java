@@ -13,15 +13,16 @@
 package org.openhab.persistence.mapdb.internal;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -37,12 +38,16 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
 /**
  * This is the implementation of the MapDB {@link PersistenceService}. To learn
@@ -53,7 +58,10 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb", property = {
+                "service.pid=org.openhab.mapdb", "service.config.description.uri=persistence:mapdb",
+                "service.config.label=MapDB Persistence Service", "service.config.category=persistence" })
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
@@ -62,25 +70,49 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    /** name of the tree map holding JSON serialized items written by earlier versions */
+    private static final String LEGACY_MAP_NAME = "itemStore";
+
+    private static final String MAP_NAME = "items";
+
+    private static final String INFO_MAP_NAME = "itemInfo";
+
+    private static final String CONFIG_COMMIT_INTERVAL = "commitinterval";
+    private static final String CONFIG_COMMIT_MAX_PENDING = "commitmaxpending";
+
+    private static final String CONFIG_HISTORY_SIZE = "historysize";
+    private static final String CONFIG_HISTORY_MAX_AGE = "historymaxage";
+
+    private static final long DEFAULT_COMMIT_INTERVAL = 1000;
+    private static final int DEFAULT_COMMIT_MAX_PENDING = 500;
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
-    private ExecutorService threadPool;
+    private ScheduledExecutorService threadPool;
+
+    @NonNullByDefault({})
+    private MapDbCommitScheduler commitScheduler;
 
     /** holds the local instance of the MapDB database */
     @NonNullByDefault({})
     private DB db;
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, byte[]> map;
+    /** secondary index of sample count and time range per item */
+    @NonNullByDefault({})
+    private Map<String, byte[]> infoMap;
 
-    private transient Gson mapper = new GsonBuilder()
-            .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
-            .create();
+    /** holds the recent samples per item, <code>null</code> if only the latest value is kept */
+    private @Nullable MapDbItemHistory history;
 
-    public void activate() {
+    private final MapDbItemCodec codec = new MapDbItemCodec();
+
+    @Activate
+    public void activate(Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
-        threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+        threadPool = ThreadPoolManager.getScheduledPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
@@ -93,13 +125,34 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-        map = db.createTreeMap("itemStore").makeOrGet();
-        logger.debug("MapDB persistence service is now activated");
+        map = db.createTreeMap(MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        migrateLegacyMap();
+        infoMap = db.createTreeMap(INFO_MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+
+        int historySize = (int) getLongConfig(config, CONFIG_HISTORY_SIZE, 0);
+        long historyMaxAge = getLongConfig(config, CONFIG_HISTORY_MAX_AGE, 0);
+        if (historySize > 0 || historyMaxAge > 0) {
+            history = new MapDbItemHistory(db, codec, historySize, historyMaxAge);
+            logger.debug("Keeping up to {} sample(s) of at most {} hour(s) per item", historySize, historyMaxAge);
+        }
+        updateInfoMap();
+
+        long commitInterval = getLongConfig(config, CONFIG_COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL);
+        int maxPending = (int) getLongConfig(config, CONFIG_COMMIT_MAX_PENDING, DEFAULT_COMMIT_MAX_PENDING);
+        commitScheduler = new MapDbCommitScheduler(threadPool, db::commit, commitInterval, maxPending);
+        logger.debug("MapDB persistence service is now activated (commit interval {}ms, max pending {})",
+                commitInterval, maxPending);
     }
 
+    @Deactivate
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
         if (db != null) {
+            if (commitScheduler != null) {
+                commitScheduler.flush();
+                logger.debug("Committed {} change(s) with {} commit(s)", commitScheduler.getChangeCount(),
+                        commitScheduler.getCommitCount());
+            }
             db.close();
         }
         threadPool.shutdown();
@@ -117,9 +170,9 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
-                .flatMap(MapDbPersistenceService::streamOptional)
+        return infoMap.entrySet().stream()
+                .map(entry -> MapDbItemInfo.decode(entry.getKey(), entry.getValue()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.<PersistenceItemInfo>toSet());
     }
 
@@ -145,31 +198,36 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         mItem.setName(alias);
         mItem.setState(state);
         mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
-        commit();
+        map.put(alias, codec.encode(mItem));
+        MapDbItemHistory localHistory = history;
+        long timestamp = mItem.getTimestamp().getTime();
+        MapDbItemInfo info = localHistory != null ? localHistory.add(mItem)
+                : new MapDbItemInfo(alias, 1, timestamp, timestamp);
+        infoMap.put(alias, info.encode());
+        commitScheduler.changed();
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        MapDbItemHistory localHistory = history;
+        if (localHistory != null) {
+            return localHistory.query(filter);
+        }
+        String name = filter.getItemName();
+        byte[] data = map.get(name);
+        if (data == null) {
             return Collections.emptyList();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        Optional<MapDbItem> item = deserialize(name, data);
         if (!item.isPresent()) {
             return Collections.emptyList();
         }
         return Collections.singletonList(item.get());
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
-    }
-
-    private Optional<MapDbItem> deserialize(String json) {
-        MapDbItem item = mapper.<MapDbItem>fromJson(json, MapDbItem.class);
+    private Optional<MapDbItem> deserialize(String name, byte[] data) {
+        MapDbItem item = codec.decode(name, data);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
             return Optional.empty();
@@ -177,14 +235,77 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
-    private void commit() {
-        threadPool.submit(() -> db.commit());
+    /**
+     * Converts the JSON records written by earlier versions into the binary format and drops the old map.
+     */
+    private void migrateLegacyMap() {
+        if (!db.exists(LEGACY_MAP_NAME)) {
+            return;
+        }
+        Gson mapper = new GsonBuilder().registerTypeHierarchyAdapter(State.class, new StateTypeAdapter()).create();
+        Map<String, String> legacyMap = db.getTreeMap(LEGACY_MAP_NAME);
+        int migrated = 0;
+        for (Map.Entry<String, String> entry : legacyMap.entrySet()) {
+            try {
+                MapDbItem item = mapper.fromJson(entry.getValue(), MapDbItem.class);
+                if (item != null && item.isValid() && !map.containsKey(entry.getKey())) {
+                    map.put(entry.getKey(), codec.encode(item));
+                    migrated++;
+                }
+            } catch (JsonParseException e) {
+                logger.warn("Skipping unreadable legacy record for '{}': {}", entry.getKey(), e.getMessage());
+            }
+        }
+        db.delete(LEGACY_MAP_NAME);
+        db.commit();
+        logger.info("Migrated {} item(s) to the binary MapDB storage format", migrated);
+    }
+
+    /**
+     * Brings the secondary index in line with the stored values, e.g. for databases written by earlier versions or
+     * after the history has been enabled or disabled. Without history only the timestamps are read. With history the
+     * values stored while it was disabled are added to it, so that they can still be queried.
+     */
+    private void updateInfoMap() {
+        MapDbItemHistory localHistory = history;
+        int updated = 0;
+        for (Map.Entry<String, byte[]> entry : map.entrySet()) {
+            String name = entry.getKey();
+            byte[] current = infoMap.get(name);
+            MapDbItemInfo info;
+            if (localHistory != null) {
+                info = localHistory.addLatest(name, entry.getValue());
+                if (info == null) {
+                    info = localHistory.getInfo(name);
+                }
+            } else {
+                Long timestamp = codec.decodeTimestamp(entry.getValue());
+                info = timestamp == null ? null : new MapDbItemInfo(name, 1, timestamp, timestamp);
+            }
+            if (info != null) {
+                byte[] encoded = info.encode();
+                if (current == null || !Arrays.equals(current, encoded)) {
+                    infoMap.put(name, encoded);
+                    updated++;
+                }
+            }
+        }
+        if (updated > 0) {
+            db.commit();
+            logger.debug("Updated item info index for {} item(s)", updated);
+        }
     }
 
-    private static <T> Stream<T> streamOptional(Optional<T> opt) {
-        if (!opt.isPresent()) {
-            return Stream.empty();
+    private long getLongConfig(@Nullable Map<String, Object> config, String key, long defaultValue) {
+        Object value = config == null ? null : config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value '{}' for '{}', using default {}", value, key, defaultValue);
+            return defaultValue;
         }
-        return Stream.of(opt.get());
     }
 }
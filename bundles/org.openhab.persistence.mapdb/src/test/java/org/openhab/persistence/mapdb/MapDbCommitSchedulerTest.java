@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbCommitScheduler;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbCommitSchedulerTest {
+    ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+    AtomicInteger commits = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void changesWithinTheIntervalShouldBeCommittedTogether() throws Exception {
+        MapDbCommitScheduler commitScheduler = new MapDbCommitScheduler(scheduler, commits::incrementAndGet, 100,
+                1000);
+        for (int i = 0; i < 50; i++) {
+            commitScheduler.changed();
+        }
+        scheduler.schedule(() -> {
+        }, 300, TimeUnit.MILLISECONDS).get();
+
+        assertThat(commits.get(), is(1));
+        assertThat(commitScheduler.getChangeCount(), is(50L));
+    }
+
+    @Test
+    public void reachingMaxPendingShouldCommitImmediately() throws Exception {
+        MapDbCommitScheduler commitScheduler = new MapDbCommitScheduler(scheduler, commits::incrementAndGet, 60000,
+                10);
+        for (int i = 0; i < 10; i++) {
+            commitScheduler.changed();
+        }
+        scheduler.submit(() -> {
+        }).get();
+
+        assertThat(commits.get(), is(1));
+    }
+
+    @Test
+    public void flushShouldCommitPendingChangesOnlyOnce() {
+        MapDbCommitScheduler commitScheduler = new MapDbCommitScheduler(scheduler, commits::incrementAndGet, 60000,
+                1000);
+        commitScheduler.changed();
+        commitScheduler.flush();
+        commitScheduler.flush();
+
+        assertThat(commits.get(), is(1));
+    }
+}
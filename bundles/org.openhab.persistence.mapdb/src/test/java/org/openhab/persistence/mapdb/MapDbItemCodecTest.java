@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemCodec;
+import org.openhab.persistence.mapdb.internal.MapDbItemInfo;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbItemCodecTest {
+    MapDbItemCodec codec = new MapDbItemCodec();
+
+    @Test
+    public void encodeDecodeRoundtripShouldRecreateTheWrittenState() {
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+        assertThat(roundtrip(UpDownType.DOWN), is(equalTo(UpDownType.DOWN)));
+        assertThat(roundtrip(new DecimalType(42)), is(equalTo(new DecimalType(42))));
+        assertThat(roundtrip(new DecimalType(new BigDecimal("-21.375"))),
+                is(equalTo(new DecimalType(new BigDecimal("-21.375")))));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(StringType.valueOf("test äöü")), is(equalTo(StringType.valueOf("test äöü"))));
+        assertThat(roundtrip(new DateTimeType("2020-01-18T14:30:12.123+01:00")),
+                is(equalTo(new DateTimeType("2020-01-18T14:30:12.123+01:00"))));
+    }
+
+    @Test
+    public void encodeDecodeRoundtripShouldFallBackToFullStringForOtherTypes() {
+        assertThat(roundtrip(new QuantityType<>("21.5 °C")), is(equalTo(new QuantityType<>("21.5 °C"))));
+        assertThat(roundtrip(new PointType("52.5,13.4")), is(equalTo(new PointType("52.5,13.4"))));
+    }
+
+    @Test
+    public void decodeShouldKeepNameAndTimestamp() {
+        MapDbItem item = new MapDbItem();
+        item.setName("ignored");
+        item.setState(OnOffType.OFF);
+        item.setTimestamp(new Date(1579354212000L));
+
+        MapDbItem decoded = codec.decode("Switch1", codec.encode(item));
+
+        assertThat(decoded, is(notNullValue()));
+        assertThat(decoded.getName(), is("Switch1"));
+        assertThat(decoded.getTimestamp(), is(new Date(1579354212000L)));
+        assertThat(decoded.getState(), is(OnOffType.OFF));
+    }
+
+    @Test
+    public void decodeTimestampShouldNotRequireTheState() {
+        MapDbItem item = new MapDbItem();
+        item.setState(StringType.valueOf("test"));
+        item.setTimestamp(new Date(1579354212000L));
+        byte[] data = codec.encode(item);
+
+        assertThat(codec.decodeTimestamp(data), is(1579354212000L));
+    }
+
+    @Test
+    public void itemInfoShouldSurviveEncoding() {
+        MapDbItemInfo info = MapDbItemInfo.decode("Item1", new MapDbItemInfo("Item1", 7, 1000L, 2000L).encode());
+
+        assertThat(info, is(notNullValue()));
+        assertThat(info.getCount(), is(7));
+        assertThat(info.getEarliest(), is(new Date(1000L)));
+        assertThat(info.getLatest(), is(new Date(2000L)));
+        assertThat(MapDbItemInfo.decode("Item1", new byte[3]), is(nullValue()));
+    }
+
+    @Test
+    public void decodeShouldRejectUnknownRecords() {
+        assertThat(codec.decode("Item1", new byte[] { 42, 0, 0 }), is(nullValue()));
+        assertThat(codec.decode("Item1", new byte[0]), is(nullValue()));
+    }
+
+    private State roundtrip(State state) {
+        MapDbItem item = new MapDbItem();
+        item.setName("Item1");
+        item.setState(state);
+        item.setTimestamp(new Date());
+        MapDbItem decoded = codec.decode("Item1", codec.encode(item));
+        assertThat(decoded, is(notNullValue()));
+        return decoded.getState();
+    }
+}
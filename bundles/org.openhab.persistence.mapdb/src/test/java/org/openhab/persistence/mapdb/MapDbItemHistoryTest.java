@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemCodec;
+import org.openhab.persistence.mapdb.internal.MapDbItemHistory;
+import org.openhab.persistence.mapdb.internal.MapDbItemInfo;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbItemHistoryTest {
+    DB db = DBMaker.newMemoryDB().make();
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void addShouldKeepOnlyTheConfiguredNumberOfSamples() {
+        MapDbItemHistory history = new MapDbItemHistory(db, new MapDbItemCodec(), 3, 0);
+        for (int i = 1; i <= 5; i++) {
+            history.add(item("Item1", i, i * 1000L));
+        }
+        MapDbItemInfo info = history.add(item("Item2", 42, 1000L));
+
+        assertThat(info.getCount(), is(1));
+        assertThat(info.getEarliest(), is(new Date(1000L)));
+
+        assertThat(states(history.query(new FilterCriteria().setItemName("Item1").setOrdering(Ordering.ASCENDING))),
+                is(asDecimals(3, 4, 5)));
+        assertThat(states(history.query(new FilterCriteria().setItemName("Item2"))), is(asDecimals(42)));
+    }
+
+    @Test
+    public void addShouldDropSamplesOlderThanTheMaximumAge() {
+        MapDbItemHistory history = new MapDbItemHistory(db, new MapDbItemCodec(), 0, 1);
+        long now = System.currentTimeMillis();
+        history.add(item("Item1", 1, now - TimeUnit.HOURS.toMillis(2)));
+        history.add(item("Item1", 2, now - TimeUnit.MINUTES.toMillis(30)));
+        history.add(item("Item1", 3, now));
+
+        assertThat(states(history.query(new FilterCriteria().setItemName("Item1"))), is(asDecimals(3, 2)));
+    }
+
+    @Test
+    public void queryShouldHonourRangeOrderingAndPaging() {
+        MapDbItemHistory history = new MapDbItemHistory(db, new MapDbItemCodec(), 100, 0);
+        for (int i = 1; i <= 10; i++) {
+            history.add(item("Item1", i, i * 1000L));
+        }
+
+        FilterCriteria range = new FilterCriteria().setItemName("Item1").setBeginDate(new Date(3000))
+                .setEndDate(new Date(8000)).setOrdering(Ordering.ASCENDING);
+        assertThat(states(history.query(range)), is(asDecimals(3, 4, 5, 6, 7, 8)));
+
+        FilterCriteria page = new FilterCriteria().setItemName("Item1").setOrdering(Ordering.DESCENDING)
+                .setPageSize(3).setPageNumber(1);
+        assertThat(states(history.query(page)), is(asDecimals(7, 6, 5)));
+    }
+
+    @Test
+    public void getInfoShouldReportTheNumberOfSamples() {
+        MapDbItemHistory history = new MapDbItemHistory(db, new MapDbItemCodec(), 10, 0);
+        for (int i = 1; i <= 4; i++) {
+            history.add(item("Item1", i, i * 1000L));
+        }
+
+        MapDbItemInfo info = new MapDbItemHistory(db, new MapDbItemCodec(), 10, 0).getInfo("Item1");
+
+        assertThat(info, is(notNullValue()));
+        assertThat(info.getCount(), is(4));
+        assertThat(info.getEarliest(), is(new Date(1000L)));
+        assertThat(info.getLatest(), is(new Date(4000L)));
+        assertThat(history.getInfo("Item2"), is(nullValue()));
+    }
+
+    @Test
+    public void addLatestShouldKeepValuesStoredBeforeTheHistoryWasEnabled() {
+        MapDbItemCodec codec = new MapDbItemCodec();
+        MapDbItemHistory history = new MapDbItemHistory(db, codec, 3, 0);
+
+        MapDbItemInfo info = history.addLatest("Item1", codec.encode(item("Item1", 7, 1000L)));
+
+        assertThat(info, is(notNullValue()));
+        assertThat(info.getCount(), is(1));
+        assertThat(states(history.query(new FilterCriteria().setItemName("Item1"))), is(asDecimals(7)));
+    }
+
+    @Test
+    public void addLatestShouldOnlyAddValuesNewerThanTheHistory() {
+        MapDbItemCodec codec = new MapDbItemCodec();
+        MapDbItemHistory history = new MapDbItemHistory(db, codec, 3, 0);
+        history.add(item("Item1", 1, 1000L));
+        history.add(item("Item1", 2, 2000L));
+
+        assertThat(history.addLatest("Item1", codec.encode(item("Item1", 2, 2000L))), is(nullValue()));
+        assertThat(history.addLatest("Item1", codec.encode(item("Item1", 3, 3000L))).getCount(), is(3));
+        assertThat(states(history.query(new FilterCriteria().setItemName("Item1"))), is(asDecimals(3, 2, 1)));
+    }
+
+    private static MapDbItem item(String name, int value, long timestamp) {
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(new DecimalType(value));
+        item.setTimestamp(new Date(timestamp));
+        return item;
+    }
+
+    private static List<State> states(List<HistoricItem> items) {
+        return items.stream().map(HistoricItem::getState).collect(Collectors.toList());
+    }
+
+    private static List<State> asDecimals(int... values) {
+        return Arrays.stream(values).<State> mapToObj(DecimalType::new).collect(Collectors.toList());
+    }
+}
@@ -14,16 +14,21 @@ package org.openhab.transform.bin2json.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.smarthome.core.util.HexUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import com.igormaznitsa.jbbp.JBBPParser;
 import com.igormaznitsa.jbbp.exceptions.JBBPException;
 import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
@@ -66,6 +71,10 @@ import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
  * json.toString() = {"a":3,"b":-6,"c":255}
  * </pre>
  *
+ * <p>
+ * A prepared instance can be reused for any number of conversions. The parsed fields are written as JSON directly,
+ * {@link #convert(String)} parses the written JSON into a Gson tree.
+ *
  * @author Pauli Anttila - Initial contribution
  *
  */
@@ -73,6 +82,8 @@ public class Bin2Json {
 
     private final Logger logger = LoggerFactory.getLogger(Bin2Json.class);
 
+    private static final JsonParser JSON_PARSER = new JsonParser();
+
     private JBBPParser parser;
 
     /**
@@ -112,7 +123,7 @@ public class Bin2Json {
      */
     public JsonObject convert(byte[] data) throws ConversionException {
         try {
-            return convert(parser.parse(data));
+            return convert(parse(data));
         } catch (IOException e) {
             throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         } catch (JBBPException e) {
@@ -129,7 +140,9 @@ public class Bin2Json {
      */
     public JsonObject convert(InputStream inputStream) throws ConversionException {
         try {
-            return convert(parser.parse(inputStream));
+            synchronized (parser) {
+                return convert(parser.parse(inputStream));
+            }
         } catch (IOException e) {
             throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         } catch (JBBPException e) {
@@ -137,103 +150,170 @@ public class Bin2Json {
         }
     }
 
+    /**
+     * Convert {@link String} in hexadecimal string format to a JSON string, without building an intermediate Gson
+     * tree.
+     *
+     * @param hexString Data in hexadecimal string format. Example data: 03FAFF
+     * @return JSON string
+     * @throws ConversionException
+     */
+    public String convertToString(String hexString) throws ConversionException {
+        try {
+            return convertToString(parse(HexUtils.hexToBytes(hexString)));
+        } catch (IllegalArgumentException e) {
+            throw new ConversionException(String.format("Illegal hexstring , reason: %s", e.getMessage(), e));
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        } catch (JBBPException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
+        }
+    }
+
+    private JBBPFieldStruct parse(byte[] data) throws IOException {
+        // the parser keeps the stream byte counter of the last run, so runs must not overlap
+        synchronized (parser) {
+            return parser.parse(data);
+        }
+    }
+
     private JsonObject convert(JBBPFieldStruct data) throws ConversionException {
+        // The JSON is built by the writer and parsed back instead of being built as a tree by a second conversion, so
+        // that the string and the tree cannot differ. Gson only offers a tree writer in its non-exported internal
+        // package. The transformation service uses the string, so the round trip only costs the callers of the tree.
         try {
-            LocalDateTime start = LocalDateTime.now();
-            final JsonObject json = convertToJSon(data);
-            if (logger.isTraceEnabled()) {
-                Duration duration = Duration.between(start, LocalDateTime.now());
-                logger.trace("Conversion time={}, json={}", duration, json.toString());
-            }
-            return json;
+            return JSON_PARSER.parse(convertToString(data)).getAsJsonObject();
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         } catch (JBBPException e) {
             throw new ConversionException(String.format("Unexpected error, reason: %s", e.getMessage(), e));
         }
     }
 
-    private JsonObject convertToJSon(final JBBPAbstractField field) throws ConversionException {
-        return convertToJSon(null, field);
+    private String convertToString(JBBPFieldStruct data) throws IOException, ConversionException {
+        LocalDateTime start = LocalDateTime.now();
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writeStruct(writer, data);
+        }
+        final String json = out.toString();
+        if (logger.isTraceEnabled()) {
+            Duration duration = Duration.between(start, LocalDateTime.now());
+            logger.trace("Conversion time={}, json={}", duration, json);
+        }
+        return json;
     }
 
-    private JsonObject convertToJSon(final JsonObject json, final JBBPAbstractField field) throws ConversionException {
-        JsonObject jsn = json == null ? new JsonObject() : json;
+    private void writeStruct(final JsonWriter writer, final JBBPFieldStruct struct)
+            throws IOException, ConversionException {
+        writer.beginObject();
+        if (hasUniqueFieldNames(struct)) {
+            for (final JBBPAbstractField f : struct.getArray()) {
+                writer.name(fieldName(f));
+                writeValue(writer, f);
+            }
+        } else {
+            // like in a JsonObject, a later field replaces the value of an earlier one with the same name
+            final Map<String, JBBPAbstractField> fields = new LinkedHashMap<>();
+            for (final JBBPAbstractField f : struct.getArray()) {
+                fields.put(fieldName(f), f);
+            }
+            for (final Map.Entry<String, JBBPAbstractField> f : fields.entrySet()) {
+                writer.name(f.getKey());
+                writeValue(writer, f.getValue());
+            }
+        }
+        writer.endObject();
+    }
 
-        final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+    private void writeValue(final JsonWriter writer, final JBBPAbstractField field)
+            throws IOException, ConversionException {
         if (field instanceof JBBPAbstractArrayField) {
-            final JsonArray jsonArray = new JsonArray();
+            writer.beginArray();
             if (field instanceof JBBPFieldArrayBit) {
                 for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayBoolean) {
                 for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayByte) {
                 for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayInt) {
                 for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayLong) {
                 for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayShort) {
                 for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b));
+                    writer.value(b);
                 }
             } else if (field instanceof JBBPFieldArrayStruct) {
                 final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
                 for (int i = 0; i < array.size(); i++) {
-                    jsonArray.add(convertToJSon(new JsonObject(), array.getElementAt(i)));
+                    // each element is wrapped into an object holding it under its field name
+                    final JBBPFieldStruct element = array.getElementAt(i);
+                    writer.beginObject();
+                    writer.name(fieldName(element));
+                    writeStruct(writer, element);
+                    writer.endObject();
                 }
             } else if (field instanceof JBBPFieldArrayUByte) {
                 for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b & 0xFF));
+                    writer.value(b & 0xFF);
                 }
             } else if (field instanceof JBBPFieldArrayUShort) {
                 for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
-                    jsonArray.add(new JsonPrimitive(b & 0xFFFF));
+                    writer.value(b & 0xFFFF);
                 }
             } else {
                 throw new ConversionException(String.format("Unexpected field type '%s'", field));
             }
-            jsn.add(fieldName, jsonArray);
+            writer.endArray();
+        } else if (field instanceof JBBPFieldBit) {
+            writer.value(((JBBPFieldBit) field).getAsInt());
+        } else if (field instanceof JBBPFieldBoolean) {
+            writer.value(((JBBPFieldBoolean) field).getAsBool());
+        } else if (field instanceof JBBPFieldByte) {
+            writer.value(((JBBPFieldByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldInt) {
+            writer.value(((JBBPFieldInt) field).getAsInt());
+        } else if (field instanceof JBBPFieldLong) {
+            writer.value(((JBBPFieldLong) field).getAsLong());
+        } else if (field instanceof JBBPFieldShort) {
+            writer.value(((JBBPFieldShort) field).getAsInt());
+        } else if (field instanceof JBBPFieldStruct) {
+            writeStruct(writer, (JBBPFieldStruct) field);
+        } else if (field instanceof JBBPFieldUByte) {
+            writer.value(((JBBPFieldUByte) field).getAsInt());
+        } else if (field instanceof JBBPFieldUShort) {
+            writer.value(((JBBPFieldUShort) field).getAsInt());
         } else {
-            if (field instanceof JBBPFieldBit) {
-                jsn.addProperty(fieldName, ((JBBPFieldBit) field).getAsInt());
-            } else if (field instanceof JBBPFieldBoolean) {
-                jsn.addProperty(fieldName, ((JBBPFieldBoolean) field).getAsBool());
-            } else if (field instanceof JBBPFieldByte) {
-                jsn.addProperty(fieldName, ((JBBPFieldByte) field).getAsInt());
-            } else if (field instanceof JBBPFieldInt) {
-                jsn.addProperty(fieldName, ((JBBPFieldInt) field).getAsInt());
-            } else if (field instanceof JBBPFieldLong) {
-                jsn.addProperty(fieldName, ((JBBPFieldLong) field).getAsLong());
-            } else if (field instanceof JBBPFieldShort) {
-                jsn.addProperty(fieldName, ((JBBPFieldShort) field).getAsInt());
-            } else if (field instanceof JBBPFieldStruct) {
-                final JBBPFieldStruct struct = (JBBPFieldStruct) field;
-                final JsonObject obj = new JsonObject();
-                for (final JBBPAbstractField f : struct.getArray()) {
-                    convertToJSon(obj, f);
-                }
-                if (json == null) {
-                    return obj;
-                } else {
-                    jsn.add(fieldName, obj);
-                }
-            } else if (field instanceof JBBPFieldUByte) {
-                jsn.addProperty(fieldName, ((JBBPFieldUByte) field).getAsInt());
-            } else if (field instanceof JBBPFieldUShort) {
-                jsn.addProperty(fieldName, ((JBBPFieldUShort) field).getAsInt());
-            } else {
-                throw new ConversionException(String.format("Unexpected field '%s'", field));
+            throw new ConversionException(String.format("Unexpected field '%s'", field));
+        }
+    }
+
+    private boolean hasUniqueFieldNames(final JBBPFieldStruct struct) {
+        final JBBPAbstractField[] fields = struct.getArray();
+        if (fields.length < 2) {
+            return true;
+        }
+        final Set<String> names = new HashSet<>();
+        for (final JBBPAbstractField f : fields) {
+            if (!names.add(fieldName(f))) {
+                return false;
             }
         }
-        return jsn;
+        return true;
+    }
+
+    private static String fieldName(final JBBPAbstractField field) {
+        return field.getFieldName() == null ? "nonamed" : field.getFieldName();
     }
 }
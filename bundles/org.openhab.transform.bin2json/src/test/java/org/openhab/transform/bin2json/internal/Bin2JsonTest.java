@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.smarthome.core.util.HexUtils;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.igormaznitsa.jbbp.JBBPParser;
+import com.igormaznitsa.jbbp.model.JBBPAbstractArrayField;
+import com.igormaznitsa.jbbp.model.JBBPAbstractField;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayBit;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayBoolean;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayLong;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayShort;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayStruct;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayUByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldArrayUShort;
+import com.igormaznitsa.jbbp.model.JBBPFieldBit;
+import com.igormaznitsa.jbbp.model.JBBPFieldBoolean;
+import com.igormaznitsa.jbbp.model.JBBPFieldByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldInt;
+import com.igormaznitsa.jbbp.model.JBBPFieldLong;
+import com.igormaznitsa.jbbp.model.JBBPFieldShort;
+import com.igormaznitsa.jbbp.model.JBBPFieldStruct;
+import com.igormaznitsa.jbbp.model.JBBPFieldUByte;
+import com.igormaznitsa.jbbp.model.JBBPFieldUShort;
+
+/**
+ * Tests that {@link Bin2Json} writes the same JSON as the former conversion through a Gson tree.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTest {
+
+    private void assertSameAsTree(String rule, String hex) throws Exception {
+        JsonObject expected = (JsonObject) treeOf(null, JBBPParser.prepare(rule).parse(HexUtils.hexToBytes(hex)));
+        Bin2Json bin2Json = new Bin2Json(rule);
+        assertEquals(expected.toString(), bin2Json.convertToString(hex));
+        assertEquals(expected, bin2Json.convert(hex));
+    }
+
+    @Test
+    public void testSimpleFields() throws Exception {
+        assertEquals("{\"a\":3,\"b\":-6,\"c\":255}",
+                new Bin2Json("byte a; byte b; ubyte c;").convertToString("03FAFF"));
+        assertSameAsTree("byte a; ubyte b; short c; ushort d; int e; long f; bool g; bit:4 h; bit:4 i;",
+                "FFFF8001FFFF7FFFFFFF000000000000000101A5");
+    }
+
+    @Test
+    public void testArrays() throws Exception {
+        assertSameAsTree("byte[2] a; ubyte[2] b; short[1] c; ushort[1] d; int[1] e; long[1] f; bool[2] g; bit[8] h;",
+                "FF01FF0280008000FFFFFFFF00000000000000010100F0");
+    }
+
+    @Test
+    public void testNestedStructArrays() throws Exception {
+        final String rule = "ubyte count; items[2]{ ubyte id; values[2]{ byte v; } } tail{ ubyte x; }";
+        assertSameAsTree(rule, "02010A0B020C0D07");
+        assertEquals("{\"count\":2,\"items\":[{\"items\":{\"id\":1,\"values\":[{\"values\":{\"v\":10}},"
+                + "{\"values\":{\"v\":11}}]}},{\"items\":{\"id\":2,\"values\":[{\"values\":{\"v\":12}},"
+                + "{\"values\":{\"v\":13}}]}}],\"tail\":{\"x\":7}}",
+                new Bin2Json(rule).convertToString("02010A0B020C0D07"));
+    }
+
+    @Test
+    public void testDuplicateFieldNames() throws Exception {
+        // unnamed fields are all written as "nonamed", the last value wins at the position of the first field
+        assertSameAsTree("byte; ubyte a; ubyte; s[2]{ byte; byte; }", "FF01FE01020304");
+        assertEquals("{\"nonamed\":254,\"a\":1}", new Bin2Json("byte; ubyte a; ubyte;").convertToString("FF01FE"));
+    }
+
+    /**
+     * The conversion of the former implementation, which built a Gson tree.
+     */
+    private static Object treeOf(JsonObject json, JBBPAbstractField field) throws ConversionException {
+        JsonObject jsn = json == null ? new JsonObject() : json;
+
+        final String fieldName = field.getFieldName() == null ? "nonamed" : field.getFieldName();
+        if (field instanceof JBBPAbstractArrayField) {
+            final JsonArray jsonArray = new JsonArray();
+            if (field instanceof JBBPFieldArrayBit) {
+                for (final byte b : ((JBBPFieldArrayBit) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayBoolean) {
+                for (final boolean b : ((JBBPFieldArrayBoolean) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayByte) {
+                for (final byte b : ((JBBPFieldArrayByte) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayInt) {
+                for (final int b : ((JBBPFieldArrayInt) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayLong) {
+                for (final long b : ((JBBPFieldArrayLong) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayShort) {
+                for (final short b : ((JBBPFieldArrayShort) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b));
+                }
+            } else if (field instanceof JBBPFieldArrayStruct) {
+                final JBBPFieldArrayStruct array = (JBBPFieldArrayStruct) field;
+                for (int i = 0; i < array.size(); i++) {
+                    jsonArray.add((JsonObject) treeOf(new JsonObject(), array.getElementAt(i)));
+                }
+            } else if (field instanceof JBBPFieldArrayUByte) {
+                for (final byte b : ((JBBPFieldArrayUByte) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b & 0xFF));
+                }
+            } else if (field instanceof JBBPFieldArrayUShort) {
+                for (final short b : ((JBBPFieldArrayUShort) field).getArray()) {
+                    jsonArray.add(new JsonPrimitive(b & 0xFFFF));
+                }
+            } else {
+                throw new ConversionException(String.format("Unexpected field type '%s'", field));
+            }
+            jsn.add(fieldName, jsonArray);
+        } else {
+            if (field instanceof JBBPFieldBit) {
+                jsn.addProperty(fieldName, ((JBBPFieldBit) field).getAsInt());
+            } else if (field instanceof JBBPFieldBoolean) {
+                jsn.addProperty(fieldName, ((JBBPFieldBoolean) field).getAsBool());
+            } else if (field instanceof JBBPFieldByte) {
+                jsn.addProperty(fieldName, ((JBBPFieldByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldInt) {
+                jsn.addProperty(fieldName, ((JBBPFieldInt) field).getAsInt());
+            } else if (field instanceof JBBPFieldLong) {
+                jsn.addProperty(fieldName, ((JBBPFieldLong) field).getAsLong());
+            } else if (field instanceof JBBPFieldShort) {
+                jsn.addProperty(fieldName, ((JBBPFieldShort) field).getAsInt());
+            } else if (field instanceof JBBPFieldStruct) {
+                final JBBPFieldStruct struct = (JBBPFieldStruct) field;
+                final JsonObject obj = new JsonObject();
+                for (final JBBPAbstractField f : struct.getArray()) {
+                    treeOf(obj, f);
+                }
+                if (json == null) {
+                    return obj;
+                } else {
+                    jsn.add(fieldName, obj);
+                }
+            } else if (field instanceof JBBPFieldUByte) {
+                jsn.addProperty(fieldName, ((JBBPFieldUByte) field).getAsInt());
+            } else if (field instanceof JBBPFieldUShort) {
+                jsn.addProperty(fieldName, ((JBBPFieldUShort) field).getAsInt());
+            } else {
+                throw new ConversionException(String.format("Unexpected field '%s'", field));
+            }
+        }
+        return jsn;
+    }
+}
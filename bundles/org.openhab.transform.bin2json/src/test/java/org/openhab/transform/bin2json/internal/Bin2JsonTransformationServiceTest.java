@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.bin2json.internal;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.Test;
+
+/**
+ * Tests the parser cache of the {@link Bin2JsonTransformationService}.
+ *
+ * @author agent - Initial contribution
+ */
+public class Bin2JsonTransformationServiceTest {
+
+    private final Bin2JsonTransformationService service = new Bin2JsonTransformationService();
+
+    @Test
+    public void testParserIsPreparedOncePerRule() throws Exception {
+        Bin2Json parser = service.getParser("byte a; ubyte b;");
+        assertSame(parser, service.getParser("byte a; ubyte b;"));
+        assertNotSame(parser, service.getParser("ubyte a; byte b;"));
+
+        assertEquals("{\"a\":-1,\"b\":255}", service.transform("byte a; ubyte b;", "FFFF"));
+        assertEquals("{\"a\":255,\"b\":-1}", service.transform("ubyte a; byte b;", "FFFF"));
+        assertSame(parser, service.getParser("byte a; ubyte b;"));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws Exception {
+        Bin2Json parser = service.getParser("byte a;");
+        for (int i = 1; i <= 64; i++) {
+            service.getParser("byte[" + i + "] a;");
+        }
+        // the cache has been cleared once it was full, so the rule is prepared again
+        assertNotSame(parser, service.getParser("byte a;"));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testIllegalRuleFails() throws Exception {
+        service.transform("byte a; illegal", "FF");
+    }
+}
@@ -18,8 +18,15 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+import javax.script.Bindings;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
@@ -27,13 +34,18 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple cache for compiled JavaScript files.
+ * Pool of JavaScript engines with a cache of compiled JavaScript files per engine.
+ *
+ * A compiled script is bound to the engine which compiled it, so every engine keeps its own cache. Scripts are
+ * executed on an engine borrowed exclusively from the pool, which lets transformations of different bindings run in
+ * parallel. Engines are created on demand up to {@link #MAX_ENGINES} by default.
  *
  * @author Thomas Kordelle - pre compiled scripts
  *
@@ -42,38 +54,62 @@ import org.slf4j.LoggerFactory;
 @Component(service = JavaScriptEngineManager.class)
 public class JavaScriptEngineManager {
 
+    /** maximum number of engines, each one costs a few megabytes */
+    static final int MAX_ENGINES = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    /** maximum time in milliseconds to wait for an engine when all of them are busy */
+    private static final long BORROW_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
-    private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Supplier<@Nullable ScriptEngine> engineFactory;
+    private final int maxEngines;
+    private final long borrowTimeout;
+
+    private final BlockingQueue<PooledEngine> idleEngines = new LinkedBlockingQueue<>();
+    private final CopyOnWriteArrayList<PooledEngine> engines = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong executionNanos = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+
+    public JavaScriptEngineManager() {
+        this(javaScriptEngines(), MAX_ENGINES, BORROW_TIMEOUT);
+    }
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
+     * @param engineFactory creates the engines of the pool
+     * @param maxEngines maximum number of engines
+     * @param borrowTimeout maximum time in milliseconds to wait for an engine when all of them are busy
+     */
+    JavaScriptEngineManager(Supplier<@Nullable ScriptEngine> engineFactory, int maxEngines, long borrowTimeout) {
+        this.engineFactory = engineFactory;
+        this.maxEngines = maxEngines;
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Executes a JavaScript file with the given input on an engine of the pool. If the script is not yet compiled
+     * for that engine, it is loaded from storage and compiled first.
      *
-     * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
-     * @throws TransformationException if compile of JavaScript failed
+     * @param filename name of the JavaScript file to execute
+     * @param input value of the <code>input</code> variable
+     * @return the result of the script
+     * @throws TransformationException if loading, compiling or executing the script failed
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
-            } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
-            }
+    protected @Nullable Object execute(final String filename, final String input) throws TransformationException {
+        final PooledEngine engine = borrowEngine();
+        final long start = System.nanoTime();
+        try {
+            final CompiledScript cScript = engine.getScript(filename);
+            final Bindings bindings = cScript.getEngine().createBindings();
+            bindings.put("input", input);
+            return cScript.eval(bindings);
+        } catch (ScriptException e) {
+            throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
+        } finally {
+            executions.incrementAndGet();
+            executionNanos.addAndGet(System.nanoTime() - start);
+            idleEngines.offer(engine);
         }
     }
 
@@ -84,6 +120,111 @@ public class JavaScriptEngineManager {
      */
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        for (PooledEngine engine : engines) {
+            engine.compiledScriptMap.remove(fileName);
+        }
+    }
+
+    /**
+     * @return number of engines created so far
+     */
+    public int getPoolSize() {
+        return engines.size();
+    }
+
+    /**
+     * @return number of engines currently executing a script
+     */
+    public int getActiveCount() {
+        return engines.size() - idleEngines.size();
+    }
+
+    /**
+     * @return number of executed scripts
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * @return accumulated execution time of all scripts in milliseconds
+     */
+    public long getExecutionTime() {
+        return TimeUnit.NANOSECONDS.toMillis(executionNanos.get());
+    }
+
+    /**
+     * @return number of executions which had to wait for a busy engine
+     */
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    private static Supplier<@Nullable ScriptEngine> javaScriptEngines() {
+        final ScriptEngineManager manager = new ScriptEngineManager();
+        return () -> manager.getEngineByName("javascript");
+    }
+
+    /**
+     * Opens the JavaScript file with the given name in the transformation folder.
+     */
+    Reader openScript(final String filename) throws IOException {
+        final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
+        logger.debug("Loading script {} from storage ", path);
+        return new InputStreamReader(new FileInputStream(path));
+    }
+
+    private PooledEngine borrowEngine() throws TransformationException {
+        PooledEngine engine = idleEngines.poll();
+        if (engine != null) {
+            return engine;
+        }
+        synchronized (engines) {
+            if (engines.size() < maxEngines) {
+                final ScriptEngine scriptEngine = engineFactory.get();
+                if (scriptEngine == null) {
+                    throw new TransformationException("No JavaScript engine available.");
+                }
+                engine = new PooledEngine(scriptEngine);
+                engines.add(engine);
+                logger.debug("Created JavaScript engine {} of {}.", engines.size(), maxEngines);
+                return engine;
+            }
+        }
+        waits.incrementAndGet();
+        try {
+            engine = idleEngines.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (engine == null) {
+            throw new TransformationException("No JavaScript engine available, all " + maxEngines + " are busy.");
+        }
+        return engine;
+    }
+
+    private class PooledEngine {
+        private final ScriptEngine engine;
+        private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>();
+
+        private PooledEngine(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        private CompiledScript getScript(final String filename) throws TransformationException {
+            CompiledScript cScript = compiledScriptMap.get(filename);
+            if (cScript != null) {
+                logger.debug("Loading JavaScript {} from cache.", filename);
+                return cScript;
+            }
+            try (final Reader reader = openScript(filename)) {
+                cScript = ((Compilable) engine).compile(reader);
+                logger.debug("Putting compiled JavaScript {} to cache.", cScript);
+                compiledScriptMap.put(filename, cScript);
+                return cScript;
+            } catch (IOException | ScriptException e) {
+                throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+            }
+        }
     }
 }
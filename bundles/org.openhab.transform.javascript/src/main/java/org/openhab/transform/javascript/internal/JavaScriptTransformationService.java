@@ -12,10 +12,6 @@
  */
 package org.openhab.transform.javascript.internal;
 
-import javax.script.Bindings;
-import javax.script.CompiledScript;
-import javax.script.ScriptException;
-
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
@@ -71,16 +67,17 @@ public class JavaScriptTransformationService implements TransformationService {
         String result = "";
 
         try {
-            final CompiledScript cScript = manager.getScript(filename);
-            final Bindings bindings = cScript.getEngine().createBindings();
-            bindings.put("input", source);
-            result = String.valueOf(cScript.eval(bindings));
+            result = String.valueOf(manager.execute(filename, source));
             return result;
-        } catch (ScriptException e) {
-            throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
         } finally {
-            logger.trace("JavaScript execution elapsed {} ms. Result: {}", System.currentTimeMillis() - startTime,
-                    result);
+            if (logger.isTraceEnabled()) {
+                logger.trace("JavaScript execution elapsed {} ms. Result: {}", System.currentTimeMillis() - startTime,
+                        result);
+                logger.trace(
+                        "JavaScript engines: {} created, {} active, {} executions in {} ms, {} waited for an engine",
+                        manager.getPoolSize(), manager.getActiveCount(), manager.getExecutionCount(),
+                        manager.getExecutionTime(), manager.getWaitCount());
+            }
         }
     }
 }
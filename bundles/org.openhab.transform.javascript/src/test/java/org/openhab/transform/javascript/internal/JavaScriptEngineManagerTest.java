@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the engine pool of the {@link JavaScriptEngineManager}. The engines are replaced by an engine which runs a
+ * callback of the test instead of JavaScript.
+ *
+ * @author agent - Initial contribution
+ */
+public class JavaScriptEngineManagerTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private volatile BiFunction<String, Object, Object> script = (source, input) -> source + ":" + input;
+
+    /**
+     * Compiles a script to a call of the current callback with the script source and the input.
+     */
+    private class TestEngine extends AbstractScriptEngine implements Compilable {
+        @Override
+        public CompiledScript compile(Reader reader) {
+            final String source = new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
+            final ScriptEngine engine = this;
+            return new CompiledScript() {
+                @Override
+                public Object eval(ScriptContext context) {
+                    return script.apply(source, context.getAttribute("input"));
+                }
+
+                @Override
+                public ScriptEngine getEngine() {
+                    return engine;
+                }
+            };
+        }
+
+        @Override
+        public CompiledScript compile(String script) {
+            return compile(new StringReader(script));
+        }
+
+        @Override
+        public Object eval(String script, ScriptContext context) throws ScriptException {
+            throw new ScriptException("not supported");
+        }
+
+        @Override
+        public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+            throw new ScriptException("not supported");
+        }
+
+        @Override
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        @Override
+        public ScriptEngineFactory getFactory() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private JavaScriptEngineManager createManager(int maxEngines, long borrowTimeout) {
+        return new JavaScriptEngineManager(TestEngine::new, maxEngines, borrowTimeout) {
+            @Override
+            Reader openScript(String filename) throws IOException {
+                loads.incrementAndGet();
+                return new StringReader(filename);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the given number of executions at the same time. Each one waits until all of them are running, so they
+     * only complete if they run on different engines.
+     */
+    private List<Object> executeConcurrently(JavaScriptEngineManager manager, String filename, int count)
+            throws Exception {
+        final CountDownLatch running = new CountDownLatch(count);
+        script = (source, input) -> {
+            running.countDown();
+            try {
+                return running.await(5, TimeUnit.SECONDS) ? source + ":" + input : "timeout";
+            } catch (InterruptedException e) {
+                return "interrupted";
+            }
+        };
+        final List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final String input = String.valueOf(i);
+            futures.add(executor.submit(() -> manager.execute(filename, input)));
+        }
+        final List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    public void testScriptsRunConcurrentlyOnDifferentEngines() throws Exception {
+        final JavaScriptEngineManager manager = createManager(3, 1000);
+
+        assertEquals("a.js:0", manager.execute("a.js", "0"));
+        assertEquals(1, manager.getPoolSize());
+
+        List<Object> results = executeConcurrently(manager, "a.js", 3);
+        assertEquals("a.js:0", results.get(0));
+        assertEquals("a.js:1", results.get(1));
+        assertEquals("a.js:2", results.get(2));
+        assertEquals(3, manager.getPoolSize());
+        assertEquals(0, manager.getActiveCount());
+        assertEquals(4, manager.getExecutionCount());
+    }
+
+    @Test
+    public void testRemoveFromCacheAffectsAllEngines() throws Exception {
+        final JavaScriptEngineManager manager = createManager(2, 1000);
+
+        executeConcurrently(manager, "a.js", 2);
+        assertEquals(2, loads.get());
+        executeConcurrently(manager, "a.js", 2);
+        // each engine has compiled the script once
+        assertEquals(2, loads.get());
+
+        manager.removeFromCache("a.js");
+        executeConcurrently(manager, "a.js", 2);
+        assertEquals(4, loads.get());
+
+        manager.removeFromCache("b.js");
+        executeConcurrently(manager, "a.js", 2);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testFailsIfAllEnginesAreBusy() throws Exception {
+        final JavaScriptEngineManager manager = createManager(1, 100);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        script = (source, input) -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // ends the script
+            }
+            return input;
+        };
+        final Future<Object> busy = executor.submit(() -> manager.execute("a.js", "busy"));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        try {
+            manager.execute("a.js", "waiting");
+            fail("An engine has been borrowed twice");
+        } catch (TransformationException e) {
+            assertEquals("No JavaScript engine available, all 1 are busy.", e.getMessage());
+        }
+        assertEquals(1, manager.getWaitCount());
+
+        release.countDown();
+        assertEquals("busy", busy.get(5, TimeUnit.SECONDS));
+        // the engine is returned to the pool after the execution
+        assertEquals("free", manager.execute("a.js", "free"));
+        assertEquals(1, manager.getPoolSize());
+    }
+}
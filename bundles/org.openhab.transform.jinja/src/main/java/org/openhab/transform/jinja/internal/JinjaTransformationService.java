@@ -13,12 +13,18 @@
 package org.openhab.transform.jinja.internal;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -31,11 +37,20 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.interpret.TemplateError;
+import com.hubspot.jinjava.interpret.TemplateError.ErrorType;
+import com.hubspot.jinjava.tree.Node;
 
 /**
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by Jinja2 Expressions.
  *
+ * <p>
+ * Templates are parsed once and the node trees are reused for every rendering. The JSON value is exposed as
+ * <code>value_json</code> through views which only convert the parts of the tree the template actually accesses.
+ *
  * @author Jochen Klein - Initial contribution
  *
  */
@@ -43,10 +58,26 @@ import com.hubspot.jinjava.Jinjava;
 @Component(immediate = true, property = { "smarthome.transform=JINJA" })
 public class JinjaTransformationService implements TransformationService {
 
+    /** maximum number of parsed templates to keep */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    /** maximum number of parsed JSON values to keep */
+    private static final int MAX_CACHED_VALUES = 64;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private final Logger logger = LoggerFactory.getLogger(JinjaTransformationService.class);
 
     private Jinjava jinjava = new Jinjava();
 
+    private final Map<String, Node> templateCache = new ConcurrentHashMap<>();
+
+    /**
+     * JSON trees of the recently transformed values, empty if a value is no JSON. The trees are never modified, so
+     * they can be shared between threads.
+     */
+    private final Map<String, Optional<JsonNode>> valueCache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>value</code> by Jinja template.
      *
@@ -58,43 +89,112 @@ public class JinjaTransformationService implements TransformationService {
     public @Nullable String transform(String template, String value) throws TransformationException {
         logger.debug("about to transform '{}' by the function '{}'", value, template);
 
+        String transformationResult = render(template, value, parse(value));
+
+        logger.debug("transformation resulted in '{}'", transformationResult);
+
+        return transformationResult;
+    }
+
+    /**
+     * Renders the template with the parsed JSON value.
+     *
+     * @param template Jinja template
+     * @param value the raw value
+     * @param tree the parsed JSON value or <code>null</code> if the value is no JSON
+     * @return the rendered template
+     * @throws TransformationException if rendering the template failed
+     */
+    private String render(String template, String value, @Nullable JsonNode tree) throws TransformationException {
         Map<String, @Nullable Object> bindings = new HashMap<>();
         bindings.put("value", value);
+        if (tree != null) {
+            bindings.put("value_json", toObject(tree));
+        }
 
+        Node root = getTemplate(template);
+        if (root == null) {
+            // templates with parse errors are not cached, let jinjava report them
+            return jinjava.render(template, bindings);
+        }
+
+        JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava,
+                new Context(jinjava.getGlobalContext(), bindings), jinjava.getGlobalConfig());
+        JinjavaInterpreter.pushCurrent(interpreter);
         try {
-            JsonNode tree = new ObjectMapper().readTree(value);
-            bindings.put("value_json", toObject(tree));
-        } catch (IOException e) {
-            // ok, then value_json is null...
+            String result = interpreter.render(root, true);
+            List<TemplateError> fatalErrors = interpreter.getErrors().stream()
+                    .filter(error -> error.getSeverity() == ErrorType.FATAL).collect(Collectors.toList());
+            if (!fatalErrors.isEmpty()) {
+                throw new TransformationException("Rendering template '" + template + "' failed: " + fatalErrors);
+            }
+            return result;
+        } finally {
+            JinjavaInterpreter.popCurrent();
         }
+    }
 
-        String transformationResult = jinjava.render(template, bindings);
+    /**
+     * Parses the value as JSON. The trees of recent values are kept, because a single MQTT message is often
+     * transformed by many templates, e.g. one per HomeAssistant channel on the same state topic, while messages of
+     * other topics arrive in between.
+     *
+     * @param value the raw value
+     * @return the parsed JSON value or <code>null</code> if the value is no JSON
+     */
+    private @Nullable JsonNode parse(String value) {
+        // the value is usually the same string instance, so its hash is cached and equals does not compare contents
+        Optional<JsonNode> tree = valueCache.get(value);
+        if (tree == null) {
+            tree = Optional.ofNullable(readTree(value));
+            if (valueCache.size() >= MAX_CACHED_VALUES) {
+                valueCache.clear();
+            }
+            valueCache.put(value, tree);
+        }
+        return tree.orElse(null);
+    }
 
-        logger.debug("transformation resulted in '{}'", transformationResult);
+    /**
+     * Reads the JSON tree of a value, not cached.
+     *
+     * @param value the raw value
+     * @return the parsed JSON value or <code>null</code> if the value is no JSON
+     */
+    @Nullable JsonNode readTree(String value) {
+        try {
+            return MAPPER.readTree(value);
+        } catch (IOException e) {
+            // ok, then value_json is null...
+            return null;
+        }
+    }
 
-        return transformationResult;
+    private @Nullable Node getTemplate(String template) {
+        Node root = templateCache.get(template);
+        if (root == null) {
+            JinjavaInterpreter interpreter = new JinjavaInterpreter(jinjava, jinjava.getGlobalContext(),
+                    jinjava.getGlobalConfig());
+            root = interpreter.parse(template);
+            if (!interpreter.getErrors().isEmpty()) {
+                return null;
+            }
+            if (templateCache.size() >= MAX_CACHED_TEMPLATES) {
+                templateCache.clear();
+            }
+            templateCache.put(template, root);
+        }
+        return root;
     }
 
     private static @Nullable Object toObject(JsonNode node) {
         switch (node.getNodeType()) {
-            case ARRAY: {
-                List<@Nullable Object> result = new ArrayList<>();
-                for (JsonNode el : node) {
-                    result.add(toObject(el));
-                }
-                return result;
-            }
+            case ARRAY:
+                return new JsonArrayView(node);
             case NUMBER:
                 return node.decimalValue();
-            case OBJECT: {
-                Map<String, @Nullable Object> result = new HashMap<>();
-                Iterator<Entry<String, JsonNode>> it = node.fields();
-                while (it.hasNext()) {
-                    Entry<String, JsonNode> field = it.next();
-                    result.put(field.getKey(), toObject(field.getValue()));
-                }
-                return result;
-            }
+            case OBJECT:
+                return new JsonObjectView(node);
             case STRING:
                 return node.asText();
             case BOOLEAN:
@@ -104,4 +204,85 @@ public class JinjaTransformationService implements TransformationService {
                 return null;
         }
     }
+
+    /**
+     * Read-only {@link List} view of a JSON array, converting elements when they are accessed.
+     */
+    private static class JsonArrayView extends AbstractList<@Nullable Object> {
+        private final JsonNode node;
+
+        private JsonArrayView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(int index) {
+            if (index < 0 || index >= node.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + node.size());
+            }
+            return toObject(node.get(index));
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+    }
+
+    /**
+     * Read-only {@link Map} view of a JSON object, converting values when they are accessed.
+     */
+    private static class JsonObjectView extends AbstractMap<String, @Nullable Object> {
+        private final JsonNode node;
+
+        private JsonObjectView(JsonNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Object get(@Nullable Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            JsonNode value = node.get((String) key);
+            return value == null ? null : toObject(value);
+        }
+
+        @Override
+        public boolean containsKey(@Nullable Object key) {
+            return key instanceof String && node.has((String) key);
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+
+        @Override
+        public Set<Entry<String, @Nullable Object>> entrySet() {
+            return new AbstractSet<Entry<String, @Nullable Object>>() {
+                @Override
+                public Iterator<Entry<String, @Nullable Object>> iterator() {
+                    Iterator<Entry<String, JsonNode>> fields = node.fields();
+                    return new Iterator<Entry<String, @Nullable Object>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return fields.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, @Nullable Object> next() {
+                            Entry<String, JsonNode> field = fields.next();
+                            return new SimpleImmutableEntry<>(field.getKey(), toObject(field.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return node.size();
+                }
+            };
+        }
+    }
 }
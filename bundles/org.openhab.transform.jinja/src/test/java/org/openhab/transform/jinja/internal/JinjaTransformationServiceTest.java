@@ -12,11 +12,16 @@
  */
 package org.openhab.transform.jinja.internal;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
 /**
  * @author Jochen Klein - Initial contribution
  */
@@ -62,4 +67,76 @@ public class JinjaTransformationServiceTest {
         Assert.assertEquals("Hello world!", transformedResponse);
     }
 
+    @Test
+    public void testNestedArraysAndObjects() throws TransformationException {
+
+        String json = "{\"sensors\":[{\"name\":\"a\",\"value\":1},{\"name\":\"b\",\"value\":2.5}],\"on\":true}";
+        // method under test
+        String transformedResponse = processor.transform(
+                "{{ value_json.sensors[1].name }}={{ value_json.sensors[1].value }} {{ value_json.sensors|length }} {{ value_json.on }}",
+                json);
+
+        // Asserts
+        Assert.assertEquals("b=2.5 2 true", transformedResponse);
+    }
+
+    @Test
+    public void testTemplateIsReusedForDifferentValues() throws TransformationException {
+
+        String template = "{{ value_json.state }}";
+        // method under test and Asserts
+        Assert.assertEquals("ON", processor.transform(template, "{\"state\":\"ON\"}"));
+        Assert.assertEquals("OFF", processor.transform(template, "{\"state\":\"OFF\"}"));
+    }
+
+    @Test
+    public void testValueIsSharedBetweenTemplates() throws TransformationException {
+
+        String json = "{\"temperature\":21.5,\"humidity\":40}";
+        // method under test and Asserts
+        Assert.assertEquals("21.5", processor.transform("{{ value_json.temperature }}", json));
+        Assert.assertEquals("40", processor.transform("{{ value_json.humidity }}", json));
+        Assert.assertEquals("40", processor.transform("{{ value_json.humidity }}", new String(json)));
+        Assert.assertEquals("50", processor.transform("{{ value_json.humidity }}", "{\"humidity\":50}"));
+        Assert.assertEquals("plain", processor.transform("{{ value }}", "plain"));
+    }
+
+    @Test
+    public void testValueIsParsedOncePerMessage() throws TransformationException {
+        AtomicInteger parseCount = new AtomicInteger();
+        JinjaTransformationService countingProcessor = new JinjaTransformationService() {
+            @Override
+            @Nullable JsonNode readTree(String value) {
+                parseCount.incrementAndGet();
+                return super.readTree(value);
+            }
+        };
+
+        // several channels on the same state topic
+        String json = "{\"temperature\":21.5,\"humidity\":40,\"battery\":90}";
+        Assert.assertEquals("21.5", countingProcessor.transform("{{ value_json.temperature }}", json));
+        Assert.assertEquals("40", countingProcessor.transform("{{ value_json.humidity }}", json));
+        Assert.assertEquals("90", countingProcessor.transform("{{ value_json.battery }}", json));
+        Assert.assertEquals(1, parseCount.get());
+    }
+
+    @Test
+    public void testInterleavedTopicsAreParsedOnce() throws TransformationException {
+        AtomicInteger parseCount = new AtomicInteger();
+        JinjaTransformationService countingProcessor = new JinjaTransformationService() {
+            @Override
+            @Nullable JsonNode readTree(String value) {
+                parseCount.incrementAndGet();
+                return super.readTree(value);
+            }
+        };
+
+        String sensor = "{\"temperature\":21.5,\"humidity\":40}";
+        String plug = "{\"power\":12,\"state\":\"ON\"}";
+        Assert.assertEquals("21.5", countingProcessor.transform("{{ value_json.temperature }}", sensor));
+        Assert.assertEquals("12", countingProcessor.transform("{{ value_json.power }}", plug));
+        Assert.assertEquals("40", countingProcessor.transform("{{ value_json.humidity }}", sensor));
+        Assert.assertEquals("ON", countingProcessor.transform("{{ value_json.state }}", plug));
+        Assert.assertEquals(2, parseCount.get());
+    }
 }
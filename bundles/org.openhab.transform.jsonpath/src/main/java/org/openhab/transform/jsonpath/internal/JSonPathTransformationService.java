@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -24,6 +28,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -41,8 +46,26 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(immediate = true, property = { "smarthome.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    /** maximum number of compiled JsonPath expressions to keep */
+    private static final int MAX_CACHED_PATHS = 256;
+
+    /** maximum number of parsed documents to keep */
+    private static final int MAX_CACHED_DOCUMENTS = 8;
+
+    /** time in ms a parsed document is reused for further expressions on the same source */
+    private static final long DOCUMENT_CACHE_LIFETIME = 2000;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> pathCache = Collections.synchronizedMap(new LruMap<>(MAX_CACHED_PATHS));
+    private final Map<String, CachedDocument> documentCache = Collections
+            .synchronizedMap(new LruMap<>(MAX_CACHED_DOCUMENTS));
+
+    private final AtomicLong pathHits = new AtomicLong();
+    private final AtomicLong pathMisses = new AtomicLong();
+    private final AtomicLong documentHits = new AtomicLong();
+    private final AtomicLong documentMisses = new AtomicLong();
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,7 +83,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = getDocument(source).read(getPath(jsonPathExpression));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -76,6 +99,67 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    /**
+     * @return number of transformations which reused an already compiled JsonPath expression
+     */
+    public long getPathCacheHits() {
+        return pathHits.get();
+    }
+
+    /**
+     * @return number of transformations which had to compile their JsonPath expression
+     */
+    public long getPathCacheMisses() {
+        return pathMisses.get();
+    }
+
+    /**
+     * @return number of transformations which reused an already parsed JSON document
+     */
+    public long getDocumentCacheHits() {
+        return documentHits.get();
+    }
+
+    /**
+     * @return number of transformations which had to parse their JSON document
+     */
+    public long getDocumentCacheMisses() {
+        return documentMisses.get();
+    }
+
+    private JsonPath getPath(String jsonPathExpression) {
+        JsonPath path = pathCache.get(jsonPathExpression);
+        if (path != null) {
+            pathHits.incrementAndGet();
+            return path;
+        }
+        pathMisses.incrementAndGet();
+        path = JsonPath.compile(jsonPathExpression);
+        pathCache.put(jsonPathExpression, path);
+        return path;
+    }
+
+    /**
+     * Returns the parsed document for the given source. A payload feeding several channels is usually transformed by
+     * many expressions in a row, so the parsed document is kept for a short time and shared by these transformations.
+     */
+    private DocumentContext getDocument(String source) {
+        long now = System.currentTimeMillis();
+        CachedDocument cached = documentCache.get(source);
+        if (cached != null && now - cached.created < DOCUMENT_CACHE_LIFETIME) {
+            documentHits.incrementAndGet();
+            return cached.document;
+        }
+        documentMisses.incrementAndGet();
+        DocumentContext document = JsonPath.parse(source);
+        documentCache.put(source, new CachedDocument(document, now));
+        if (logger.isTraceEnabled()) {
+            logger.trace("cache statistics: paths {} hits / {} misses, documents {} hits / {} misses",
+                    pathHits.get(), pathMisses.get(), documentHits.get(), documentMisses.get());
+        }
+        return document;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
@@ -100,4 +184,29 @@ public class JSonPathTransformationService implements TransformationService {
     private String createStringList(List<?> list) {
         return list.stream().map(n -> "\"" + String.valueOf(n) + "\"").collect(Collectors.joining(", ", "[", "]"));
     }
+
+    private static class CachedDocument {
+        private final DocumentContext document;
+        private final long created;
+
+        private CachedDocument(DocumentContext document, long created) {
+            this.document = document;
+            this.created = created;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
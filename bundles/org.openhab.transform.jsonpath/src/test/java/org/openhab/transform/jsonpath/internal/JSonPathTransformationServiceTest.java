@@ -129,4 +129,16 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSameSourceIsParsedOnce() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("2", processor.transform("$[1].id", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+
+        assertEquals(1, processor.getDocumentCacheMisses());
+        assertEquals(2, processor.getDocumentCacheHits());
+        assertEquals(2, processor.getPathCacheMisses());
+        assertEquals(1, processor.getPathCacheHits());
+    }
 }
@@ -79,4 +79,17 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_compiledExpressionsAreReused() throws TransformationException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("SetMode(42)", processor.transform("s/^OP:(.*?),ARG:(.*)$/$1($2)/", "OP:SetMode,ARG:42"));
+            assertEquals("8",
+                    processor.transform(".*?<current_conditions>.*?<temp_c data=\"(.*?)\".*", source));
+        }
+
+        // Asserts
+        assertEquals(2, processor.getCacheMisses());
+        assertEquals(4, processor.getCacheHits());
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compiled form of a scale file.
+ *
+ * All range bounds are sorted into a list of distinct points <code>p0 &lt; p1 &lt; ... &lt; pn-1</code>, which splits
+ * the number line into the segments <code>]..p0[, [p0], ]p0..p1[, [p1], ..., ]pn-1..[</code>. Every range either
+ * contains a segment completely or not at all, so the label of the first range (in file order) containing a segment
+ * is resolved once when the file is loaded. A lookup is then a binary search over the bounds.
+ *
+ * @author agent - Initial contribution
+ */
+public class ScaleTable {
+
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+
+    private static final String FORMAT_VALUE = "%value%";
+    private static final String FORMAT_LABEL = "%label%";
+
+    private final BigDecimal[] bounds;
+    /** label per segment, <code>null</code> if no range contains the segment */
+    private final String[] labels;
+    private final String nonNumeric;
+    /** literal parts of the format, {@link #FORMAT_VALUE} and {@link #FORMAT_LABEL} are kept as markers */
+    private final String[] format;
+
+    /**
+     * @param ranges the ranges and their labels in file order
+     * @param nonNumeric the label for non numeric input or <code>null</code>
+     * @param format the presentation format
+     */
+    public ScaleTable(final Map<Range, String> ranges, final String nonNumeric, final String format) {
+        final TreeSet<BigDecimal> points = new TreeSet<>();
+        for (final Range range : ranges.keySet()) {
+            if (range.min != null) {
+                points.add(range.min);
+            }
+            if (range.max != null) {
+                points.add(range.max);
+            }
+        }
+        this.bounds = points.toArray(new BigDecimal[points.size()]);
+        this.labels = new String[2 * bounds.length + 1];
+        for (int segment = 0; segment < labels.length; segment++) {
+            final BigDecimal representative = representative(segment);
+            for (final Map.Entry<Range, String> entry : ranges.entrySet()) {
+                if (entry.getKey().contains(representative)) {
+                    labels[segment] = entry.getValue();
+                    break;
+                }
+            }
+        }
+        this.nonNumeric = nonNumeric;
+        this.format = compileFormat(format);
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the label of the first range containing the value or <code>null</code> if there is none
+     */
+    public String lookup(final BigDecimal value) {
+        final int index = Arrays.binarySearch(bounds, value, BigDecimal::compareTo);
+        return labels[index >= 0 ? 2 * index + 1 : 2 * (-index - 1)];
+    }
+
+    /**
+     * @return the label for non numeric input or <code>null</code> if there is none
+     */
+    public String getNonNumeric() {
+        return nonNumeric;
+    }
+
+    /**
+     * Applies the presentation format.
+     *
+     * @param value the input value
+     * @param label the label of the matching range
+     * @return the formatted result
+     */
+    public String format(final String value, final String label) {
+        if (format.length == 1 && format[0] == FORMAT_LABEL) {
+            return label;
+        }
+        final StringBuilder result = new StringBuilder();
+        for (final String part : format) {
+            if (part == FORMAT_VALUE) {
+                result.append(value);
+            } else if (part == FORMAT_LABEL) {
+                result.append(label);
+            } else {
+                result.append(part);
+            }
+        }
+        return result.toString();
+    }
+
+    private BigDecimal representative(final int segment) {
+        if (bounds.length == 0) {
+            return BigDecimal.ZERO;
+        }
+        if (segment % 2 == 1) {
+            return bounds[segment / 2];
+        }
+        final int upper = segment / 2;
+        if (upper == 0) {
+            return bounds[0].subtract(BigDecimal.ONE);
+        }
+        if (upper == bounds.length) {
+            return bounds[bounds.length - 1].add(BigDecimal.ONE);
+        }
+        return bounds[upper - 1].add(bounds[upper]).multiply(HALF);
+    }
+
+    private static String[] compileFormat(final String format) {
+        final List<String> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < format.length()) {
+            final int value = format.indexOf(FORMAT_VALUE, pos);
+            final int label = format.indexOf(FORMAT_LABEL, pos);
+            final int next = value < 0 ? label : label < 0 ? value : Math.min(value, label);
+            if (next < 0) {
+                parts.add(format.substring(pos));
+                break;
+            }
+            if (next > pos) {
+                parts.add(format.substring(pos, next));
+            }
+            // the marker constants are added by reference to tell them from equal literal text
+            parts.add(next == value ? FORMAT_VALUE : FORMAT_LABEL);
+            pos = next + (next == value ? FORMAT_VALUE.length() : FORMAT_LABEL.length());
+        }
+        return parts.toArray(new String[parts.size()]);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ScaleTableTest {
+
+    @Test
+    public void testLookupMatchesFirstRangeInFileOrder() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        ranges.put(Range.lessThan(new BigDecimal(15)), "first");
+        ranges.put(Range.closedOpen(new BigDecimal(10), new BigDecimal(17)), "second");
+        ranges.put(Range.atLeast(new BigDecimal(15)), "last");
+        ScaleTable table = new ScaleTable(ranges, null, "%label%");
+
+        assertEquals("first", table.lookup(new BigDecimal(12)));
+        assertEquals("first", table.lookup(new BigDecimal("14.999")));
+        assertEquals("second", table.lookup(new BigDecimal("15.0")));
+        assertEquals("second", table.lookup(new BigDecimal("16.5")));
+        assertEquals("last", table.lookup(new BigDecimal(17)));
+        assertEquals("last", table.lookup(new BigDecimal(1000)));
+    }
+
+    @Test
+    public void testLookupWithoutMatch() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        ranges.put(Range.open(new BigDecimal(0), new BigDecimal(10)), "inside");
+        ScaleTable table = new ScaleTable(ranges, null, "%label%");
+
+        assertNull(table.lookup(BigDecimal.ZERO));
+        assertNull(table.lookup(BigDecimal.TEN));
+        assertNull(table.lookup(new BigDecimal(-1)));
+        assertEquals("inside", table.lookup(new BigDecimal("0.0001")));
+    }
+
+    @Test
+    public void testLookupAgreesWithLinearScan() {
+        Random random = new Random(42);
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            BigDecimal lower = new BigDecimal(random.nextInt(1000));
+            BigDecimal upper = lower.add(new BigDecimal(random.nextInt(50)));
+            ranges.put(Range.range(lower, random.nextBoolean(), upper, random.nextBoolean()), "band" + i);
+        }
+        ScaleTable table = new ScaleTable(ranges, null, "%label%");
+
+        for (int i = 0; i < 10000; i++) {
+            BigDecimal value = new BigDecimal(random.nextInt(21000) - 500).movePointLeft(1);
+            String expected = ranges.entrySet().stream().filter(entry -> entry.getKey().contains(value)).findFirst()
+                    .map(Map.Entry::getValue).orElse(null);
+            assertEquals("value " + value, expected, table.lookup(value));
+        }
+    }
+
+    @Test
+    public void testFormat() {
+        ScaleTable table = new ScaleTable(new LinkedHashMap<>(), null, "%label% (%value%) $1 !");
+
+        assertEquals("Correcte (992 ppm) $1 !", table.format("992 ppm", "Correcte"));
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple location paths on a StAX stream instead of a DOM.
+ *
+ * Supported are absolute paths made of child (<code>/</code>) and descendant (<code>//</code>) steps with unprefixed
+ * element names or <code>*</code>, optionally ending with an <code>@attribute</code> or <code>text()</code> step, e.g.
+ * <code>//current_conditions/temp_c/@data</code>. Like {@link javax.xml.xpath.XPathConstants#STRING} evaluation, the
+ * string value of the first matching node in document order is returned. The remaining document is still parsed, but
+ * not evaluated, so malformed documents are rejected like by the DOM evaluation.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class StreamingXPath {
+
+    private static final Pattern NAME = Pattern.compile("[\\p{L}_][\\p{L}\\p{N}_.\\-]*");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final List<String> elementSteps;
+    private final BitSet descendantSteps;
+    private final @Nullable String attribute;
+    private final boolean text;
+
+    private StreamingXPath(List<String> elementSteps, BitSet descendantSteps, @Nullable String attribute,
+            boolean text) {
+        this.elementSteps = elementSteps;
+        this.descendantSteps = descendantSteps;
+        this.attribute = attribute;
+        this.text = text;
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression the XPath expression
+     * @return the compiled expression or <code>null</code> if the expression cannot be evaluated on a stream
+     */
+    public static @Nullable StreamingXPath compile(String expression) {
+        String path = expression.trim();
+        if (!path.startsWith("/") || path.endsWith("/")) {
+            return null;
+        }
+
+        List<String> elementSteps = new ArrayList<>();
+        BitSet descendantSteps = new BitSet();
+        String attribute = null;
+        boolean text = false;
+
+        int pos = 0;
+        while (pos < path.length()) {
+            boolean descendant = path.startsWith("//", pos);
+            pos += descendant ? 2 : 1;
+            int end = path.indexOf('/', pos);
+            String step = path.substring(pos, end < 0 ? path.length() : end).trim();
+            boolean last = end < 0;
+            pos = last ? path.length() : end;
+
+            if (step.startsWith("@") || step.equals("text()")) {
+                if (!last || descendant) {
+                    return null;
+                }
+                if (step.equals("text()")) {
+                    text = true;
+                } else if (NAME.matcher(step.substring(1)).matches()) {
+                    attribute = step.substring(1);
+                } else {
+                    return null;
+                }
+            } else if (step.equals("*") || NAME.matcher(step).matches()) {
+                descendantSteps.set(elementSteps.size(), descendant);
+                elementSteps.add(step);
+            } else {
+                return null;
+            }
+        }
+        if (elementSteps.isEmpty()) {
+            return null;
+        }
+        return new StreamingXPath(elementSteps, descendantSteps, attribute, text);
+    }
+
+    /**
+     * Evaluates the expression on the given document.
+     *
+     * @param source the XML document
+     * @return the string value of the first matching node, an empty string if no node matches
+     * @throws XMLStreamException if the document cannot be parsed
+     */
+    public String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            return evaluate(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private String evaluate(XMLStreamReader reader) throws XMLStreamException {
+        int steps = elementSteps.size();
+        // matched step counts of the open elements, index 0 is the document
+        List<BitSet> stack = new ArrayList<>();
+        BitSet root = new BitSet();
+        root.set(0);
+        stack.add(root);
+
+        // depth of the first matched element whose string value is collected, -1 if none
+        int matchDepth = -1;
+        StringBuilder value = new StringBuilder();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    BitSet parent = stack.get(stack.size() - 1);
+                    BitSet current = new BitSet();
+                    for (int i = parent.nextSetBit(0); i >= 0; i = parent.nextSetBit(i + 1)) {
+                        if (i < steps && matches(elementSteps.get(i), reader)) {
+                            current.set(i + 1);
+                        }
+                        if (i < steps && descendantSteps.get(i)) {
+                            current.set(i);
+                        }
+                    }
+                    stack.add(current);
+                    if (current.get(steps)) {
+                        String attributeName = attribute;
+                        if (attributeName != null) {
+                            String attributeValue = getAttribute(reader, attributeName);
+                            if (attributeValue != null) {
+                                return finish(reader, attributeValue);
+                            }
+                        } else if (!text && matchDepth < 0) {
+                            matchDepth = stack.size() - 1;
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (matchDepth == stack.size() - 1) {
+                        return finish(reader, value.toString());
+                    }
+                    stack.remove(stack.size() - 1);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (text && stack.get(stack.size() - 1).get(steps)) {
+                        return finish(reader, reader.getText());
+                    } else if (matchDepth >= 0) {
+                        value.append(reader.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Parses the rest of the document to check that it is well-formed.
+     */
+    private static String finish(XMLStreamReader reader, String result) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+        return result;
+    }
+
+    private static @Nullable String getAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (name.equals(reader.getAttributeLocalName(i)) && (namespace == null || namespace.isEmpty())) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String step, XMLStreamReader reader) {
+        if (step.equals("*")) {
+            return true;
+        }
+        String namespace = reader.getNamespaceURI();
+        return step.equals(reader.getLocalName()) && (namespace == null || namespace.isEmpty());
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
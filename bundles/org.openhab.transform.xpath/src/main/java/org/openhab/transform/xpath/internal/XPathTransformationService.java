@@ -13,12 +13,19 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,14 +42,33 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Simple location paths are evaluated on a stream by {@link StreamingXPath}, so no DOM has to be built for them. All
+ * other expressions are compiled once per thread and evaluated on a DOM built by a thread-confined
+ * {@link DocumentBuilder}, as neither builders nor compiled expressions are thread-safe.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(immediate = true, property = { "smarthome.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    /** maximum number of compiled expressions to keep per thread and for streaming evaluation */
+    private static final int MAX_CACHED_EXPRESSIONS = 128;
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final Map<String, Optional<StreamingXPath>> streamingCache = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<@Nullable DocumentBuilder> documentBuilder = new ThreadLocal<>();
+
+    private final ThreadLocal<Map<String, XPathExpression>> expressionCache = ThreadLocal
+            .withInitial(() -> new ExpressionCache());
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,22 +77,31 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
+        StreamingXPath streamingXPath = getStreamingXPath(xpathExpression);
+        if (streamingXPath != null) {
+            try {
+                String transformationResult = streamingXPath.evaluate(source);
+                logger.debug("streaming transformation resulted in '{}'", transformationResult);
+                return transformationResult;
+            } catch (XMLStreamException e) {
+                logger.debug("streaming transformation failed, falling back to DOM: {}", e.getMessage());
+            }
+        }
 
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+            DocumentBuilder builder = getDocumentBuilder();
 
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
+            InputSource inputSource = new InputSource(new StringReader(source));
             inputSource.setEncoding("UTF-8");
 
-            Document doc = builder.parse(inputSource);
+            Document doc;
+            try {
+                doc = builder.parse(inputSource);
+            } finally {
+                builder.reset();
+            }
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
+            XPathExpression expr = getExpression(xpathExpression);
 
             String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
 
@@ -75,11 +110,62 @@ public class XPathTransformationService implements TransformationService {
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
+        }
+    }
+
+    private @Nullable StreamingXPath getStreamingXPath(String xpathExpression) {
+        Optional<StreamingXPath> streamingXPath = streamingCache.get(xpathExpression);
+        if (streamingXPath == null) {
+            if (streamingCache.size() >= MAX_CACHED_EXPRESSIONS) {
+                streamingCache.clear();
             }
+            streamingXPath = Optional.ofNullable(StreamingXPath.compile(xpathExpression));
+            streamingCache.put(xpathExpression, streamingXPath);
         }
+        return streamingXPath.orElse(null);
     }
 
+    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = documentBuilder.get();
+        if (builder == null) {
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                builder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            }
+            documentBuilder.set(builder);
+        }
+        return builder;
+    }
+
+    private XPathExpression getExpression(String xpathExpression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = expressionCache.get();
+        XPathExpression expr = expressions.get(xpathExpression);
+        if (expr == null) {
+            XPath xpath;
+            synchronized (XPATH_FACTORY) {
+                xpath = XPATH_FACTORY.newXPath();
+            }
+            expr = xpath.compile(xpathExpression);
+            expressions.put(xpathExpression, expr);
+        }
+        return expr;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+        return domFactory;
+    }
+
+    @SuppressWarnings("serial")
+    private static class ExpressionCache extends LinkedHashMap<String, XPathExpression> {
+        private ExpressionCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.@Nullable Entry<String, XPathExpression> eldest) {
+            return size() > MAX_CACHED_EXPRESSIONS;
+        }
+    }
 }
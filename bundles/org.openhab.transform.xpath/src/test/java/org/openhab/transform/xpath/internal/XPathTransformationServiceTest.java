@@ -41,4 +41,33 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformByXPath_streamingPaths() throws TransformationException {
+        assertEquals("Klar", processor.transform("//forecast_conditions/condition/@data", source));
+        assertEquals("Di.", processor.transform("/xml_api_reply/weather/forecast_conditions/day_of_week/@data", source));
+        assertEquals("", processor.transform("//unknown/@data", source));
+        assertEquals("x y", processor.transform("/a/b", "<a><b>x <c>y</c></b></a>"));
+        assertEquals("x ", processor.transform("/a/b/text()", "<a><b>x <c>y</c></b></a>"));
+    }
+
+    @Test
+    public void testTransformByXPath_domExpressions() throws TransformationException {
+        assertEquals("8", processor.transform("//forecast_conditions[3]/high/@data", source));
+        assertEquals("4", processor.transform("count(//forecast_conditions)", source));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformByXPath_invalidDocument() throws TransformationException {
+        processor.transform("/a/b", "<a><b>");
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformByXPath_documentTruncatedAfterMatch() throws TransformationException {
+        processor.transform("/a/b/@c", "<a><b c=\"x\"/><d>");
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformByXPath_malformedAfterMatch() throws TransformationException {
+        processor.transform("/a/b", "<a><b>x</b></c>");
+    }
 }
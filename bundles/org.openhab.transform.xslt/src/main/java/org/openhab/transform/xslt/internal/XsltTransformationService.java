@@ -15,9 +15,14 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -27,7 +32,9 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,14 +42,44 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * The XSL files are compiled into {@link Templates} once and kept until the {@link XsltTransformationWatcher} reports
+ * a change in the transformation folder.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(immediate = true, property = { "smarthome.transform=XSLT" })
 public class XsltTransformationService implements TransformationService {
 
+    public static final String TRANSFORM_FOLDER = ConfigConstants.getConfigFolder() + File.separator
+            + TransformationService.TRANSFORM_FOLDER_NAME;
+
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    private final Map<Path, Templates> templatesCache = new ConcurrentHashMap<>();
+
+    private @Nullable XsltTransformationWatcher watcher;
+
+    @Activate
+    protected void activate() {
+        XsltTransformationWatcher localWatcher = new XsltTransformationWatcher(this);
+        localWatcher.activate();
+        watcher = localWatcher;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        XsltTransformationWatcher localWatcher = watcher;
+        if (localWatcher != null) {
+            localWatcher.deactivate();
+            watcher = null;
+        }
+        templatesCache.clear();
+    }
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,28 +97,15 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
-
-        try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error("{}", message, e);
-            throw new TransformationException(message, e);
-        }
+        Templates templates = getTemplates(filename);
 
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, filename);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
+            Transformer transformer = templates.newTransformer();
             transformer.transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
@@ -93,4 +117,48 @@ public class XsltTransformationService implements TransformationService {
         return out.toString();
     }
 
+    /**
+     * Removes all compiled templates from the cache. A changed file might be included or imported by any XSL file, so
+     * no single entry can be removed.
+     */
+    protected void clearCache() {
+        if (!templatesCache.isEmpty()) {
+            templatesCache.clear();
+            logger.debug("Removed all compiled XSL files from cache.");
+        }
+    }
+
+    /**
+     * Returns whether the compiled templates of the given file are cached.
+     */
+    boolean isCached(String filename) {
+        return templatesCache.containsKey(Paths.get(TRANSFORM_FOLDER, filename).toAbsolutePath().normalize());
+    }
+
+    private Templates getTemplates(String filename) throws TransformationException {
+        Path path;
+        try {
+            path = Paths.get(TRANSFORM_FOLDER, filename).toAbsolutePath().normalize();
+        } catch (Exception e) {
+            String message = "opening file '" + filename + "' throws exception";
+
+            logger.error("{}", message, e);
+            throw new TransformationException(message, e);
+        }
+
+        Templates templates = templatesCache.get(path);
+        if (templates == null) {
+            logger.debug("Compiling XSL file {}", path);
+            try {
+                synchronized (transformerFactory) {
+                    templates = transformerFactory.newTemplates(new StreamSource(path.toFile()));
+                }
+            } catch (TransformerConfigurationException e) {
+                logger.error("transformation throws exception", e);
+                throw new TransformationException("transformation throws exception", e);
+            }
+            templatesCache.put(path, templates);
+        }
+        return templates;
+    }
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2010-2020 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xslt.internal;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchEvent.Kind;
+
+import org.eclipse.smarthome.core.service.AbstractWatchService;
+
+/**
+ * The {@link XsltTransformationWatcher} watches the transformation directory for files. If a created, deleted or
+ * modified file is detected, all compiled templates are removed from the cache of the {@link XsltTransformationService},
+ * as the file might be included or imported by other XSL files.
+ *
+ * @author agent - Initial contribution
+ */
+public class XsltTransformationWatcher extends AbstractWatchService {
+
+    private final XsltTransformationService service;
+
+    public XsltTransformationWatcher(XsltTransformationService service) {
+        super(XsltTransformationService.TRANSFORM_FOLDER);
+        this.service = service;
+    }
+
+    @Override
+    protected boolean watchSubDirectories() {
+        return true;
+    }
+
+    @Override
+    protected Kind<?>[] getWatchEventKinds(Path directory) {
+        return new Kind<?>[] { ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY };
+    }
+
+    @Override
+    protected void processWatchEvent(WatchEvent<?> event, Kind<?> kind, Path path) {
+        logger.debug("New watch event {} for path {}.", kind, path);
+
+        if (kind == OVERFLOW) {
+            return;
+        }
+
+        service.clearCache();
+    }
+}
@@ -12,7 +12,11 @@
  */
 package org.openhab.transform.xslt.internal;
 
-import static org.junit.Assert.assertEquals;
+import static java.nio.file.StandardWatchEventKinds.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -41,4 +45,26 @@ public class XsltTransformationServiceTest extends AbstractTransformationService
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformByXSLT_reusesTemplates() throws TransformationException {
+        assertEquals("8", processor.transform("http/google_weather.xsl", source));
+        assertEquals("8", processor.transform("http/google_weather.xsl", source.replace("Krefeld", "Berlin")));
+    }
+
+    @Test
+    public void testTransformByXSLT_anyChangeInFolderDropsTemplates() throws TransformationException {
+        XsltTransformationWatcher watcher = new XsltTransformationWatcher(processor);
+        Path included = Paths.get(XsltTransformationService.TRANSFORM_FOLDER, "http", "included.xsl");
+
+        processor.transform("http/google_weather.xsl", source);
+        assertTrue(processor.isCached("http/google_weather.xsl"));
+
+        // editors saving by atomic rename create the file instead of modifying it
+        watcher.processWatchEvent(null, ENTRY_CREATE, included);
+        assertFalse(processor.isCached("http/google_weather.xsl"));
+
+        processor.transform("http/google_weather.xsl", source);
+        watcher.processWatchEvent(null, ENTRY_MODIFY, included);
+        assertFalse(processor.isCached("http/google_weather.xsl"));
+    }
 }